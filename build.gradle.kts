@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.ronaldsuwandi"
@@ -10,19 +11,36 @@ repositories {
     mavenCentral()
 }
 
+// synthetic load and load-test clients, kept apart from main so they and the test driver never ship with the app
+val workload: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations["workloadImplementation"].extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation("org.apache.kafka:kafka-clients:3.8.1")
     implementation("org.apache.kafka:kafka-streams:3.8.1")
     implementation("org.apache.kafka:kafka_2.13:3.8.1")
-    implementation("com.fasterxml.jackson.core:jackson-core:2.18.1")
-    implementation("com.fasterxml.jackson.core:jackson-databind:2.18.1")
-    implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.18.1")
+    // kafka_2.13 pulls in Jackson 2.16 modules, pin every Jackson artifact to one version
+    implementation(platform("com.fasterxml.jackson:jackson-bom:2.18.1"))
+    implementation("com.fasterxml.jackson.core:jackson-core")
+    implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
     implementation("org.slf4j:slf4j-api:2.0.12")
     implementation("ch.qos.logback:logback-classic:1.5.6")
 
     testImplementation(platform("org.junit:junit-bom:5.10.3"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.apache.kafka:kafka-streams-test-utils:3.8.1")
+    testImplementation(workload.output)
+
+    "workloadImplementation"("org.apache.kafka:kafka-streams-test-utils:3.8.1")
+
+    // the jmh configuration is resolved on its own and comes first on the jmh task's classpath
+    jmh(platform("com.fasterxml.jackson:jackson-bom:2.18.1"))
+    jmh("org.apache.kafka:kafka-streams-test-utils:3.8.1")
 }
 
 application {
@@ -36,3 +54,68 @@ tasks.test {
         showStandardStreams = true
     }
 }
+
+tasks.register<JavaExec>("queryLoadTest") {
+    description = "Load-tests the interactive query endpoint, see README"
+    classpath = workload.runtimeClasspath
+    mainClass = "com.ronaldsuwandi.query.QueryLoadTest"
+    args = providers.gradleProperty("queryLoadTestArgs").map { it.split(" ") }.getOrElse(listOf())
+}
+
+tasks.register<JavaExec>("backfill") {
+    description = "Replays activity exports through the steps logic without Kafka, see README"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.ronaldsuwandi.backfill.Backfill"
+    args = providers.gradleProperty("backfillArgs").map { it.split(" ") }.getOrElse(listOf())
+}
+
+tasks.register<JavaExec>("workload") {
+    description = "Generates a synthetic ingress workload into files, see README"
+    classpath = workload.runtimeClasspath
+    mainClass = "com.ronaldsuwandi.workload.WorkloadGenerator"
+    args = providers.gradleProperty("workloadArgs").map { it.split(" ") }.getOrElse(listOf())
+}
+
+val macroBenchmarkResult = layout.buildDirectory.file("macro-benchmark/result.json")
+val macroBenchmarkBaseline = "benchmarks/macro-baseline.json"
+
+tasks.register<JavaExec>("macroBenchmark") {
+    description = "Runs the full topology over a synthetic workload on an in-process broker, see README"
+    classpath = workload.runtimeClasspath
+    mainClass = "com.ronaldsuwandi.workload.MacroBenchmark"
+    maxHeapSize = "1g"
+    args = listOf("out=" + macroBenchmarkResult.get().asFile.path) +
+            providers.gradleProperty("macroBenchmarkArgs").map { it.split(" ") }.getOrElse(listOf())
+    outputs.file(macroBenchmarkResult)
+    outputs.upToDateWhen { false }
+}
+
+tasks.register<JavaExec>("macroBenchmarkCheck") {
+    description = "Fails when macroBenchmark throughput is more than -PmacroBenchmarkThreshold below the baseline"
+    dependsOn("macroBenchmark")
+    classpath = workload.runtimeClasspath
+    mainClass = "com.ronaldsuwandi.workload.MacroBenchmarkGate"
+    args = listOf(macroBenchmarkResult.get().asFile.path, file(macroBenchmarkBaseline).path,
+            providers.gradleProperty("macroBenchmarkThreshold").getOrElse("0.15"))
+}
+
+tasks.register<Copy>("macroBenchmarkBaseline") {
+    description = "Records the macroBenchmark result as the new baseline"
+    dependsOn("macroBenchmark")
+    from(macroBenchmarkResult)
+    into(file(macroBenchmarkBaseline).parentFile)
+    rename { file(macroBenchmarkBaseline).name }
+}
+
+jmh {
+    jmhVersion = "1.37"
+    // report allocation per op alongside throughput so changes can be held to numbers
+    profilers = listOf("gc")
+    benchmarkMode = listOf("thrpt")
+    timeUnit = "s"
+    fork = 1
+    warmupIterations = 2
+    iterations = 3
+    resultFormat = "JSON"
+    includes = providers.gradleProperty("jmhIncludes").map { listOf(it) }.orElse(listOf())
+}
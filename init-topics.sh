@@ -1,8 +1,19 @@
 #!/bin/sh
 
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-activity-android
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-activity-ios
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-steps-7-days-aggregated --config cleanup.policy=compact
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-notifications
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-notification-id-table
-docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create --topic user-activity-normalized
+# Every topic gets the same partition count (see TopicPlan). user-activity-normalized, user-steps-7-days-aggregated
+# and the user-notification-id-store changelog must be co-partitioned for the join, and the partition count bounds
+# how many stream threads over all instances have work. Partitions can be added later but not removed, and adding
+# them moves users to other partitions, so pick a count that leaves room to scale out.
+PARTITIONS=${PARTITIONS:-6}
+REPLICATION_FACTOR=${REPLICATION_FACTOR:-1}
+
+create_topic() {
+    docker compose exec -it kafka /opt/bitnami/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 --create \
+        --partitions "$PARTITIONS" --replication-factor "$REPLICATION_FACTOR" --topic "$@"
+}
+
+create_topic user-activity-android
+create_topic user-activity-ios
+create_topic user-steps-7-days-aggregated --config cleanup.policy=compact
+create_topic user-notifications
+create_topic user-activity-normalized
@@ -0,0 +1,53 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Sample records shared across benchmarks. Values mirror what producers/producer.js sends so the numbers are
+ * representative of real payloads.
+ */
+public final class BenchmarkData {
+    public static final Instant TIMESTAMP = Instant.parse("2024-11-04T10:15:30.123Z");
+
+    private BenchmarkData() {
+    }
+
+    public static UserActivityIos ios(String userId) {
+        return new UserActivityIos(userId, "Doe", "1 Main Street", userId, "male", 175, 70,
+                new UserActivityIos.PhysicalActivity(100, 100, 8, 250),
+                1.3521, 103.8198, "333001", TIMESTAMP);
+    }
+
+    public static UserActivityAndroid android(String userId) {
+        return new UserActivityAndroid(
+                new UserActivityAndroid.Person(userId, "Doe", "1 Main Street", userId, "female", 160, 55),
+                new UserActivityAndroid.Activity(100, 100, 8, 250),
+                new UserActivityAndroid.Location(1.3521, 103.8198, "333001"),
+                TIMESTAMP);
+    }
+
+    public static UserActivityNormalized normalized(String userId) {
+        return new UserActivityNormalized(userId, userId, "Doe", 250, 1.3521, 103.8198, "333001", TIMESTAMP);
+    }
+
+    public static UserNotification notification(String userId) {
+        return new UserNotification(userId, "UNIQUE-NOTIFICATION-ID", "Time for a juice nearby!" + userId, TIMESTAMP);
+    }
+
+    public static UserStepsDaily daily() {
+        return new UserStepsDaily(2500);
+    }
+
+    public static WeeklyLabelHistory sevenDayHistory() {
+        WeeklyLabelHistory history = new WeeklyLabelHistory();
+        long day = TIMESTAMP.truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        for (int i = 0; i < 7; i++) {
+            history.put(day + Duration.ofDays(i).toMillis(), i % 3 == 0 ? "daily_high_stepper" : "daily_medium_stepper");
+        }
+        return history;
+    }
+}
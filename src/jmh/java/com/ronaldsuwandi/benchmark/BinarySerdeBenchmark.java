@@ -0,0 +1,83 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.serde.UserActivityNormalizedBinarySerde;
+import com.ronaldsuwandi.serde.UserNotificationBinarySerde;
+import com.ronaldsuwandi.serde.UserStepsDailySerde;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary wire format for internal topics, compare with the matching methods in {@link JSONSerdeBenchmark}. The daily
+ * window store value is binary only, {@link #deserializeDailyLegacyJson} reads a value left by an earlier version.
+ */
+@State(Scope.Thread)
+public class BinarySerdeBenchmark {
+    private static final String TOPIC = "benchmark";
+
+    private UserActivityNormalizedBinarySerde normalizedSerde;
+    private UserNotificationBinarySerde notificationSerde;
+    private UserStepsDailySerde dailySerde;
+
+    private UserActivityNormalized normalized;
+    private UserNotification notification;
+    private UserStepsDaily daily;
+    private byte[] normalizedBytes;
+    private byte[] notificationBytes;
+    private byte[] dailyBytes;
+    private byte[] legacyDailyBytes;
+
+    @Setup
+    public void setup() {
+        normalizedSerde = new UserActivityNormalizedBinarySerde();
+        notificationSerde = new UserNotificationBinarySerde();
+        dailySerde = new UserStepsDailySerde();
+        normalized = BenchmarkData.normalized("user-1");
+        notification = BenchmarkData.notification("user-1");
+        daily = BenchmarkData.daily();
+        normalizedBytes = normalizedSerde.serialize(TOPIC, normalized);
+        notificationBytes = notificationSerde.serialize(TOPIC, notification);
+        dailyBytes = dailySerde.serialize(TOPIC, daily);
+        legacyDailyBytes = """
+                {"userId":"user-1","steps":2500,"timestamp":"2024-11-04T00:00:00Z","label":"daily_medium_stepper"}"""
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeNormalized() {
+        return normalizedSerde.serialize(TOPIC, normalized);
+    }
+
+    @Benchmark
+    public UserActivityNormalized deserializeNormalized() {
+        return normalizedSerde.deserialize(TOPIC, normalizedBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeNotification() {
+        return notificationSerde.serialize(TOPIC, notification);
+    }
+
+    @Benchmark
+    public UserNotification deserializeNotification() {
+        return notificationSerde.deserialize(TOPIC, notificationBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeDaily() {
+        return dailySerde.serialize(TOPIC, daily);
+    }
+
+    @Benchmark
+    public UserStepsDaily deserializeDaily() {
+        return dailySerde.deserialize(TOPIC, dailyBytes);
+    }
+
+    @Benchmark
+    public UserStepsDaily deserializeDailyLegacyJson() {
+        return dailySerde.deserialize(TOPIC, legacyDailyBytes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.serde.WeeklyLabelHistorySerde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Drives the processor against an in-memory store, rolling each user forward one day per invocation so the store
+ * holds a full 7-day history in steady state.
+ */
+@State(Scope.Thread)
+public class ConsecutiveStepsProcessorBenchmark {
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Param({"10000"})
+    public int users;
+
+    private ConsecutiveStepsProcessor processor;
+    private MockProcessorContext<String, String> context;
+    private String[] userIds;
+    private UserStepsDaily[] dailies;
+    private long baseDay;
+    private long invocation;
+
+    @Setup
+    public void setup() {
+        context = new MockProcessorContext<>();
+        KeyValueStore<String, WeeklyLabelHistory> store = Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME),
+                        Serdes.String(),
+                        new WeeklyLabelHistorySerde())
+                .withLoggingDisabled()
+                .withCachingDisabled()
+                .build();
+        store.init(context.getStateStoreContext(), store);
+        context.addStateStore(store);
+
+        processor = new ConsecutiveStepsProcessor();
+        processor.init(context);
+
+        userIds = new String[users];
+        dailies = new UserStepsDaily[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+            dailies[i] = BenchmarkData.daily();
+        }
+        baseDay = BenchmarkData.TIMESTAMP.truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        invocation = 0;
+    }
+
+    @Benchmark
+    public void process() {
+        int user = (int) (invocation % users);
+        long windowStart = baseDay + (invocation / users) * DAY;
+        invocation++;
+
+        processor.process(new Record<>(
+                new Windowed<>(userIds[user], new TimeWindow(windowStart, windowStart + DAY)),
+                dailies[user],
+                windowStart));
+        // captured forwards would otherwise accumulate for the whole run
+        context.resetForwards();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import com.ronaldsuwandi.transformer.DailyEmitStrategy;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+
+/**
+ * Pipes hourly activity for a population of users through the full topology and counts how many records each
+ * input produces on {@code user-steps-7-days-aggregated} ({@code weeklyLabelRecords} in the secondary results).
+ * <p>
+ * TopologyTestDriver commits after every record, so CACHED reports the same downstream count as PER_UPDATE here;
+ * its coalescing depends on the commit interval of a real deployment.
+ */
+@State(Scope.Thread)
+public class DailyEmitStrategyBenchmark {
+    private static final Instant DAY_0 = Instant.parse("2024-11-04T00:00:00Z");
+
+    @Param({"PER_UPDATE", "CACHED", "ON_WINDOW_CLOSE"})
+    public DailyEmitStrategy strategy;
+
+    @Param({"10"})
+    public int users;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, UserActivityNormalized> inputTopic;
+    private TestOutputTopic<String, String> weeklyLabelTopic;
+    private TestOutputTopic<String, String> notificationTopic;
+    private String[] userIds;
+    private long invocation;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long weeklyLabelRecords;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Properties config = new Properties();
+        config.put(AppConfig.DAILY_EMIT_STRATEGY, strategy.name());
+        AppConfig appConfig = new AppConfig(config);
+        TopologyBuilder topologyBuilder = new TopologyBuilder(appConfig);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        topologyBuilder.configureStreams(props);
+
+        driver = new TopologyTestDriver(topologyBuilder.build(), props);
+        inputTopic = driver.createInputTopic(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, new StringSerializer(),
+                new TopicSerdes(appConfig).serde(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class).serializer());
+        weeklyLabelTopic = driver.createOutputTopic(TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED,
+                new StringDeserializer(), new StringDeserializer());
+        // drained every invocation so captured output does not pile up
+        notificationTopic = driver.createOutputTopic(TopologyBuilder.TOPIC_USER_NOTIFICATIONS,
+                new StringDeserializer(), new StringDeserializer());
+
+        userIds = new String[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+        }
+        invocation = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        driver.close();
+    }
+
+    @Benchmark
+    public void pipeHourlyActivity(Counters counters) {
+        String userId = userIds[(int) (invocation % users)];
+        Instant timestamp = DAY_0.plus(invocation / users, ChronoUnit.HOURS);
+        invocation++;
+
+        inputTopic.pipeInput(userId, new UserActivityNormalized(userId, userId, "Doe", 150, null, null, null, timestamp));
+
+        counters.weeklyLabelRecords += weeklyLabelTopic.readValuesToList().size();
+        notificationTopic.readValuesToList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.UserActivityNormalizer;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.serde.IngressParser;
+import com.ronaldsuwandi.serde.IngressProjection;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Raw ingress bytes to {@link UserActivityNormalized}, which is what the normalization stage does per event.
+ * {@code BINDING} builds the platform record and normalizes it, {@code PROJECTION} only reads the normalized fields.
+ */
+@State(Scope.Thread)
+public class IngressParserBenchmark {
+    @Param({"BINDING", "PROJECTION"})
+    public IngressParser parser;
+
+    private byte[] ios;
+    private byte[] android;
+    private Deserializer<UserActivityNormalized> iosDeserializer;
+    private Deserializer<UserActivityNormalized> androidDeserializer;
+
+    @Setup
+    public void setup() {
+        ios = JSONSerdeUtil.getSerde(UserActivityIos.class).serializer().serialize("topic", BenchmarkData.ios("user-1"));
+        android = JSONSerdeUtil.getSerde(UserActivityAndroid.class).serializer().serialize("topic", BenchmarkData.android("user-1"));
+
+        if (parser == IngressParser.PROJECTION) {
+            iosDeserializer = IngressProjection.iosDeserializer();
+            androidDeserializer = IngressProjection.androidDeserializer();
+        } else {
+            Deserializer<UserActivityIos> iosBinding = JSONSerdeUtil.getSerde(UserActivityIos.class).deserializer();
+            Deserializer<UserActivityAndroid> androidBinding = JSONSerdeUtil.getSerde(UserActivityAndroid.class).deserializer();
+            iosDeserializer = (topic, bytes) -> UserActivityNormalizer.normalize(iosBinding.deserialize(topic, bytes));
+            androidDeserializer = (topic, bytes) -> UserActivityNormalizer.normalize(androidBinding.deserialize(topic, bytes));
+        }
+    }
+
+    @Benchmark
+    public UserActivityNormalized ios() {
+        return iosDeserializer.deserialize("topic", ios);
+    }
+
+    @Benchmark
+    public UserActivityNormalized android() {
+        return androidDeserializer.deserialize("topic", android);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.*;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Serde;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class JSONSerdeBenchmark {
+    private static final String TOPIC = "benchmark";
+
+    private Serde<UserActivityIos> iosSerde;
+    private Serde<UserActivityAndroid> androidSerde;
+    private Serde<UserActivityNormalized> normalizedSerde;
+    private Serde<UserNotification> notificationSerde;
+
+    private UserActivityIos ios;
+    private UserActivityAndroid android;
+    private UserActivityNormalized normalized;
+    private UserNotification notification;
+
+    private byte[] iosBytes;
+    private byte[] androidBytes;
+    private byte[] normalizedBytes;
+    private byte[] notificationBytes;
+
+    @Setup
+    public void setup() {
+        iosSerde = JSONSerdeUtil.getSerde(UserActivityIos.class);
+        androidSerde = JSONSerdeUtil.getSerde(UserActivityAndroid.class);
+        normalizedSerde = JSONSerdeUtil.getSerde(UserActivityNormalized.class);
+        notificationSerde = JSONSerdeUtil.getSerde(UserNotification.class);
+
+        ios = BenchmarkData.ios("user-1");
+        android = BenchmarkData.android("user-1");
+        normalized = BenchmarkData.normalized("user-1");
+        notification = BenchmarkData.notification("user-1");
+
+        iosBytes = iosSerde.serializer().serialize(TOPIC, ios);
+        androidBytes = androidSerde.serializer().serialize(TOPIC, android);
+        normalizedBytes = normalizedSerde.serializer().serialize(TOPIC, normalized);
+        notificationBytes = notificationSerde.serializer().serialize(TOPIC, notification);
+    }
+
+    @Benchmark
+    public byte[] serializeIos() {
+        return iosSerde.serializer().serialize(TOPIC, ios);
+    }
+
+    @Benchmark
+    public UserActivityIos deserializeIos() {
+        return iosSerde.deserializer().deserialize(TOPIC, iosBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeAndroid() {
+        return androidSerde.serializer().serialize(TOPIC, android);
+    }
+
+    @Benchmark
+    public UserActivityAndroid deserializeAndroid() {
+        return androidSerde.deserializer().deserialize(TOPIC, androidBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeNormalized() {
+        return normalizedSerde.serializer().serialize(TOPIC, normalized);
+    }
+
+    @Benchmark
+    public UserActivityNormalized deserializeNormalized() {
+        return normalizedSerde.deserializer().deserialize(TOPIC, normalizedBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeNotification() {
+        return notificationSerde.serializer().serialize(TOPIC, notification);
+    }
+
+    @Benchmark
+    public UserNotification deserializeNotification() {
+        return notificationSerde.deserializer().deserialize(TOPIC, notificationBytes);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Serde;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares {@link JSONSerdeUtil} against the previous String based path
+ * ({@code writeValueAsString(...).getBytes()} / {@code readValue(new String(bytes), Class)}).
+ */
+@State(Scope.Thread)
+public class JSONSerdeComparisonBenchmark {
+    private static final String TOPIC = "benchmark";
+
+    private ObjectMapper legacyMapper;
+    private Serde<UserActivityNormalized> normalizedSerde;
+
+    private UserActivityNormalized normalized;
+    private byte[] normalizedBytes;
+
+    @Setup
+    public void setup() {
+        legacyMapper = new ObjectMapper();
+        legacyMapper.registerModule(new JavaTimeModule());
+        legacyMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        normalizedSerde = JSONSerdeUtil.getSerde(UserActivityNormalized.class);
+
+        normalized = BenchmarkData.normalized("user-1");
+        normalizedBytes = normalizedSerde.serializer().serialize(TOPIC, normalized);
+    }
+
+    @Benchmark
+    public byte[] serializeNormalizedLegacy() throws Exception {
+        return legacyMapper.writeValueAsString(normalized).getBytes();
+    }
+
+    @Benchmark
+    public byte[] serializeNormalized() {
+        return normalizedSerde.serializer().serialize(TOPIC, normalized);
+    }
+
+    @Benchmark
+    public UserActivityNormalized deserializeNormalizedLegacy() throws Exception {
+        return legacyMapper.readValue(new String(normalizedBytes), UserActivityNormalized.class);
+    }
+
+    @Benchmark
+    public UserActivityNormalized deserializeNormalized() {
+        return normalizedSerde.deserializer().deserialize(TOPIC, normalizedBytes);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.dispatch.*;
+import com.ronaldsuwandi.model.UserNotification;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Notifications per second through each {@link DispatchMode} against a local HTTP provider answering after
+ * {@code latencyMs}. Each invocation hands over one commit interval worth of notifications and waits until they are
+ * delivered, which is what a commit does.
+ */
+@State(Scope.Thread)
+@OperationsPerInvocation(NotificationDispatchBenchmark.PER_COMMIT)
+public class NotificationDispatchBenchmark {
+    static final int PER_COMMIT = 200;
+
+    @Param({"SYNC", "ASYNC"})
+    public DispatchMode mode;
+
+    @Param({"5"})
+    public long latencyMs;
+
+    @Param({"1000"})
+    public int users;
+
+    private HttpServer server;
+    private NotificationDispatcher dispatcher;
+    private String[] userIds;
+    private UserNotification[] notifications;
+    private long invocation;
+
+    @Setup
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/notifications", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        NotificationSender sender = new HttpNotificationSender(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/notifications"), Duration.ofSeconds(5));
+        dispatcher = switch (mode) {
+            case SYNC -> new SyncNotificationDispatcher(sender, 0, Duration.ZERO);
+            case ASYNC -> new AsyncNotificationDispatcher(sender, 16, 1_000, 100, 0, Duration.ZERO);
+        };
+
+        userIds = new String[users];
+        notifications = new UserNotification[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+            notifications[i] = BenchmarkData.notification(userIds[i]);
+        }
+        invocation = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public void dispatchAndCommit() {
+        for (int i = 0; i < PER_COMMIT; i++) {
+            int user = (int) (invocation++ % users);
+            dispatcher.submit(userIds[user], notifications[user]);
+        }
+        dispatcher.awaitDelivered();
+    }
+}
@@ -0,0 +1,102 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.serde.WeeklyLabelHistorySerde;
+import com.ronaldsuwandi.store.OffHeapKeyValueBytesStoreSupplier;
+import com.ronaldsuwandi.store.RollingStoreType;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.processor.TaskId;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Read-modify-write of the rolling label history, the access pattern of {@link ConsecutiveStepsProcessor}, against
+ * each {@link RollingStoreType}. Run with {@code -prof gc} to compare the heap churn per update.
+ */
+@State(Scope.Thread)
+public class RollingStoreBenchmark {
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Param({"ROCKSDB", "IN_MEMORY", "OFF_HEAP"})
+    public RollingStoreType storeType;
+
+    @Param({"100000"})
+    public int users;
+
+    private KeyValueStore<String, WeeklyLabelHistory> store;
+    private Path stateDir;
+    private String[] userIds;
+    private long baseDay;
+    private long invocation;
+
+    @Setup
+    public void setup() throws IOException {
+        stateDir = Files.createTempDirectory("rolling-store-benchmark");
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "rolling-store-benchmark");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        MockProcessorContext<String, String> context =
+                new MockProcessorContext<>(props, new TaskId(0, 0), stateDir.toFile());
+
+        store = Stores.keyValueStoreBuilder(supplier(), Serdes.String(), new WeeklyLabelHistorySerde())
+                .withLoggingDisabled()
+                .withCachingDisabled()
+                .build();
+        store.init(context.getStateStoreContext(), store);
+
+        userIds = new String[users];
+        baseDay = BenchmarkData.TIMESTAMP.toEpochMilli() / DAY * DAY;
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+            WeeklyLabelHistory history = new WeeklyLabelHistory();
+            for (int day = 0; day < WeeklyLabelHistory.CAPACITY; day++) {
+                history.put(baseDay + day * DAY, "daily_medium_stepper");
+            }
+            store.put(userIds[i], history);
+        }
+        invocation = 0;
+    }
+
+    private KeyValueBytesStoreSupplier supplier() {
+        return switch (storeType) {
+            case ROCKSDB -> Stores.persistentKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            case IN_MEMORY -> Stores.inMemoryKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            case OFF_HEAP -> new OffHeapKeyValueBytesStoreSupplier(ConsecutiveStepsProcessor.STORE_NAME);
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        Utils.delete(stateDir.toFile());
+    }
+
+    @Benchmark
+    public WeeklyLabelHistory readModifyWrite() {
+        int user = (int) (invocation % users);
+        long windowStart = baseDay + (WeeklyLabelHistory.CAPACITY + invocation / users) * DAY;
+        invocation++;
+
+        WeeklyLabelHistory history = store.get(userIds[user]);
+        history.put(windowStart, "daily_high_stepper");
+        store.put(userIds[user], history);
+        return history;
+    }
+
+    @Benchmark
+    public WeeklyLabelHistory get() {
+        return store.get(userIds[(int) (invocation++ % users)]);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of timing a stage: {@code clock} is the two {@link System#nanoTime()} reads alone, {@code record} adds the
+ * histogram update, and {@code recordContended} does the same from four threads sharing one stage, which is what
+ * stream threads running tasks of the same sub-topology do.
+ */
+@State(Scope.Benchmark)
+public class StageMetricsBenchmark {
+    private final Stage stage = StageMetrics.stage("benchmark");
+
+    @Benchmark
+    public long clock() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public void record() {
+        long start = System.nanoTime();
+        stage.recordSince(start);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        long start = System.nanoTime();
+        stage.recordSince(start);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.UserActivityNormalizer;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class UserActivityNormalizerBenchmark {
+    private UserActivityIos ios;
+    private UserActivityAndroid android;
+
+    @Setup
+    public void setup() {
+        ios = BenchmarkData.ios("user-1");
+        android = BenchmarkData.android("user-1");
+    }
+
+    @Benchmark
+    public UserActivityNormalized normalizeIos() {
+        return UserActivityNormalizer.normalize(ios);
+    }
+
+    @Benchmark
+    public UserActivityNormalized normalizeAndroid() {
+        return UserActivityNormalizer.normalize(android);
+    }
+}
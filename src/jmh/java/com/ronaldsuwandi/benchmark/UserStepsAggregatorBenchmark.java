@@ -0,0 +1,25 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class UserStepsAggregatorBenchmark {
+    private UserStepsAggregator aggregator;
+    private UserActivityNormalized activity;
+    private UserStepsDaily aggregate;
+
+    @Setup
+    public void setup() {
+        aggregator = new UserStepsAggregator();
+        activity = BenchmarkData.normalized("user-1");
+        aggregate = BenchmarkData.daily();
+    }
+
+    @Benchmark
+    public UserStepsDaily apply() {
+        return aggregator.apply("user-1", activity, aggregate);
+    }
+}
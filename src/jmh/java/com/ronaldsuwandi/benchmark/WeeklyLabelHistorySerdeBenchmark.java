@@ -0,0 +1,31 @@
+package com.ronaldsuwandi.benchmark;
+
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.serde.WeeklyLabelHistorySerde;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class WeeklyLabelHistorySerdeBenchmark {
+    private static final String TOPIC = "benchmark";
+
+    private WeeklyLabelHistorySerde serde;
+    private WeeklyLabelHistory history;
+    private byte[] historyBytes;
+
+    @Setup
+    public void setup() {
+        serde = new WeeklyLabelHistorySerde();
+        history = BenchmarkData.sevenDayHistory();
+        historyBytes = serde.serializer().serialize(TOPIC, history);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serde.serializer().serialize(TOPIC, history);
+    }
+
+    @Benchmark
+    public WeeklyLabelHistory deserialize() {
+        return serde.deserializer().deserialize(TOPIC, historyBytes);
+    }
+}
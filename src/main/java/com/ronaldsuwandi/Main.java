@@ -1,13 +1,30 @@
 package com.ronaldsuwandi;
 
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.metrics.MetricsServer;
+import com.ronaldsuwandi.query.KafkaStreamsUserStateAccess;
+import com.ronaldsuwandi.query.RemoteUserStateClient;
+import com.ronaldsuwandi.query.UserStateQuery;
+import com.ronaldsuwandi.query.UserStateServer;
+import com.ronaldsuwandi.store.StepsRocksDBConfigSetter;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.state.HostInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     private static Logger logger = LoggerFactory.getLogger(Main.class);
@@ -21,14 +38,20 @@ public class Main {
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
         String stateDir = System.getenv().getOrDefault("KAFKA_STREAMS_STATE_DIR", "./store");
         props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
-        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0); // disable caching
         return props;
     }
 
     public static void main(String[] args) {
         Properties props = init();
+        AppConfig config = AppConfig.fromEnvironment();
 
-        TopologyBuilder topologyBuilder = new TopologyBuilder();
+        TopologyBuilder topologyBuilder = new TopologyBuilder(config);
+        topologyBuilder.configureStreams(props);
+        String queryServer = config.getString(AppConfig.QUERY_SERVER, null);
+        if (queryServer != null) {
+            props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, queryServer);
+        }
+        checkTopicPlan(props, config);
         Topology topology = topologyBuilder.build();
         System.out.println(topology.describe());
         KafkaStreams streams = new KafkaStreams(topology, props);
@@ -42,8 +65,66 @@ public class Main {
         // start stream
         streams.start();
 
+        long reportIntervalMs = config.getLong(AppConfig.ROCKSDB_MEMORY_REPORT_INTERVAL_MS, 60_000L);
+        if (reportIntervalMs > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+            reporter.scheduleAtFixedRate(Main::reportRocksDBMemory, reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        UserStateServer queryEndpoint = queryServer != null ? startQueryServer(config, streams, topologyBuilder, queryServer) : null;
+        MetricsServer metricsEndpoint = startMetricsServer(config, streams);
+
         // Add shutdown hook for clean shutdown
-        Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (queryEndpoint != null) {
+                queryEndpoint.close();
+            }
+            if (metricsEndpoint != null) {
+                metricsEndpoint.close();
+            }
+            streams.close();
+        }));
+    }
+
+    private static void checkTopicPlan(Properties props, AppConfig config) {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+                props.get(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG)))) {
+            TopicPlan.check(admin, props.getProperty(StreamsConfig.APPLICATION_ID_CONFIG), config.topologyMode(), 10_000L);
+        }
     }
 
+    private static MetricsServer startMetricsServer(AppConfig config, KafkaStreams streams) {
+        int port = config.getInt(AppConfig.METRICS_SERVER_PORT, 0);
+        if (port <= 0) {
+            return null; // stage metrics are still on JMX
+        }
+        try {
+            return new MetricsServer(new InetSocketAddress(port), streams::metrics);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static UserStateServer startQueryServer(AppConfig config, KafkaStreams streams,
+                                                    TopologyBuilder topologyBuilder, String queryServer) {
+        HostInfo self = HostInfo.buildFromEndpoint(queryServer);
+        UserStateQuery query = new UserStateQuery(
+                new KafkaStreamsUserStateAccess(streams, self),
+                topologyBuilder.userViewCache(),
+                new RemoteUserStateClient(Duration.ofMillis(config.getLong(AppConfig.QUERY_REMOTE_TIMEOUT_MS, 2_000L))));
+        try {
+            // advertised host may not be a local interface (eg. behind NAT), listen on all of them
+            return new UserStateServer(query, new InetSocketAddress(self.port()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void reportRocksDBMemory() {
+        StepsRocksDBConfigSetter.MemoryUsage usage = StepsRocksDBConfigSetter.memoryUsage();
+        if (usage != null) {
+            logger.info("RocksDB memory: block cache usage={} pinned={} capacity={} (memtables up to {})",
+                    usage.blockCacheUsage(), usage.pinnedUsage(), usage.blockCacheCapacity(), usage.memtableCapacity());
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.ronaldsuwandi;
+
+import com.ronaldsuwandi.processor.NotificationDebounceProcessor;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Partitioning of the topics the application reads and writes. Every topic is keyed by user id and gets the same
+ * partition count, which bounds how many stream threads, over all instances, have a task to work on.
+ * <p>
+ * In {@code split} mode activity is joined with the {@code user-steps-7-days-aggregated} table and then debounced
+ * against {@code user-notification-id-store}, so {@code user-activity-normalized}, {@code user-steps-7-days-aggregated}
+ * and the changelog of that store must be co-partitioned: a user's activity, weekly label and last notification all
+ * in the same partition number. Both topics are written with the default partitioner on the user id, so equal
+ * partition counts are all it takes. The changelog is created by Kafka Streams with the partition count of its input,
+ * it only goes wrong when one is left behind by a run with another count.
+ */
+public record TopicPlan(int partitions, short replicationFactor) {
+    public static final List<String> TOPICS = List.of(
+            TopologyBuilder.TOPIC_USER_ACTIVITY_IOS,
+            TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID,
+            TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED,
+            TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED,
+            TopologyBuilder.TOPIC_USER_NOTIFICATIONS);
+    public static final Set<String> COMPACTED = Set.of(TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED);
+
+    public TopicPlan {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1, got " + partitions);
+        }
+        if (replicationFactor < 1) {
+            throw new IllegalArgumentException("replicationFactor must be at least 1, got " + replicationFactor);
+        }
+    }
+
+    public List<NewTopic> newTopics() {
+        List<NewTopic> newTopics = new ArrayList<>();
+        for (String topic : TOPICS) {
+            NewTopic newTopic = new NewTopic(topic, partitions, replicationFactor);
+            if (COMPACTED.contains(topic)) {
+                newTopic.configs(Map.of(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+            }
+            newTopics.add(newTopic);
+        }
+        return newTopics;
+    }
+
+    public static String changelog(String applicationId, String storeName) {
+        return applicationId + "-" + storeName + "-changelog";
+    }
+
+    /**
+     * @return topics that must have as many partitions as {@code user-activity-normalized}, that one first
+     */
+    public static List<String> coPartitioned(String applicationId, TopologyMode mode) {
+        List<String> topics = new ArrayList<>();
+        topics.add(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED);
+        if (mode == TopologyMode.SPLIT) {
+            topics.add(TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED);
+        }
+        topics.add(changelog(applicationId, NotificationDebounceProcessor.STORE_NAME));
+        return topics;
+    }
+
+    /**
+     * @param partitions partition count of the topics that exist, the others are left out
+     * @return one line per topic that is not co-partitioned with the first existing one of {@link #coPartitioned}
+     */
+    public static List<String> verify(String applicationId, TopologyMode mode, Map<String, Integer> partitions) {
+        List<String> problems = new ArrayList<>();
+        String reference = null;
+        for (String topic : coPartitioned(applicationId, mode)) {
+            Integer count = partitions.get(topic);
+            if (count == null) {
+                continue;
+            }
+            if (reference == null) {
+                reference = topic;
+            } else if (!count.equals(partitions.get(reference))) {
+                problems.add(topic + " has " + count + " partitions, " + reference + " has " + partitions.get(reference));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Fails when existing topics are not co-partitioned, before Kafka Streams would fail the same way on its first
+     * rebalance
+     */
+    public static void check(Admin admin, String applicationId, TopologyMode mode, long timeoutMs) {
+        Map<String, Integer> partitions = new HashMap<>();
+        Map<String, KafkaFuture<TopicDescription>> descriptions = admin
+                .describeTopics(coPartitioned(applicationId, mode))
+                .topicNameValues();
+        for (Map.Entry<String, KafkaFuture<TopicDescription>> entry : descriptions.entrySet()) {
+            try {
+                partitions.put(entry.getKey(), entry.getValue().get(timeoutMs, TimeUnit.MILLISECONDS).partitions().size());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                    throw new RuntimeException(e.getCause());
+                }
+                // not created yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (TimeoutException e) {
+                throw new RuntimeException("Describing " + entry.getKey() + " timed out", e);
+            }
+        }
+        List<String> problems = verify(applicationId, mode, partitions);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Topics are not co-partitioned (see init-topics.sh): "
+                    + String.join("; ", problems));
+        }
+    }
+}
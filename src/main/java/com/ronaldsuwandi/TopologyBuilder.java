@@ -1,25 +1,60 @@
 package com.ronaldsuwandi;
 
-import com.ronaldsuwandi.extractor.UserActivityTimestampExtractor;
-import com.ronaldsuwandi.extractor.UserNotificationTimestampExtractor;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.dispatch.*;
+import com.ronaldsuwandi.extractor.EventTimeExtractor;
+import com.ronaldsuwandi.extractor.EventTimeSource;
+import com.ronaldsuwandi.extractor.ScanningEventTimeExtractor;
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
 import com.ronaldsuwandi.model.*;
 import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.EventLagRecorder;
+import com.ronaldsuwandi.processor.EventTimeStamper;
+import com.ronaldsuwandi.processor.LocalTimeStamper;
+import com.ronaldsuwandi.processor.FusedStepsProcessor;
+import com.ronaldsuwandi.processor.NotificationDedupProcessor;
+import com.ronaldsuwandi.processor.NotificationDispatchProcessor;
+import com.ronaldsuwandi.processor.NotificationDebounceProcessor;
+import com.ronaldsuwandi.processor.UserExpiry;
+import com.ronaldsuwandi.processor.UserStateListener;
+import com.ronaldsuwandi.processor.WeeklyEmitStrategy;
+import com.ronaldsuwandi.transformer.DailyEmitStrategy;
+import com.ronaldsuwandi.query.UserStatePart;
+import com.ronaldsuwandi.query.UserViewCache;
+import com.ronaldsuwandi.serde.IngressParser;
+import com.ronaldsuwandi.serde.IngressProjection;
 import com.ronaldsuwandi.serde.JSONSerdeUtil;
-import com.ronaldsuwandi.serde.NavigableMapSerde;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import com.ronaldsuwandi.serde.UserStepsDailySerde;
+import com.ronaldsuwandi.serde.WeeklyLabelHistorySerde;
+import com.ronaldsuwandi.store.OffHeapKeyValueBytesStoreSupplier;
+import com.ronaldsuwandi.store.StepsRocksDBConfigSetter;
+import com.ronaldsuwandi.time.DailyBuckets;
 import com.ronaldsuwandi.transformer.UserNotificationJoiner;
 import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
 import org.apache.kafka.streams.state.StoreBuilder;
 import org.apache.kafka.streams.state.Stores;
 import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
 
 public class TopologyBuilder {
     private static Logger logger = LoggerFactory.getLogger(TopologyBuilder.class);
@@ -28,95 +63,358 @@ public class TopologyBuilder {
     public static final String TOPIC_USER_ACTIVITY_ANDROID = "user-activity-android";
     public static final String TOPIC_USER_ACTIVITY_NORMALIZED = "user-activity-normalized";
     public static final String TOPIC_USER_STEPS_7_DAYS_AGGREGATED = "user-steps-7-days-aggregated";
-    public static final String TOPIC_USER_NOTIFICATION_ID_TABLE = "user-notification-id-table";
     public static final String TOPIC_USER_NOTIFICATIONS = "user-notifications";
 
+    public static final Duration DAILY_WINDOW_SIZE = Duration.ofDays(1);
+    public static final Duration DAILY_WINDOW_GRACE = Duration.ofHours(1);
+
+    private final AppConfig config;
+    private final TopicSerdes topicSerdes;
+    private final DailyBuckets dailyBuckets;
+    private final UserViewCache userViewCache;
+
+    public TopologyBuilder() {
+        this(new AppConfig());
+    }
+
+    public TopologyBuilder(AppConfig config) {
+        this.config = config;
+        this.topicSerdes = new TopicSerdes(config);
+        this.dailyBuckets = config.dailyBuckets();
+        this.userViewCache = new UserViewCache(config.getInt(AppConfig.QUERY_CACHE_MAX_ENTRIES, 10_000), cachedViews());
+    }
+
+    /**
+     * In split mode the daily store is written by the DSL aggregation and {@link ConsecutiveStepsProcessor} drops the
+     * user's views once the aggregate is forwarded to it. Only {@link DailyEmitStrategy#PER_UPDATE} forwards every write
+     * right away, otherwise the store moves on while the processor waits for a flush or the day to close.
+     */
+    private Set<UserStatePart> cachedViews() {
+        if (config.topologyMode() == TopologyMode.SPLIT && config.dailyEmitStrategy() != DailyEmitStrategy.PER_UPDATE) {
+            return EnumSet.complementOf(EnumSet.of(UserStatePart.DAILY));
+        }
+        return EnumSet.allOf(UserStatePart.class);
+    }
+
+    /**
+     * Views served by the query endpoint, invalidated by the processors of the built topology
+     */
+    public UserViewCache userViewCache() {
+        return userViewCache;
+    }
+
+    private UserStateListener userStateListener() {
+        // nothing to invalidate when queries are not served
+        return config.getString(AppConfig.QUERY_SERVER, null) != null ? userViewCache : UserStateListener.NOOP;
+    }
+
+    /**
+     * Applies the Kafka Streams settings the configured topology relies on
+     */
+    public void configureStreams(Properties props) {
+        // threads of all instances together are busy up to the partition count of user-activity-normalized, see TopicPlan
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, config.getInt(AppConfig.STREAMS_NUM_THREADS, 1));
+        // standbys keep a warm copy of each task's stores on another instance, so failover does not restore from the
+        // changelog; warmup replicas catch up a new instance before stateful tasks move to it
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, config.getInt(AppConfig.STREAMS_STANDBY_REPLICAS, 0));
+        props.put(StreamsConfig.MAX_WARMUP_REPLICAS_CONFIG, config.getInt(AppConfig.STREAMS_MAX_WARMUP_REPLICAS, 2));
+
+        String recordingLevel = config.getString(AppConfig.METRICS_RECORDING_LEVEL, null);
+        if (recordingLevel != null) {
+            // DEBUG adds the built-in state store latencies, including the DSL daily window store
+            props.put(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, recordingLevel.toUpperCase(Locale.ROOT));
+        }
+
+        if (config.dailyEmitStrategy() == DailyEmitStrategy.CACHED) {
+            // daily aggregate updates are coalesced in the cache and flushed at least every commit interval
+            props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG,
+                    config.getLong(AppConfig.DAILY_CACHE_MAX_BYTES, 10 * 1024 * 1024L));
+            props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG,
+                    config.getLong(AppConfig.DAILY_COMMIT_INTERVAL_MS, 1000L));
+        } else {
+            props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0); // disable caching
+        }
+
+        if (config.getBoolean(AppConfig.ROCKSDB_BOUNDED_MEMORY_ENABLED, true)) {
+            props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, StepsRocksDBConfigSetter.class);
+            // picked up by the config setter from the configs it is handed
+            for (String key : new String[]{StepsRocksDBConfigSetter.TOTAL_OFF_HEAP_BYTES,
+                    StepsRocksDBConfigSetter.TOTAL_MEMTABLE_BYTES, StepsRocksDBConfigSetter.INDEX_FILTER_BLOCK_RATIO}) {
+                String value = config.getString(key, null);
+                if (value != null) {
+                    props.put(key, value);
+                }
+            }
+        }
+    }
 
     public Topology build() {
         StreamsBuilder builder = new StreamsBuilder();
 
         setupNormalization(builder);
-        setupStepsAggregations(builder);
-        setupNotificationCreationStream(builder);
+        if (config.topologyMode() == TopologyMode.FUSED) {
+            setupFusedStepsNotificationStream(builder);
+        } else {
+            setupStepsAggregations(builder);
+            setupNotificationCreationStream(builder);
+        }
         setupNotificationStream(builder);
 
         return builder.build();
     }
 
     private void setupNormalization(StreamsBuilder builder) {
-
-        KStream<String, UserActivityNormalized> inputStreamIos = builder.stream(TOPIC_USER_ACTIVITY_IOS,
-                        Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityIos.class)))
-                .mapValues(UserActivityNormalizer::normalize);
-        KStream<String, UserActivityNormalized> inputStreamAndroid = builder.stream(TOPIC_USER_ACTIVITY_ANDROID,
-                        Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityAndroid.class)))
-                .mapValues(UserActivityNormalizer::normalize);
+        Stage normalizeStage = StageMetrics.stage(StageMetrics.NORMALIZE);
+        KStream<String, UserActivityNormalized> inputStreamIos;
+        KStream<String, UserActivityNormalized> inputStreamAndroid;
+        if (config.ingressParser() == IngressParser.PROJECTION) {
+            // normalized while parsing, the platform records are never built
+            Deserializer<UserActivityNormalized> projectIos = IngressProjection.iosDeserializer();
+            Deserializer<UserActivityNormalized> projectAndroid = IngressProjection.androidDeserializer();
+            ValueMapper<byte[], UserActivityNormalized> normalizeIos = value -> projectIos.deserialize(TOPIC_USER_ACTIVITY_IOS, value);
+            ValueMapper<byte[], UserActivityNormalized> normalizeAndroid = value -> projectAndroid.deserialize(TOPIC_USER_ACTIVITY_ANDROID, value);
+            inputStreamIos = builder.stream(TOPIC_USER_ACTIVITY_IOS, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                    .mapValues(timed(normalizeIos, normalizeStage));
+            inputStreamAndroid = builder.stream(TOPIC_USER_ACTIVITY_ANDROID, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                    .mapValues(timed(normalizeAndroid, normalizeStage));
+        } else {
+            ValueMapper<UserActivityIos, UserActivityNormalized> normalizeIos = UserActivityNormalizer::normalize;
+            ValueMapper<UserActivityAndroid, UserActivityNormalized> normalizeAndroid = UserActivityNormalizer::normalize;
+            inputStreamIos = builder.stream(TOPIC_USER_ACTIVITY_IOS,
+                            Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityIos.class)))
+                    .mapValues(timed(normalizeIos, normalizeStage));
+            inputStreamAndroid = builder.stream(TOPIC_USER_ACTIVITY_ANDROID,
+                            Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityAndroid.class)))
+                    .mapValues(timed(normalizeAndroid, normalizeStage));
+        }
 
         inputStreamIos
                 .merge(inputStreamAndroid)
-                .to(TOPIC_USER_ACTIVITY_NORMALIZED, Produced.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityNormalized.class)));
+                .processValues(() -> new EventTimeStamper(config.getBoolean(AppConfig.EVENT_TIME_HEADER_ENABLED, true)))
+                .processValues(() -> new EventLagRecorder<String, UserActivityNormalized>(TOPIC_USER_ACTIVITY_NORMALIZED))
+                .to(TOPIC_USER_ACTIVITY_NORMALIZED, Produced.with(Serdes.String(), topicSerdes.serde(TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class)));
     }
 
-    private void setupStepsAggregations(StreamsBuilder builder) {
-        TimeWindows dailyWindow = TimeWindows.ofSizeAndGrace(Duration.ofDays(1), Duration.ofHours(1))
-                .advanceBy(Duration.ofDays(1));
+    private static <V, VR> ValueMapper<V, VR> timed(ValueMapper<V, VR> mapper, Stage stage) {
+        return value -> {
+            long start = System.nanoTime();
+            VR result = mapper.apply(value);
+            stage.recordSince(start);
+            return result;
+        };
+    }
+
+    /**
+     * {@link #TOPIC_USER_ACTIVITY_NORMALIZED} in event time. With {@link EventTimeSource#SCAN} the value is consumed as
+     * bytes so records without an event time header can have their timestamp scanned from the raw value, and is only
+     * deserialized afterwards.
+     */
+    private KStream<String, UserActivityNormalized> normalizedActivityStream(StreamsBuilder builder) {
+        Serde<UserActivityNormalized> serde = topicSerdes.serde(TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class);
+        if (config.eventTimeSource() == EventTimeSource.METADATA) {
+            return builder.stream(TOPIC_USER_ACTIVITY_NORMALIZED,
+                    Consumed.with(Serdes.String(), serde).withTimestampExtractor(new EventTimeExtractor()));
+        }
+
+        Deserializer<UserActivityNormalized> deserializer = serde.deserializer();
+        return builder.stream(TOPIC_USER_ACTIVITY_NORMALIZED,
+                        Consumed.with(Serdes.String(), Serdes.ByteArray())
+                                .withTimestampExtractor(new ScanningEventTimeExtractor(config.wireFormat(TOPIC_USER_ACTIVITY_NORMALIZED))))
+                .mapValues(value -> deserializer.deserialize(TOPIC_USER_ACTIVITY_NORMALIZED, value));
+    }
+
+    /**
+     * On local timelines records of users in different zones are up to {@link DailyBuckets#MAX_OFFSET_SPREAD} out of
+     * order, so daily windows are kept (and in split mode accepted) that much longer or western users' days would be
+     * dropped.
+     */
+    private Duration dailyWindowRetentionSlack() {
+        return dailyBuckets.isLocal() ? DailyBuckets.MAX_OFFSET_SPREAD : Duration.ZERO;
+    }
+
+    private KeyValueBytesStoreSupplier rollingStoreSupplier() {
+        return switch (config.rollingStoreType()) {
+            case ROCKSDB -> Stores.persistentKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            case IN_MEMORY -> Stores.inMemoryKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            case OFF_HEAP -> new OffHeapKeyValueBytesStoreSupplier(ConsecutiveStepsProcessor.STORE_NAME,
+                    config.getInt(AppConfig.ROLLING_STORE_INITIAL_CAPACITY, OffHeapKeyValueBytesStoreSupplier.DEFAULT_INITIAL_CAPACITY),
+                    OffHeapKeyValueBytesStoreSupplier.DEFAULT_MAX_KEY_LENGTH,
+                    OffHeapKeyValueBytesStoreSupplier.DEFAULT_MAX_VALUE_LENGTH);
+        };
+    }
+
+    private StoreBuilder<KeyValueStore<String, WeeklyLabelHistory>> rollingStoreBuilder() {
+        return Stores.keyValueStoreBuilder(
+                rollingStoreSupplier(),
+                Serdes.String(),
+                new WeeklyLabelHistorySerde());
+    }
 
-        StoreBuilder storeBuilder = Stores.keyValueStoreBuilder(
-                Stores.persistentKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME),
+    private KStream<String, UserNotification> debounce(StreamsBuilder builder, KStream<String, UserNotification> notifications) {
+        builder.addStateStore(Stores.timestampedKeyValueStoreBuilder(
+                Stores.persistentTimestampedKeyValueStore(NotificationDebounceProcessor.STORE_NAME),
                 Serdes.String(),
-                new NavigableMapSerde());
+                Serdes.String()));
+        Duration debounceWindow = Duration.ofMillis(config.getLong(AppConfig.NOTIFICATION_DEBOUNCE_WINDOW_MS, 10_000L));
+        Duration debounceExpiryInterval = Duration.ofMillis(
+                config.getLong(AppConfig.NOTIFICATION_DEBOUNCE_EXPIRY_INTERVAL_MS, 60_000L));
+
+        UserStateListener listener = userStateListener();
+        int expirySliceSize = config.userExpiry().sliceSize();
+        return notifications.process(() -> new NotificationDebounceProcessor(debounceWindow, debounceExpiryInterval, listener,
+                        expirySliceSize),
+                NotificationDebounceProcessor.STORE_NAME);
+    }
+
+    private KStream<String, UserNotification> dedup(StreamsBuilder builder, KStream<String, UserNotification> notifications) {
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(NotificationDedupProcessor.STORE_NAME),
+                Serdes.String(),
+                Serdes.Long()));
+        long expectedIds = config.getLong(AppConfig.NOTIFICATION_DEDUP_EXPECTED_IDS, 100_000L);
+        double falsePositiveProbability = config.getDouble(AppConfig.NOTIFICATION_DEDUP_FPP, 0.01);
+        Duration retention = Duration.ofMillis(config.getLong(AppConfig.NOTIFICATION_DEDUP_RETENTION_MS,
+                Duration.ofDays(2).toMillis()));
+        Duration expiryInterval = Duration.ofMillis(config.getLong(AppConfig.NOTIFICATION_DEDUP_EXPIRY_INTERVAL_MS, 60_000L));
+        int expirySliceSize = config.userExpiry().sliceSize();
+
+        return notifications.process(() -> new NotificationDedupProcessor(expectedIds, falsePositiveProbability,
+                        retention, expiryInterval, expirySliceSize),
+                NotificationDedupProcessor.STORE_NAME);
+    }
+
+    private void setupStepsAggregations(StreamsBuilder builder) {
+        DailyEmitStrategy dailyEmitStrategy = config.dailyEmitStrategy();
+        WeeklyEmitStrategy weeklyEmitStrategy = config.weeklyEmitStrategy();
+        UserStateListener listener = userStateListener();
+        UserExpiry userExpiry = config.userExpiry();
+        TimeWindows dailyWindow = TimeWindows.ofSizeAndGrace(DAILY_WINDOW_SIZE, dailyWindowRetentionSlack().plus(DAILY_WINDOW_GRACE))
+                .advanceBy(DAILY_WINDOW_SIZE);
+
+        builder.addStateStore(rollingStoreBuilder());
 
-        builder.addStateStore(storeBuilder);
+        Materialized<String, UserStepsDaily, WindowStore<Bytes, byte[]>> dailyStore =
+                Materialized.<String, UserStepsDaily, WindowStore<Bytes, byte[]>>as(UserStepsAggregator.STORE_NAME)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(new UserStepsDailySerde());
+        dailyStore = dailyEmitStrategy == DailyEmitStrategy.CACHED
+                ? dailyStore.withCachingEnabled()
+                : dailyStore.withCachingDisabled();
 
-        builder.stream(TOPIC_USER_ACTIVITY_NORMALIZED,
-                        Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityNormalized.class))
-                                .withTimestampExtractor(new UserActivityTimestampExtractor()))
+        KStream<String, UserActivityNormalized> activityStream = normalizedActivityStream(builder);
+        if (dailyBuckets.isLocal()) {
+            // windows are cut on the timestamp, so move it onto each user's local timeline
+            activityStream = activityStream.processValues(() -> new LocalTimeStamper(dailyBuckets));
+        }
+        TimeWindowedKStream<String, UserActivityNormalized> dailyWindowedStream = activityStream
                 .groupByKey()
-                .windowedBy(dailyWindow)
+                .windowedBy(dailyWindow);
+        if (dailyEmitStrategy == DailyEmitStrategy.ON_WINDOW_CLOSE) {
+            dailyWindowedStream = dailyWindowedStream.emitStrategy(EmitStrategy.onWindowClose());
+        }
+
+        UserStepsAggregator aggregator = new UserStepsAggregator();
+        Stage aggregateStage = StageMetrics.stage(StageMetrics.DAILY_AGGREGATE);
+        dailyWindowedStream
                 .aggregate(
-                        () -> new UserStepsDaily("", 0, null, ""),
-                        new UserStepsAggregator(),
-                        Materialized.<String, UserStepsDaily, WindowStore<Bytes, byte[]>>as(UserStepsAggregator.STORE_NAME)
-                                .withKeySerde(Serdes.String())
-                                .withValueSerde(JSONSerdeUtil.getSerde(UserStepsDaily.class)))
+                        () -> new UserStepsDaily(0),
+                        (key, activity, aggregate) -> {
+                            long start = System.nanoTime();
+                            UserStepsDaily daily = aggregator.apply(key, activity, aggregate);
+                            aggregateStage.recordSince(start);
+                            return daily;
+                        },
+                        dailyStore)
                 .toStream()
                 .peek(((key, value) -> {
                     logger.debug("Daily aggregated label for {} = {}", key, value);
                 }))
-                .process(ConsecutiveStepsProcessor::new, ConsecutiveStepsProcessor.STORE_NAME)
+                .process(() -> new ConsecutiveStepsProcessor(weeklyEmitStrategy, listener, userExpiry), ConsecutiveStepsProcessor.STORE_NAME)
+                .processValues(() -> new EventLagRecorder<String, String>(TOPIC_USER_STEPS_7_DAYS_AGGREGATED))
                 .to(TOPIC_USER_STEPS_7_DAYS_AGGREGATED);
     }
 
     private void setupNotificationCreationStream(StreamsBuilder builder) {
-        KTable<String, UserNotification> userNotificationIdTable = builder.table(TOPIC_USER_NOTIFICATION_ID_TABLE,
-                Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserNotification.class))
-                        .withTimestampExtractor(new UserNotificationTimestampExtractor()),
-                Materialized.as(UserNotificationJoiner.STORE_NAME));
-
         KTable<String, String> userWeeklyStepsLabelTable = builder.table(TOPIC_USER_STEPS_7_DAYS_AGGREGATED,
                 Consumed.with(Serdes.String(), Serdes.String()));
 
-        KStream<String, UserNotification> notificationStream = builder.stream(TOPIC_USER_ACTIVITY_NORMALIZED,
-                        Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserActivityNormalized.class))
-                                .withTimestampExtractor(new UserActivityTimestampExtractor()))
-                .join(userWeeklyStepsLabelTable, UserNotificationJoiner::joinWithWeeklyAggregatedLabel)
-                .leftJoin(userNotificationIdTable, UserNotificationJoiner::debounceNotification)
+        Stage joinStage = StageMetrics.stage(StageMetrics.NOTIFICATION_JOIN);
+        KStream<String, UserNotification> notificationStream = normalizedActivityStream(builder)
+                .join(userWeeklyStepsLabelTable, (activity, weeklyLabel) -> {
+                    long start = System.nanoTime();
+                    UserNotification notification = UserNotificationJoiner.joinWithWeeklyAggregatedLabel(activity,
+                            weeklyLabel, dailyBuckets);
+                    joinStage.recordSince(start);
+                    return notification;
+                })
                 .filter((key, value) -> value != null);
 
-        // update table to keep track of last notification message generated
-        notificationStream.to(TOPIC_USER_NOTIFICATION_ID_TABLE,
-                Produced.with(Serdes.String(), JSONSerdeUtil.getSerde(UserNotification.class)));
-
         // push downstream
-        notificationStream.to(TOPIC_USER_NOTIFICATIONS,
-                Produced.with(Serdes.String(), JSONSerdeUtil.getSerde(UserNotification.class)));
+        dedup(builder, debounce(builder, notificationStream))
+                .processValues(() -> new EventLagRecorder<String, UserNotification>(TOPIC_USER_NOTIFICATIONS))
+                .to(TOPIC_USER_NOTIFICATIONS,
+                        Produced.with(Serdes.String(), topicSerdes.serde(TOPIC_USER_NOTIFICATIONS, UserNotification.class)));
+    }
+
+    /**
+     * Daily aggregation, weekly evaluation and notification creation in one processor reading
+     * {@link #TOPIC_USER_ACTIVITY_NORMALIZED} once; nothing goes through {@link #TOPIC_USER_STEPS_7_DAYS_AGGREGATED}.
+     * Daily and weekly emit strategies do not apply in this mode.
+     */
+    private void setupFusedStepsNotificationStream(StreamsBuilder builder) {
+        builder.addStateStore(rollingStoreBuilder());
+        builder.addStateStore(Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(UserStepsAggregator.STORE_NAME,
+                        DAILY_WINDOW_SIZE.plus(DAILY_WINDOW_GRACE).plus(dailyWindowRetentionSlack()), DAILY_WINDOW_SIZE, false),
+                Serdes.String(),
+                new UserStepsDailySerde()));
+
+        UserStateListener listener = userStateListener();
+        UserExpiry userExpiry = config.userExpiry();
+        KStream<String, UserNotification> notificationStream = normalizedActivityStream(builder)
+                .process(() -> new FusedStepsProcessor(DAILY_WINDOW_SIZE, DAILY_WINDOW_GRACE, dailyBuckets, listener, userExpiry),
+                        UserStepsAggregator.STORE_NAME, ConsecutiveStepsProcessor.STORE_NAME);
+
+        dedup(builder, debounce(builder, notificationStream))
+                .processValues(() -> new EventLagRecorder<String, UserNotification>(TOPIC_USER_NOTIFICATIONS))
+                .to(TOPIC_USER_NOTIFICATIONS,
+                        Produced.with(Serdes.String(), topicSerdes.serde(TOPIC_USER_NOTIFICATIONS, UserNotification.class)));
     }
 
     private void setupNotificationStream(StreamsBuilder builder) {
-        builder.stream(TOPIC_USER_NOTIFICATIONS, Consumed.with(Serdes.String(), JSONSerdeUtil.getSerde(UserNotification.class)))
-                .peek((key, value) -> {
-                    // pretend send notification
-                    logger.info("SENDING NOTIFICATION FOR USER={}, NOTIFICATION={}", key, value);
-                });
+        builder.addStateStore(new NotificationDispatchStoreBuilder(NotificationDispatchProcessor.STORE_NAME,
+                this::notificationDispatcher));
+
+        builder.stream(TOPIC_USER_NOTIFICATIONS, Consumed.with(Serdes.String(), topicSerdes.serde(TOPIC_USER_NOTIFICATIONS, UserNotification.class)))
+                .processValues(() -> new EventLagRecorder<String, UserNotification>(StageMetrics.NOTIFICATION_DISPATCH))
+                .process(NotificationDispatchProcessor::new, NotificationDispatchProcessor.STORE_NAME);
+    }
+
+    private NotificationDispatcher notificationDispatcher() {
+        String url = config.getString(AppConfig.NOTIFICATION_DISPATCH_URL, "");
+        Duration timeout = Duration.ofMillis(config.getLong(AppConfig.NOTIFICATION_DISPATCH_TIMEOUT_MS, 5_000L));
+        // without an endpoint notifications are only logged
+        NotificationSender provider = url.isEmpty()
+                ? new LoggingNotificationSender()
+                : new HttpNotificationSender(URI.create(url), timeout);
+        Stage sendStage = StageMetrics.stage(StageMetrics.NOTIFICATION_SEND);
+        // each provider call, a retried batch is timed once per attempt
+        NotificationSender sender = batch -> {
+            long start = System.nanoTime();
+            provider.send(batch);
+            sendStage.recordBatchSince(start, batch.size());
+        };
+        int maxRetries = config.getInt(AppConfig.NOTIFICATION_DISPATCH_MAX_RETRIES, 3);
+        Duration retryBackoff = Duration.ofMillis(100);
+
+        return switch (config.notificationDispatchMode()) {
+            case SYNC -> new SyncNotificationDispatcher(sender, maxRetries, retryBackoff);
+            case ASYNC -> new AsyncNotificationDispatcher(sender,
+                    config.getInt(AppConfig.NOTIFICATION_DISPATCH_LANES, 16),
+                    config.getInt(AppConfig.NOTIFICATION_DISPATCH_QUEUE_CAPACITY, 1_000),
+                    config.getInt(AppConfig.NOTIFICATION_DISPATCH_BATCH_SIZE, 100),
+                    maxRetries,
+                    retryBackoff);
+        };
     }
 }
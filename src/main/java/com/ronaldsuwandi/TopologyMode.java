@@ -0,0 +1,23 @@
+package com.ronaldsuwandi;
+
+import java.util.Locale;
+
+/**
+ * Shape of the steps-to-notification pipeline built by {@link TopologyBuilder}.
+ */
+public enum TopologyMode {
+    /**
+     * Daily aggregation, weekly evaluation and notification creation as separate stages connected through
+     * {@code user-steps-7-days-aggregated}
+     */
+    SPLIT,
+    /**
+     * A single processor aggregates, evaluates and creates the notification from each activity record, so the
+     * notification always sees the verdict including that record
+     */
+    FUSED;
+
+    public static TopologyMode parse(String value) {
+        return TopologyMode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
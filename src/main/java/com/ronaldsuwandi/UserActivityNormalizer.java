@@ -14,7 +14,8 @@ public class UserActivityNormalizer {
                     iosActivity.latitude(),
                     iosActivity.longitude(),
                     iosActivity.pincode(),
-                    iosActivity.timestamp()
+                    iosActivity.timestamp(),
+                    iosActivity.timezone()
             );
         }
 
@@ -31,7 +32,8 @@ public class UserActivityNormalizer {
                     latitude,
                     longitude,
                     pincode,
-                    androidActivity.timestamp()
+                    androidActivity.timestamp(),
+                    androidActivity.timezone()
             );
         }
 }
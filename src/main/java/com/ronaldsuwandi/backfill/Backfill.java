@@ -0,0 +1,47 @@
+package com.ronaldsuwandi.backfill;
+
+import com.ronaldsuwandi.config.AppConfig;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs {@link BackfillEngine} over activity exports and writes the result files.
+ * <pre>
+ * gradle backfill -PbackfillArgs="ios=export/user-activity-ios.ndjson android=export/user-activity-android.ndjson out=build/backfill partitions=1"
+ * </pre>
+ * {@code partitions} is the partition count of the normalized topic (1 by default, as created by init-topics.sh) and
+ * {@code parallelism} the size of the fork-join pool, all processors by default. Topology settings such as daily
+ * bucketing are read from the environment like the application reads them.
+ */
+public class Backfill {
+    public static void main(String[] args) throws IOException {
+        Properties props = new Properties();
+        props.load(new StringReader(String.join("\n", args)));
+        String ios = props.getProperty("ios");
+        String android = props.getProperty("android");
+        String out = props.getProperty("out");
+        if (out == null || (ios == null && android == null)) {
+            System.err.println("Usage: Backfill [ios=<file>] [android=<file>] out=<dir> [partitions=1] [parallelism=<processors>]");
+            System.exit(1);
+        }
+        int partitions = Integer.parseInt(props.getProperty("partitions", "1"));
+        int parallelism = Integer.parseInt(props.getProperty("parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        long begin = System.nanoTime();
+        BackfillResult result;
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            BackfillEngine engine = new BackfillEngine(AppConfig.fromEnvironment(), partitions, pool);
+            result = engine.run(ios != null ? Path.of(ios) : null, android != null ? Path.of(android) : null);
+        }
+        result.write(Path.of(out));
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d records (%d late, dropped) for %d users in %.1f s, %.0f records/s, written to %s%n",
+                result.records(), result.lateRecords(), result.rollingStore().size(), seconds,
+                result.records() / seconds, out);
+    }
+}
@@ -0,0 +1,229 @@
+package com.ronaldsuwandi.backfill;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.TopologyMode;
+import com.ronaldsuwandi.UserActivityNormalizer;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.UserExpiry;
+import com.ronaldsuwandi.serde.IngressParser;
+import com.ronaldsuwandi.serde.IngressProjection;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.ronaldsuwandi.time.DailyBuckets;
+import com.ronaldsuwandi.time.ZoneOffsetTable;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Replays exported iOS and Android activity (newline delimited ingress payloads, as in
+ * {@link TopologyBuilder#TOPIC_USER_ACTIVITY_IOS} and {@link TopologyBuilder#TOPIC_USER_ACTIVITY_ANDROID}) through the
+ * steps logic of the topology without Kafka, and returns the rolling store the topology would end up with.
+ * <p>
+ * Exports are memory-mapped and parsed in ranges on a fork-join pool, normalized like the topology is configured to
+ * ({@link AppConfig#ingressParser()}). Users are spread over {@code partitions} the way the default partitioner
+ * spreads them over {@link TopologyBuilder#TOPIC_USER_ACTIVITY_NORMALIZED}, and each partition is replayed on its own
+ * in file order: daily aggregation with {@link UserStepsAggregator}, label history and weekly label with
+ * {@link ConsecutiveStepsProcessor#weeklyLabel}, as {@link com.ronaldsuwandi.processor.FusedStepsProcessor} does.
+ * Like a stream task, a partition drops records whose day closed (end + grace) before the latest event time seen in
+ * the partition, so with the partition count of the topic late records are dropped as in the topology. That follows
+ * the configured {@link TopologyMode}: the fused processor compares with the stream time on each user's local
+ * timeline, while in split mode with local bucketing the window aggregation sees the re-stamped local timestamps, so
+ * its stream time is the latest local time seen and days are accepted for {@link DailyBuckets#MAX_OFFSET_SPREAD}
+ * longer. Users idle at the end of their partition are left out, as {@link UserExpiry} eventually evicts them.
+ * <p>
+ * Exports carry no broker timestamps, so the two platforms are interleaved by event time, which is how a stream task
+ * picks between its inputs when both are buffered. All activity of the export is held on the heap while replaying.
+ */
+public class BackfillEngine {
+    private final DailyBuckets dailyBuckets;
+    private final UserStepsAggregator aggregator;
+    private final Deserializer<UserActivityNormalized> iosDeserializer;
+    private final Deserializer<UserActivityNormalized> androidDeserializer;
+    private final int partitions;
+    private final ForkJoinPool pool;
+    private final long windowSizeMs = TopologyBuilder.DAILY_WINDOW_SIZE.toMillis();
+    private final long graceMs;
+    private final boolean restampedStreamTime;
+    private final long retentionMs;
+    private final UserExpiry userExpiry;
+
+    public BackfillEngine(AppConfig config, int partitions, ForkJoinPool pool) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1, got " + partitions);
+        }
+        this.dailyBuckets = config.dailyBuckets();
+        this.aggregator = new UserStepsAggregator();
+        this.partitions = partitions;
+        this.pool = pool;
+        this.userExpiry = config.userExpiry();
+        // split mode windows the local timestamps LocalTimeStamper puts on the records, with the slack as extra grace
+        this.restampedStreamTime = config.topologyMode() == TopologyMode.SPLIT && dailyBuckets.isLocal();
+        long slackMs = dailyBuckets.isLocal() ? DailyBuckets.MAX_OFFSET_SPREAD.toMillis() : 0;
+        this.graceMs = TopologyBuilder.DAILY_WINDOW_GRACE.toMillis() + (restampedStreamTime ? slackMs : 0);
+        // how long the daily window store keeps a day
+        this.retentionMs = windowSizeMs + TopologyBuilder.DAILY_WINDOW_GRACE.toMillis() + slackMs;
+        if (config.ingressParser() == IngressParser.PROJECTION) {
+            this.iosDeserializer = IngressProjection.iosDeserializer();
+            this.androidDeserializer = IngressProjection.androidDeserializer();
+        } else {
+            Deserializer<UserActivityIos> ios = JSONSerdeUtil.getSerde(UserActivityIos.class).deserializer();
+            Deserializer<UserActivityAndroid> android = JSONSerdeUtil.getSerde(UserActivityAndroid.class).deserializer();
+            this.iosDeserializer = (topic, bytes) -> UserActivityNormalizer.normalize(ios.deserialize(topic, bytes));
+            this.androidDeserializer = (topic, bytes) -> UserActivityNormalizer.normalize(android.deserialize(topic, bytes));
+        }
+    }
+
+    /**
+     * @param iosExport     iOS payloads in arrival order, null when there are none
+     * @param androidExport Android payloads in arrival order, null when there are none
+     */
+    public BackfillResult run(Path iosExport, Path androidExport) {
+        List<List<UserActivityNormalized>> ios = read(iosExport, TopologyBuilder.TOPIC_USER_ACTIVITY_IOS, iosDeserializer);
+        List<List<UserActivityNormalized>> android = read(androidExport, TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID,
+                androidDeserializer);
+
+        List<Callable<PartitionReplay>> replays = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            List<UserActivityNormalized> iosPartition = ios.get(partition);
+            List<UserActivityNormalized> androidPartition = android.get(partition);
+            replays.add(() -> {
+                PartitionReplay replay = new PartitionReplay();
+                replay.run(iosPartition, androidPartition);
+                if (userExpiry.enabled()) {
+                    replay.rollingStore.values().removeIf(history -> userExpiry.isIdle(history, replay.streamTime));
+                }
+                return replay;
+            });
+        }
+
+        SortedMap<String, WeeklyLabelHistory> rollingStore = new TreeMap<>();
+        long records = 0;
+        long lateRecords = 0;
+        for (PartitionReplay replay : invokeAll(replays)) {
+            rollingStore.putAll(replay.rollingStore);
+            records += replay.records;
+            lateRecords += replay.lateRecords;
+        }
+        return new BackfillResult(rollingStore, records, lateRecords);
+    }
+
+    /**
+     * @return the partition of the user in {@link TopologyBuilder#TOPIC_USER_ACTIVITY_NORMALIZED}, as the default
+     * partitioner picks it for a string key
+     */
+    public int partition(String userId) {
+        return Utils.toPositive(Utils.murmur2(userId.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    /**
+     * @return the export's records per partition, in file order
+     */
+    private List<List<UserActivityNormalized>> read(Path export, String topic,
+                                                    Deserializer<UserActivityNormalized> deserializer) {
+        List<List<UserActivityNormalized>> byPartition = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            byPartition.add(new ArrayList<>());
+        }
+        if (export == null) {
+            return byPartition;
+        }
+
+        List<Callable<List<List<UserActivityNormalized>>>> parses = new ArrayList<>();
+        for (MappedLines.Range range : MappedLines.split(export, pool.getParallelism() * 4)) {
+            parses.add(() -> {
+                List<List<UserActivityNormalized>> parsed = new ArrayList<>(partitions);
+                for (int partition = 0; partition < partitions; partition++) {
+                    parsed.add(new ArrayList<>());
+                }
+                range.forEachLine(line -> {
+                    UserActivityNormalized activity = deserializer.deserialize(topic, line);
+                    parsed.get(partition(activity.userId())).add(activity);
+                });
+                return parsed;
+            });
+        }
+        // ranges come back in file order
+        for (List<List<UserActivityNormalized>> parsed : invokeAll(parses)) {
+            for (int partition = 0; partition < partitions; partition++) {
+                byPartition.get(partition).addAll(parsed.get(partition));
+            }
+        }
+        return byPartition;
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Backfill failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+
+    private final class PartitionReplay {
+        private final Map<String, NavigableMap<Long, UserStepsDaily>> dailyStore = new HashMap<>();
+        private final Map<String, WeeklyLabelHistory> rollingStore = new HashMap<>();
+        private long streamTime = Long.MIN_VALUE;
+        private long maxLocalTime = Long.MIN_VALUE;
+        private long records;
+        private long lateRecords;
+
+        void run(List<UserActivityNormalized> ios, List<UserActivityNormalized> android) {
+            int i = 0;
+            int a = 0;
+            while (i < ios.size() || a < android.size()) {
+                boolean takeIos = a == android.size()
+                        || (i < ios.size() && !ios.get(i).timestamp().isAfter(android.get(a).timestamp()));
+                process(takeIos ? ios.get(i++) : android.get(a++));
+            }
+        }
+
+        private void process(UserActivityNormalized activity) {
+            records++;
+            String userId = activity.userId();
+            long timestamp = activity.timestamp().toEpochMilli();
+            streamTime = Math.max(streamTime, timestamp);
+
+            ZoneOffsetTable zone = dailyBuckets.zone(activity);
+            long localTime = zone.toLocal(timestamp);
+            maxLocalTime = Math.max(maxLocalTime, localTime);
+            long localStreamTime = restampedStreamTime ? maxLocalTime : zone.toLocal(streamTime);
+            long windowStart = localTime - Math.floorMod(localTime, windowSizeMs);
+            if (windowStart + windowSizeMs + graceMs <= localStreamTime) {
+                lateRecords++;
+                return;
+            }
+
+            NavigableMap<Long, UserStepsDaily> days = dailyStore.computeIfAbsent(userId, k -> new TreeMap<>());
+            // days past the store retention are gone, closed ones are never read again either way
+            days.headMap(localStreamTime - retentionMs, true).clear();
+            UserStepsDaily daily = days.getOrDefault(windowStart, new UserStepsDaily(0));
+            daily = aggregator.apply(userId, activity, daily);
+            days.put(windowStart, daily);
+
+            WeeklyLabelHistory labelHistory = rollingStore.computeIfAbsent(userId, k -> new WeeklyLabelHistory());
+            labelHistory.put(windowStart, daily.label());
+            labelHistory.setLastEmittedLabel(ConsecutiveStepsProcessor.weeklyLabel(labelHistory));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ronaldsuwandi.backfill;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Final state of a backfill
+ *
+ * @param rollingStore what the rolling store holds per user once the topology processed the same activity
+ * @param records      activity records read
+ * @param lateRecords  records dropped because their day had already closed
+ */
+public record BackfillResult(SortedMap<String, WeeklyLabelHistory> rollingStore, long records, long lateRecords) {
+    public static final String ROLLING_STORE_FILE = ConsecutiveStepsProcessor.STORE_NAME + ".ndjson";
+    public static final String WEEKLY_LABELS_FILE = TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED + ".tsv";
+
+    /**
+     * @return the user's weekly label, the latest value of {@link TopologyBuilder#TOPIC_USER_STEPS_7_DAYS_AGGREGATED}
+     * for the user, null when no activity of the user was kept
+     */
+    public String weeklyLabel(String userId) {
+        WeeklyLabelHistory history = rollingStore.get(userId);
+        return history != null ? history.lastEmittedLabel() : null;
+    }
+
+    /**
+     * Writes {@link #ROLLING_STORE_FILE}, one {@link RollingStoreEntry} JSON per line, and {@link #WEEKLY_LABELS_FILE},
+     * one tab separated user id and weekly label per line, which is the key/value format
+     * {@code kafka-console-producer.sh --property parse.key=true} reads to seed the compacted topic.
+     */
+    public void write(Path directory) {
+        Serializer<RollingStoreEntry> serializer = JSONSerdeUtil.getSerde(RollingStoreEntry.class).serializer();
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream rolling = new BufferedOutputStream(Files.newOutputStream(directory.resolve(ROLLING_STORE_FILE)), 1 << 20);
+                 OutputStream labels = new BufferedOutputStream(Files.newOutputStream(directory.resolve(WEEKLY_LABELS_FILE)), 1 << 20)) {
+                for (Map.Entry<String, WeeklyLabelHistory> entry : rollingStore.entrySet()) {
+                    rolling.write(serializer.serialize(null, RollingStoreEntry.of(entry.getKey(), entry.getValue())));
+                    rolling.write('\n');
+                    labels.write((entry.getKey() + '\t' + entry.getValue().lastEmittedLabel() + '\n')
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
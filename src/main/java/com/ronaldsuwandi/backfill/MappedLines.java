@@ -0,0 +1,98 @@
+package com.ronaldsuwandi.backfill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Newline delimited file cut into ranges that end on a line boundary, so the ranges can be mapped and read
+ * independently. Lines are handed out as copies, without the line terminator; blank lines are skipped.
+ */
+final class MappedLines {
+    /**
+     * A single mapping is limited to 2 GB, ranges stay well below it
+     */
+    static final long MAX_RANGE_BYTES = 1L << 30;
+
+    record Range(Path file, long start, long end) {
+        void forEachLine(Consumer<byte[]> action) {
+            if (start == end) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int lineStart = 0;
+                int limit = buffer.limit();
+                for (int i = 0; i <= limit; i++) {
+                    if (i == limit || buffer.get(i) == '\n') {
+                        int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                        if (lineEnd > lineStart) {
+                            byte[] line = new byte[lineEnd - lineStart];
+                            buffer.get(lineStart, line);
+                            action.accept(line);
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private MappedLines() {
+    }
+
+    /**
+     * @return about {@code count} ranges covering the file in order, more when the file is too large to map in that
+     * many
+     */
+    static List<Range> split(Path file, int count) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long rangeBytes = Math.max(1, Math.min(MAX_RANGE_BYTES, (size + count - 1) / Math.max(1, count)));
+            List<Range> ranges = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = size;
+                if (start + rangeBytes < size) {
+                    end = lineEnd(channel, start + rangeBytes, size);
+                }
+                ranges.add(new Range(file, start, end));
+                start = end;
+            }
+            return ranges;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return position just past the first newline at or after {@code from}, the file size when there is none
+     */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
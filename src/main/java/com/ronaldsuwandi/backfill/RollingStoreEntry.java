@@ -0,0 +1,25 @@
+package com.ronaldsuwandi.backfill;
+
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One user's entry of the rolling store as written by the backfill
+ *
+ * @param days        daily labels by window start on the local timeline, oldest first
+ * @param weeklyLabel last weekly label evaluated for the user, empty while there is no full week
+ */
+public record RollingStoreEntry(String userId, List<Day> days, String weeklyLabel) {
+    public record Day(long windowStart, String label) {
+    }
+
+    public static RollingStoreEntry of(String userId, WeeklyLabelHistory history) {
+        List<Day> days = new ArrayList<>(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            days.add(new Day(history.windowStart(i), history.label(i)));
+        }
+        return new RollingStoreEntry(userId, days, history.lastEmittedLabel());
+    }
+}
@@ -0,0 +1,163 @@
+package com.ronaldsuwandi.config;
+
+import com.ronaldsuwandi.TopologyMode;
+import com.ronaldsuwandi.dispatch.DispatchMode;
+import com.ronaldsuwandi.extractor.EventTimeSource;
+import com.ronaldsuwandi.processor.UserExpiry;
+import com.ronaldsuwandi.processor.WeeklyEmitStrategy;
+import com.ronaldsuwandi.serde.IngressParser;
+import com.ronaldsuwandi.serde.WireFormat;
+import com.ronaldsuwandi.store.RollingStoreType;
+import com.ronaldsuwandi.time.DailyBucketing;
+import com.ronaldsuwandi.time.DailyBuckets;
+import com.ronaldsuwandi.transformer.DailyEmitStrategy;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Application level settings. Keys are dotted names (eg. {@code wire.format.user-activity-normalized}); each key
+ * is looked up in the given properties first and then in the environment using its upper-case form prefixed with
+ * {@code STEPS_} (eg. {@code STEPS_WIRE_FORMAT_USER_ACTIVITY_NORMALIZED}).
+ */
+public class AppConfig {
+    public static final String WIRE_FORMAT_PREFIX = "wire.format.";
+    public static final String TOPOLOGY_MODE = "topology.mode";
+    public static final String STREAMS_NUM_THREADS = "streams.num.threads";
+    public static final String STREAMS_STANDBY_REPLICAS = "streams.standby.replicas";
+    public static final String STREAMS_MAX_WARMUP_REPLICAS = "streams.max.warmup.replicas";
+    public static final String DAILY_BUCKETING = "daily.bucketing";
+    public static final String DAILY_DEFAULT_ZONE = "daily.default.zone";
+    public static final String INGRESS_PARSER = "ingress.parser";
+    public static final String EVENT_TIME_SOURCE = "event.time.source";
+    public static final String EVENT_TIME_HEADER_ENABLED = "event.time.header.enabled";
+    public static final String WEEKLY_EMIT_STRATEGY = "weekly.emit.strategy";
+    public static final String DAILY_EMIT_STRATEGY = "daily.emit.strategy";
+    public static final String DAILY_CACHE_MAX_BYTES = "daily.cache.max.bytes";
+    public static final String DAILY_COMMIT_INTERVAL_MS = "daily.commit.interval.ms";
+    public static final String ROCKSDB_BOUNDED_MEMORY_ENABLED = "rocksdb.bounded.memory.enabled";
+    public static final String ROCKSDB_MEMORY_REPORT_INTERVAL_MS = "rocksdb.memory.report.interval.ms";
+    public static final String ROLLING_STORE_TYPE = "rolling.store.type";
+    public static final String ROLLING_STORE_INITIAL_CAPACITY = "rolling.store.initial.capacity";
+    public static final String ROLLING_STORE_IDLE_TTL_MS = "rolling.store.idle.ttl.ms";
+    public static final String ROLLING_STORE_EXPIRY_INTERVAL_MS = "rolling.store.expiry.interval.ms";
+    public static final String STORE_EXPIRY_SLICE_SIZE = "store.expiry.slice.size";
+    public static final String NOTIFICATION_DEBOUNCE_WINDOW_MS = "notification.debounce.window.ms";
+    public static final String NOTIFICATION_DEBOUNCE_EXPIRY_INTERVAL_MS = "notification.debounce.expiry.interval.ms";
+    public static final String NOTIFICATION_DEDUP_EXPECTED_IDS = "notification.dedup.expected.ids";
+    public static final String NOTIFICATION_DEDUP_FPP = "notification.dedup.fpp";
+    public static final String NOTIFICATION_DEDUP_RETENTION_MS = "notification.dedup.retention.ms";
+    public static final String NOTIFICATION_DEDUP_EXPIRY_INTERVAL_MS = "notification.dedup.expiry.interval.ms";
+    public static final String NOTIFICATION_DISPATCH_MODE = "notification.dispatch.mode";
+    public static final String NOTIFICATION_DISPATCH_URL = "notification.dispatch.url";
+    public static final String NOTIFICATION_DISPATCH_TIMEOUT_MS = "notification.dispatch.timeout.ms";
+    public static final String NOTIFICATION_DISPATCH_LANES = "notification.dispatch.lanes";
+    public static final String NOTIFICATION_DISPATCH_QUEUE_CAPACITY = "notification.dispatch.queue.capacity";
+    public static final String NOTIFICATION_DISPATCH_BATCH_SIZE = "notification.dispatch.batch.size";
+    public static final String NOTIFICATION_DISPATCH_MAX_RETRIES = "notification.dispatch.max.retries";
+    public static final String QUERY_SERVER = "query.server";
+    public static final String METRICS_SERVER_PORT = "metrics.server.port";
+    public static final String METRICS_RECORDING_LEVEL = "metrics.recording.level";
+    public static final String QUERY_CACHE_MAX_ENTRIES = "query.cache.max.entries";
+    public static final String QUERY_REMOTE_TIMEOUT_MS = "query.remote.timeout.ms";
+
+    private final Properties props;
+    private final Map<String, String> env;
+
+    public AppConfig() {
+        this(new Properties());
+    }
+
+    public AppConfig(Properties props) {
+        this(props, Map.of());
+    }
+
+    AppConfig(Properties props, Map<String, String> env) {
+        this.props = props;
+        this.env = env;
+    }
+
+    public static AppConfig fromEnvironment() {
+        return new AppConfig(System.getProperties(), System.getenv());
+    }
+
+    public static String envName(String key) {
+        return "STEPS_" + key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            value = env.get(envName(key));
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    public WireFormat wireFormat(String topic) {
+        return WireFormat.parse(getString(WIRE_FORMAT_PREFIX + topic, WireFormat.JSON.name()));
+    }
+
+    public WeeklyEmitStrategy weeklyEmitStrategy() {
+        return WeeklyEmitStrategy.parse(getString(WEEKLY_EMIT_STRATEGY, WeeklyEmitStrategy.ON_UPDATE.name()));
+    }
+
+    public UserExpiry userExpiry() {
+        return new UserExpiry(
+                Duration.ofMillis(getLong(ROLLING_STORE_IDLE_TTL_MS, Duration.ofDays(30).toMillis())),
+                Duration.ofMillis(getLong(ROLLING_STORE_EXPIRY_INTERVAL_MS, 60_000L)),
+                getInt(STORE_EXPIRY_SLICE_SIZE, 1000));
+    }
+
+    public DailyEmitStrategy dailyEmitStrategy() {
+        return DailyEmitStrategy.parse(getString(DAILY_EMIT_STRATEGY, DailyEmitStrategy.PER_UPDATE.name()));
+    }
+
+    public RollingStoreType rollingStoreType() {
+        return RollingStoreType.parse(getString(ROLLING_STORE_TYPE, RollingStoreType.ROCKSDB.name()));
+    }
+
+    public TopologyMode topologyMode() {
+        return TopologyMode.parse(getString(TOPOLOGY_MODE, TopologyMode.SPLIT.name()));
+    }
+
+    public DailyBuckets dailyBuckets() {
+        if (DailyBucketing.parse(getString(DAILY_BUCKETING, DailyBucketing.UTC.name())) == DailyBucketing.UTC) {
+            return DailyBuckets.UTC;
+        }
+        return DailyBuckets.local(getString(DAILY_DEFAULT_ZONE, "UTC"));
+    }
+
+    public IngressParser ingressParser() {
+        return IngressParser.parse(getString(INGRESS_PARSER, IngressParser.PROJECTION.name()));
+    }
+
+    public EventTimeSource eventTimeSource() {
+        return EventTimeSource.parse(getString(EVENT_TIME_SOURCE, EventTimeSource.SCAN.name()));
+    }
+
+    public DispatchMode notificationDispatchMode() {
+        return DispatchMode.parse(getString(NOTIFICATION_DISPATCH_MODE, DispatchMode.ASYNC.name()));
+    }
+}
@@ -0,0 +1,171 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers notifications off the stream thread.
+ * <p>
+ * Keys are hashed onto a fixed number of lanes, each a bounded queue drained by its own virtual thread, so
+ * notifications of one user keep their order while different users are sent in parallel. A lane sends whatever has
+ * queued up since its last call as one batch (up to {@code batchSize}), so batches grow with the load. When a lane's
+ * queue is full {@link #submit} blocks, pushing back on the stream thread instead of buffering without bound.
+ * <p>
+ * Once a batch fails after its retries the dispatcher is failed: remaining notifications are dropped, and
+ * {@link #submit} and {@link #awaitDelivered} throw, so offsets past the failure are never committed and the records
+ * are processed again after the task restarts.
+ */
+public class AsyncNotificationDispatcher implements NotificationDispatcher {
+    private static Logger logger = LoggerFactory.getLogger(AsyncNotificationDispatcher.class);
+
+    private final NotificationSender sender;
+    private final int batchSize;
+    private final List<BlockingQueue<UserNotification>> lanes;
+    private final List<Thread> threads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition allDelivered = lock.newCondition();
+    private long pending;
+    private volatile Exception failure;
+    private volatile boolean closed;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public AsyncNotificationDispatcher(NotificationSender sender, int lanes, int queueCapacity, int batchSize,
+                                       int maxRetries, Duration retryBackoff) {
+        this.sender = new RetryingNotificationSender(sender, maxRetries, retryBackoff);
+        this.batchSize = batchSize;
+        this.lanes = new ArrayList<>(lanes);
+        this.threads = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            BlockingQueue<UserNotification> queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.lanes.add(queue);
+            this.threads.add(Thread.ofVirtual().name("notification-dispatch-" + i).start(() -> drain(queue)));
+        }
+    }
+
+    @Override
+    public void submit(String key, UserNotification notification) {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        throwIfFailed();
+
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            lanes.get(Math.floorMod(key.hashCode(), lanes.size())).put(notification);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed(1);
+            throw new RuntimeException("Interrupted while handing over notification for " + key, e);
+        }
+    }
+
+    @Override
+    public void awaitDelivered() {
+        lock.lock();
+        try {
+            while (pending > 0) {
+                allDelivered.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for notification delivery", e);
+        } finally {
+            lock.unlock();
+        }
+        throwIfFailed();
+    }
+
+    /**
+     * @return notifications delivered so far
+     */
+    public long delivered() {
+        return delivered.get();
+    }
+
+    /**
+     * @return provider calls that succeeded so far
+     */
+    public long batches() {
+        return batches.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            awaitDelivered();
+        } catch (RuntimeException e) {
+            logger.warn("Closing dispatcher with undelivered notifications", e);
+        } finally {
+            threads.forEach(Thread::interrupt);
+        }
+    }
+
+    private void drain(BlockingQueue<UserNotification> queue) {
+        List<UserNotification> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            if (failure == null) {
+                try {
+                    sender.send(batch);
+                    delivered.addAndGet(batch.size());
+                    batches.incrementAndGet();
+                } catch (InterruptedException e) {
+                    failure = e;
+                    completed(batch.size());
+                    return;
+                } catch (Exception e) {
+                    logger.error("Giving up on {} notifications", batch.size(), e);
+                    failure = e;
+                }
+            }
+            completed(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void completed(int count) {
+        lock.lock();
+        try {
+            pending -= count;
+            if (pending == 0) {
+                allDelivered.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new RuntimeException("Notification delivery failed", failure);
+        }
+    }
+}
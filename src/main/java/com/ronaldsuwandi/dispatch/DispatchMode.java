@@ -0,0 +1,22 @@
+package com.ronaldsuwandi.dispatch;
+
+import java.util.Locale;
+
+/**
+ * How notifications are handed to the provider.
+ */
+public enum DispatchMode {
+    /**
+     * Send one notification at a time on the stream thread, a slow provider stalls the whole task
+     */
+    SYNC,
+    /**
+     * Batch per key-ordered lane on virtual threads ({@link AsyncNotificationDispatcher}), offsets are only
+     * committed once everything handed over has been delivered
+     */
+    ASYNC;
+
+    public static DispatchMode parse(String value) {
+        return DispatchMode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
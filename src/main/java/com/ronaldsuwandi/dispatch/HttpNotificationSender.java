@@ -0,0 +1,54 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts each batch as a JSON array to the provider endpoint, any non-2xx response fails the batch.
+ */
+public class HttpNotificationSender implements NotificationSender {
+    private final HttpClient client;
+    private final URI uri;
+    private final Duration timeout;
+    private final Serializer<UserNotification> serializer = JSONSerdeUtil.getSerde(UserNotification.class).serializer();
+
+    public HttpNotificationSender(URI uri, Duration timeout) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.uri = uri;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void send(List<UserNotification> batch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(toJsonArray(batch)))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Notification provider returned " + response.statusCode() + " for " + batch.size() + " notifications");
+        }
+    }
+
+    private byte[] toJsonArray(List<UserNotification> batch) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 * batch.size());
+        out.write('[');
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(serializer.serialize(null, batch.get(i)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Pretends to send, used when no provider endpoint is configured.
+ */
+public class LoggingNotificationSender implements NotificationSender {
+    private static Logger logger = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public void send(List<UserNotification> batch) {
+        for (UserNotification notification : batch) {
+            logger.info("SENDING NOTIFICATION FOR USER={}, NOTIFICATION={}", notification.userId(), notification);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ronaldsuwandi.dispatch;
+
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the task's {@link NotificationDispatcher}. It has no content; it exists because Kafka Streams flushes every
+ * store of a task before committing its offsets, which makes {@link #flush} the point to wait for in-flight
+ * deliveries. Offsets of notifications that were not delivered are therefore never committed.
+ */
+public class NotificationDispatchStore implements StateStore {
+    private final String name;
+    private final Supplier<NotificationDispatcher> dispatcherSupplier;
+    private NotificationDispatcher dispatcher;
+
+    public NotificationDispatchStore(String name, Supplier<NotificationDispatcher> dispatcherSupplier) {
+        this.name = name;
+        this.dispatcherSupplier = dispatcherSupplier;
+    }
+
+    public NotificationDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Deprecated
+    @Override
+    public void init(ProcessorContext context, StateStore root) {
+        context.register(root, (key, value) -> {
+        });
+        dispatcher = dispatcherSupplier.get();
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        context.register(root, (key, value) -> {
+        });
+        dispatcher = dispatcherSupplier.get();
+    }
+
+    @Override
+    public void flush() {
+        dispatcher.awaitDelivered();
+    }
+
+    @Override
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.close();
+            dispatcher = null;
+        }
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return dispatcher != null;
+    }
+
+    @Override
+    public Position getPosition() {
+        return Position.emptyPosition();
+    }
+}
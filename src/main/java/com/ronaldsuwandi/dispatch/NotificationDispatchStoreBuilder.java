@@ -0,0 +1,60 @@
+package com.ronaldsuwandi.dispatch;
+
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds one {@link NotificationDispatchStore} per task. There is nothing to cache or changelog, those settings are
+ * ignored.
+ */
+public class NotificationDispatchStoreBuilder implements StoreBuilder<NotificationDispatchStore> {
+    private final String name;
+    private final Supplier<NotificationDispatcher> dispatcherSupplier;
+
+    public NotificationDispatchStoreBuilder(String name, Supplier<NotificationDispatcher> dispatcherSupplier) {
+        this.name = name;
+        this.dispatcherSupplier = dispatcherSupplier;
+    }
+
+    @Override
+    public StoreBuilder<NotificationDispatchStore> withCachingEnabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<NotificationDispatchStore> withCachingDisabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<NotificationDispatchStore> withLoggingEnabled(Map<String, String> config) {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<NotificationDispatchStore> withLoggingDisabled() {
+        return this;
+    }
+
+    @Override
+    public NotificationDispatchStore build() {
+        return new NotificationDispatchStore(name, dispatcherSupplier);
+    }
+
+    @Override
+    public Map<String, String> logConfig() {
+        return Map.of();
+    }
+
+    @Override
+    public boolean loggingEnabled() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+
+/**
+ * Hands notifications to a {@link NotificationSender}.
+ */
+public interface NotificationDispatcher extends AutoCloseable {
+    /**
+     * May block while the dispatcher is saturated. Notifications of the same key are delivered in submission order.
+     */
+    void submit(String key, UserNotification notification);
+
+    /**
+     * Blocks until every notification submitted so far has been delivered, throws if any delivery failed for good
+     */
+    void awaitDelivered();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,16 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+
+import java.util.List;
+
+/**
+ * One call to the notification provider. Implementations may block, they are called from dispatcher threads (or the
+ * stream thread in {@link DispatchMode#SYNC}).
+ */
+public interface NotificationSender {
+    /**
+     * Delivers the whole batch or throws, a failed batch is retried as a whole
+     */
+    void send(List<UserNotification> batch) throws Exception;
+}
@@ -0,0 +1,41 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Retries a failed batch up to {@code maxRetries} times with a linear backoff, then rethrows the last failure.
+ */
+class RetryingNotificationSender implements NotificationSender {
+    private static Logger logger = LoggerFactory.getLogger(RetryingNotificationSender.class);
+
+    private final NotificationSender sender;
+    private final int maxRetries;
+    private final long backoffMs;
+
+    RetryingNotificationSender(NotificationSender sender, int maxRetries, Duration backoff) {
+        this.sender = sender;
+        this.maxRetries = maxRetries;
+        this.backoffMs = backoff.toMillis();
+    }
+
+    @Override
+    public void send(List<UserNotification> batch) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                sender.send(batch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                logger.warn("Sending {} notifications failed (attempt {}), retrying", batch.size(), attempt + 1, e);
+                Thread.sleep(backoffMs * (attempt + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sends every notification on the calling thread before returning.
+ */
+public class SyncNotificationDispatcher implements NotificationDispatcher {
+    private final NotificationSender sender;
+
+    public SyncNotificationDispatcher(NotificationSender sender, int maxRetries, Duration retryBackoff) {
+        this.sender = new RetryingNotificationSender(sender, maxRetries, retryBackoff);
+    }
+
+    @Override
+    public void submit(String key, UserNotification notification) {
+        try {
+            sender.send(List.of(notification));
+        } catch (Exception e) {
+            throw new RuntimeException("Error sending notification to " + key, e);
+        }
+    }
+
+    @Override
+    public void awaitDelivered() {
+        // nothing is ever in flight
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.ronaldsuwandi.extractor;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+/**
+ * Reads event time from record metadata only: the {@link EventTimeHeader} if present, the record timestamp otherwise.
+ * Meant for topics whose producers stamp event time, like the normalization stage does.
+ */
+public class EventTimeExtractor implements TimestampExtractor {
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long previousTimestamp) {
+        long eventTime = EventTimeHeader.get(record.headers());
+        return eventTime >= 0 ? eventTime : record.timestamp();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ronaldsuwandi.extractor;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Event time carried next to the value as an 8 byte big-endian epoch millis header, so consumers can read it
+ * without looking at the value.
+ */
+public class EventTimeHeader {
+    public static final String NAME = "event-time";
+
+    public static void set(Headers headers, long eventTimeMs) {
+        headers.remove(NAME);
+        headers.add(NAME, ByteBuffer.allocate(Long.BYTES).putLong(eventTimeMs).array());
+    }
+
+    /**
+     * @return the event time or -1 if the header is missing or malformed
+     */
+    public static long get(Headers headers) {
+        Header header = headers.lastHeader(NAME);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
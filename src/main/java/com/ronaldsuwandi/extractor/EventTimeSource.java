@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.extractor;
+
+import java.util.Locale;
+
+/**
+ * Where consumers of {@code user-activity-normalized} take event time from.
+ */
+public enum EventTimeSource {
+    /**
+     * Header or record timestamp ({@link EventTimeExtractor}), only correct if every producer stamps event time
+     */
+    METADATA,
+    /**
+     * Header, otherwise scan the raw value ({@link ScanningEventTimeExtractor}), safe with external producers
+     */
+    SCAN;
+
+    public static EventTimeSource parse(String value) {
+        return EventTimeSource.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
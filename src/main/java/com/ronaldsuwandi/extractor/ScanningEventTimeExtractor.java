@@ -0,0 +1,27 @@
+package com.ronaldsuwandi.extractor;
+
+import com.ronaldsuwandi.serde.EventTimeScanner;
+import com.ronaldsuwandi.serde.WireFormat;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+/**
+ * Falls back to scanning the raw value for its timestamp field when there is no {@link EventTimeHeader}, for topics
+ * with producers that do not stamp event time. The source has to consume the value as {@code byte[]}.
+ */
+public class ScanningEventTimeExtractor implements TimestampExtractor {
+    private final WireFormat format;
+
+    public ScanningEventTimeExtractor(WireFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long previousTimestamp) {
+        long eventTime = EventTimeHeader.get(record.headers());
+        if (eventTime < 0 && record.value() instanceof byte[] value) {
+            eventTime = EventTimeScanner.scan(value, format);
+        }
+        return eventTime >= 0 ? eventTime : record.timestamp();
+    }
+}
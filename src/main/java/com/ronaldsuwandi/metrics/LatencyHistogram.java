@@ -0,0 +1,75 @@
+package com.ronaldsuwandi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of latencies in nanoseconds, laid out like HdrHistogram: each power of two is split
+ * into {@link #SUB_BUCKETS} linear buckets, so a recorded value is known to within ~3%. Recording computes the bucket
+ * from the leading zeros and does one atomic increment, from any number of threads. The range covers event-time lags
+ * too; values beyond ~13 days land in the last bucket.
+ */
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 50 - SUB_BUCKET_BITS - 1;
+    static final int BUCKETS = SUB_BUCKETS * (MAX_SHIFT + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(index(nanos));
+    }
+
+    /**
+     * Copies the counts, buckets are read one by one so concurrent records may or may not be included
+     */
+    public long[] counts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        // value >>> shift keeps the top SUB_BUCKET_BITS + 1 bits, in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the highest value that falls into the bucket
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @return the value at or below which {@code quantile} of the counted values fall, 0 when there are none
+     */
+    static long valueAtQuantile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(counts.length - 1);
+    }
+}
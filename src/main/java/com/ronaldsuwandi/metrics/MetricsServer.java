@@ -0,0 +1,117 @@
+package com.ronaldsuwandi.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Local scrape endpoint, {@code GET /metrics} answers in the Prometheus text format with every {@link Stage} and the
+ * Kafka Streams metrics (groups starting with {@code stream-}, which includes {@link StepsMetrics} and, with
+ * {@code metrics.recording.level=DEBUG}, the state store latencies).
+ */
+public class MetricsServer implements AutoCloseable {
+    private static Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final HttpServer server;
+    private final Supplier<Map<MetricName, ? extends Metric>> streamsMetrics;
+
+    public MetricsServer(InetSocketAddress address, Supplier<Map<MetricName, ? extends Metric>> streamsMetrics) throws IOException {
+        this.streamsMetrics = streamsMetrics;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        logger.info("Serving metrics on {}", server.getAddress());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = scrape(StageMetrics.stages(), streamsMetrics.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    static String scrape(List<Stage> stages, Map<MetricName, ? extends Metric> metrics) {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# TYPE steps_stage_records_total counter\n");
+        out.append("# TYPE steps_stage_records_per_second gauge\n");
+        out.append("# TYPE steps_stage_latency_seconds summary\n");
+        out.append("# TYPE steps_stage_latency_seconds_max gauge\n");
+        for (Stage stage : stages) {
+            StageSnapshot snapshot = stage.snapshot();
+            String label = "stage=\"" + escape(stage.name()) + "\"";
+            sample(out, "steps_stage_records_total", label, snapshot.recordsTotal());
+            sample(out, "steps_stage_records_per_second", label, snapshot.recordsPerSecond());
+            long[] values = {snapshot.p50(), snapshot.p90(), snapshot.p99(), snapshot.p999()};
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(out, "steps_stage_latency_seconds", label + ",quantile=\"" + QUANTILES[i] + "\"", values[i] / 1e9);
+            }
+            sample(out, "steps_stage_latency_seconds_max", label, snapshot.max() / 1e9);
+        }
+
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName name = entry.getKey();
+            if (!name.group().startsWith("stream-") || !(entry.getValue().metricValue() instanceof Number value)) {
+                continue;
+            }
+            StringBuilder labels = new StringBuilder();
+            for (Map.Entry<String, String> tag : name.tags().entrySet()) {
+                if (!labels.isEmpty()) {
+                    labels.append(',');
+                }
+                labels.append(sanitize(tag.getKey())).append("=\"").append(escape(tag.getValue())).append('"');
+            }
+            sample(out, "kafka_" + sanitize(name.group()) + "_" + sanitize(name.name()), labels.toString(),
+                    value.doubleValue());
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ronaldsuwandi.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Processing time and throughput of one pipeline stage across every task and thread of the instance.
+ * <p>
+ * Recording only touches the {@link LatencyHistogram}. Percentiles and the rate are computed when read, over what was
+ * recorded since the previous snapshot, which is taken at most once per {@link #SNAPSHOT_INTERVAL_NANOS} (10s) so JMX and
+ * the scrape endpoint reading at the same time see the same numbers.
+ */
+public class Stage implements StageMXBean {
+    static final long SNAPSHOT_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final String name;
+    private final long snapshotIntervalNanos;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    // batches count as one latency but several records
+    private final LongAdder extraBatchRecords = new LongAdder();
+
+    private long[] previousCounts = new long[LatencyHistogram.BUCKETS];
+    private long previousTotal;
+    private long previousNanos = System.nanoTime();
+    private StageSnapshot snapshot;
+
+    Stage(String name) {
+        this(name, SNAPSHOT_INTERVAL_NANOS);
+    }
+
+    Stage(String name, long snapshotIntervalNanos) {
+        this.name = name;
+        this.snapshotIntervalNanos = snapshotIntervalNanos;
+        this.snapshot = new StageSnapshot(name, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records the time since {@code startNanos}, taken from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        histogram.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one latency for a batch of {@code records}
+     */
+    public void recordBatchSince(long startNanos, int records) {
+        histogram.record(System.nanoTime() - startNanos);
+        extraBatchRecords.add(records - 1);
+    }
+
+    /**
+     * @return latencies recorded so far, summed over the buckets
+     */
+    public long count() {
+        long count = 0;
+        for (long bucket : histogram.counts()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    public synchronized StageSnapshot snapshot() {
+        long now = System.nanoTime();
+        if (now - previousNanos < snapshotIntervalNanos && snapshot.recordsTotal() > 0) {
+            return snapshot;
+        }
+
+        long[] counts = histogram.counts();
+        long[] interval = new long[counts.length];
+        long latencies = 0;
+        long total = extraBatchRecords.sum();
+        int highest = -1;
+        for (int i = 0; i < counts.length; i++) {
+            interval[i] = counts[i] - previousCounts[i];
+            latencies += interval[i];
+            total += counts[i];
+            if (interval[i] > 0) {
+                highest = i;
+            }
+        }
+
+        double seconds = (now - previousNanos) / 1e9;
+        snapshot = new StageSnapshot(name, total, seconds > 0 ? (total - previousTotal) / seconds : 0,
+                LatencyHistogram.valueAtQuantile(interval, latencies, 0.50),
+                LatencyHistogram.valueAtQuantile(interval, latencies, 0.90),
+                LatencyHistogram.valueAtQuantile(interval, latencies, 0.99),
+                LatencyHistogram.valueAtQuantile(interval, latencies, 0.999),
+                highest < 0 ? 0 : LatencyHistogram.highestValue(highest));
+        previousCounts = counts;
+        previousTotal = total;
+        previousNanos = now;
+        return snapshot;
+    }
+
+    @Override
+    public long getRecordsTotal() {
+        return snapshot().recordsTotal();
+    }
+
+    @Override
+    public double getRecordsPerSecond() {
+        return snapshot().recordsPerSecond();
+    }
+
+    @Override
+    public double getLatencyP50Ms() {
+        return snapshot().p50() / 1e6;
+    }
+
+    @Override
+    public double getLatencyP90Ms() {
+        return snapshot().p90() / 1e6;
+    }
+
+    @Override
+    public double getLatencyP99Ms() {
+        return snapshot().p99() / 1e6;
+    }
+
+    @Override
+    public double getLatencyP999Ms() {
+        return snapshot().p999() / 1e6;
+    }
+
+    @Override
+    public double getLatencyMaxMs() {
+        return snapshot().max() / 1e6;
+    }
+}
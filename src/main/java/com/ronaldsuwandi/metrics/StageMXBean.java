@@ -0,0 +1,20 @@
+package com.ronaldsuwandi.metrics;
+
+/**
+ * JMX view of a {@link Stage}. Rates and latencies cover the last snapshot interval.
+ */
+public interface StageMXBean {
+    long getRecordsTotal();
+
+    double getRecordsPerSecond();
+
+    double getLatencyP50Ms();
+
+    double getLatencyP90Ms();
+
+    double getLatencyP99Ms();
+
+    double getLatencyP999Ms();
+
+    double getLatencyMaxMs();
+}
@@ -0,0 +1,79 @@
+package com.ronaldsuwandi.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Instance-wide registry of {@link Stage}s. Stages are created on first use, usually from a static field of the class
+ * timing it, and registered as MBeans under {@code com.ronaldsuwandi.steps:type=stage,name=<stage>}.
+ * <p>
+ * Unlike {@link StepsMetrics} these do not go through the Kafka metrics registry, whose sensors synchronize on every
+ * record, and are not split per task.
+ */
+public final class StageMetrics {
+    private static Logger logger = LoggerFactory.getLogger(StageMetrics.class);
+    public static final String JMX_DOMAIN = "com.ronaldsuwandi.steps";
+
+    public static final String NORMALIZE = "normalize";
+    public static final String DAILY_AGGREGATE = "daily-aggregate";
+    public static final String WEEKLY_LABEL = "weekly-label";
+    public static final String NOTIFICATION_JOIN = "notification-join";
+    public static final String NOTIFICATION_DEBOUNCE = "notification-debounce";
+    public static final String NOTIFICATION_SEND = "notification-send";
+    public static final String NOTIFICATION_DISPATCH = "notification-dispatch";
+
+    private static final ConcurrentMap<String, Stage> stages = new ConcurrentHashMap<>();
+
+    private StageMetrics() {
+    }
+
+    public static Stage stage(String name) {
+        return stages.computeIfAbsent(name, StageMetrics::register);
+    }
+
+    public static Stage storeGet(String storeName) {
+        return stage("store-get." + storeName);
+    }
+
+    public static Stage storePut(String storeName) {
+        return stage("store-put." + storeName);
+    }
+
+    /**
+     * Wall clock minus device event time of records passing {@code boundary}, a topic or
+     * {@link #NOTIFICATION_DISPATCH}
+     */
+    public static Stage eventLag(String boundary) {
+        return stage("event-lag." + boundary);
+    }
+
+    /**
+     * @return every stage created so far, by name
+     */
+    public static List<Stage> stages() {
+        List<Stage> sorted = new ArrayList<>(stages.values());
+        sorted.sort(Comparator.comparing(Stage::name));
+        return sorted;
+    }
+
+    private static Stage register(String name) {
+        Stage stage = new Stage(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stage,
+                    new ObjectName(JMX_DOMAIN + ":type=stage,name=" + name));
+        } catch (JMException e) {
+            // metrics are still recorded and scraped, only the JMX view is missing
+            logger.warn("Could not register stage {} with JMX", name, e);
+        }
+        return stage;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ronaldsuwandi.metrics;
+
+/**
+ * Throughput and latency percentiles of a stage over one snapshot interval, latencies in nanoseconds.
+ */
+public record StageSnapshot(
+        String stage,
+        long recordsTotal,
+        double recordsPerSecond,
+        long p50,
+        long p90,
+        long p99,
+        long p999,
+        long max
+) {
+}
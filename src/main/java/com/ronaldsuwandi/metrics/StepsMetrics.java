@@ -0,0 +1,63 @@
+package com.ronaldsuwandi.metrics;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Value;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+
+import java.util.Map;
+
+/**
+ * Registers application sensors on the Kafka Streams metrics registry, so they are reported next to the built-in
+ * task metrics (group {@code stream-steps-processor-metrics}, tagged with the thread and task id).
+ */
+public class StepsMetrics {
+    public static final String SCOPE = "steps-processor";
+    public static final String GROUP = "stream-" + SCOPE + "-metrics";
+
+    private StepsMetrics() {
+    }
+
+    /**
+     * Sensor reporting {@code <operation>-rate} and {@code <operation>-total}.
+     */
+    public static Sensor rateTotalSensor(ProcessorContext<?, ?> context, String operation) {
+        return context.metrics().addRateTotalSensor(SCOPE, context.taskId().toString(), operation,
+                Sensor.RecordingLevel.INFO);
+    }
+
+    /**
+     * Sensor reporting {@code <operation>-latency-avg}, {@code <operation>-latency-max}, {@code <operation>-rate} and
+     * {@code <operation>-total}; record the latency in milliseconds.
+     */
+    public static Sensor latencySensor(ProcessorContext<?, ?> context, String operation) {
+        return context.metrics().addLatencyRateTotalSensor(SCOPE, context.taskId().toString(), operation,
+                Sensor.RecordingLevel.INFO);
+    }
+
+    /**
+     * Sensor reporting the last recorded value as {@code <name>}.
+     */
+    public static Sensor valueSensor(ProcessorContext<?, ?> context, String name, String description) {
+        Sensor sensor = context.metrics().addSensor(context.taskId() + "." + name, Sensor.RecordingLevel.INFO);
+        sensor.add(metricName(context, name, description), new Value());
+        return sensor;
+    }
+
+    /**
+     * Sensor reporting the average of the recorded values over the metrics window as {@code <name>}.
+     */
+    public static Sensor avgSensor(ProcessorContext<?, ?> context, String name, String description) {
+        Sensor sensor = context.metrics().addSensor(context.taskId() + "." + name, Sensor.RecordingLevel.INFO);
+        sensor.add(metricName(context, name, description), new Avg());
+        return sensor;
+    }
+
+    private static MetricName metricName(ProcessorContext<?, ?> context, String name, String description) {
+        // same tags the rate/total sensors get
+        return new MetricName(name, GROUP, description, Map.of(
+                "thread-id", Thread.currentThread().getName(),
+                SCOPE + "-id", context.taskId().toString()));
+    }
+}
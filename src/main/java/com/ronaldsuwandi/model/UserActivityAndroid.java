@@ -12,8 +12,13 @@ public record UserActivityAndroid(
         @JsonProperty("Location")
         Location location,
         @JsonProperty("ts")
-        Instant timestamp
+        Instant timestamp,
+        String timezone
 ) {
+    public UserActivityAndroid(Person person, Activity activity, Location location, Instant timestamp) {
+        this(person, activity, location, timestamp, null);
+    }
+
     public record Person(
             @JsonProperty("FirstName")
             String firstName,
@@ -28,8 +28,16 @@ public record UserActivityIos(
         Double longitude,
         String pincode,
         @JsonProperty("event_timestamp")
-        Instant timestamp
+        Instant timestamp,
+        String timezone
 ) {
+    public UserActivityIos(String firstName, String lastName, String address, String id, String gender, double height,
+                           double weight, PhysicalActivity activity, Double latitude, Double longitude, String pincode,
+                           Instant timestamp) {
+        this(firstName, lastName, address, id, gender, height, weight, activity, latitude, longitude, pincode, timestamp,
+                null);
+    }
+
     public record PhysicalActivity(
             @JsonProperty("Dance_minutes")
             int danceMinutes,
@@ -1,7 +1,14 @@
 package com.ronaldsuwandi.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
 
+/**
+ * @param zone IANA zone id (or offset) the activity happened in, null when the device did not send one. Left out of the
+ *             JSON when null, so instances from before it was added still read records without a zone during a
+ *             rolling upgrade.
+ */
 public record UserActivityNormalized(
         String userId,
         String firstName,
@@ -10,7 +17,11 @@ public record UserActivityNormalized(
         Double latitude,
         Double longitude,
         String pincode,
-        Instant timestamp
+        Instant timestamp,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String zone
 ) {
-
+    public UserActivityNormalized(String userId, String firstName, String lastName, int steps, Double latitude,
+                                  Double longitude, String pincode, Instant timestamp) {
+        this(userId, firstName, lastName, steps, latitude, longitude, pincode, timestamp, null);
+    }
 }
@@ -1,11 +1,14 @@
 package com.ronaldsuwandi.model;
 
-import java.time.Instant;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
 
-public record UserStepsDaily(
-        String userId,
-        int steps,
-        Instant timestamp,
-        String label
-) {
+/**
+ * Steps of a user on a single day. The user and the day are the key and the window start of the daily store, so only
+ * the running total is kept; the label is derived from it when asked for.
+ */
+public record UserStepsDaily(int steps) {
+
+    public String label() {
+        return UserStepsAggregator.getStepLabel(steps);
+    }
 }
@@ -0,0 +1,175 @@
+package com.ronaldsuwandi.model;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Rolling history of the last {@link #CAPACITY} daily labels of a user, ordered by window start.
+ * <p>
+ * Alongside the entries it keeps two running counters, the number of medium/high days and the number of gaps
+ * (neighbouring windows more than a day apart), which are adjusted on every {@link #put} so the weekly verdict
+ * never has to walk the history. Labels are kept as small codes ({@link #LABELS}); anything else is stored as
+ * {@link #LABEL_NONE}, which like a low day does not count towards medium/high.
+ * <p>
+ * It also remembers the last weekly label forwarded for the user so unchanged verdicts can be suppressed without a
+ * second store lookup.
+ */
+public class WeeklyLabelHistory {
+    public static final int CAPACITY = 7;
+    public static final String[] LABELS = {"", "daily_low_stepper", "daily_medium_stepper", "daily_high_stepper"};
+    public static final byte LABEL_NONE = 0;
+    public static final byte LABEL_LOW = 1;
+    public static final byte LABEL_MEDIUM = 2;
+    public static final byte LABEL_HIGH = 3;
+    public static final String[] WEEKLY_LABELS = {null, "", "low", "medium_or_high"};
+    public static final byte NOT_EMITTED = 0;
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final long[] windowStarts = new long[CAPACITY];
+    private final byte[] labels = new byte[CAPACITY];
+    private int size;
+    private int mediumOrHighDays;
+    private int gaps;
+    private byte lastEmitted = NOT_EMITTED;
+
+    public static byte labelCode(String label) {
+        for (byte i = 0; i < LABELS.length; i++) {
+            if (LABELS[i].equals(label)) {
+                return i;
+            }
+        }
+        return LABEL_NONE;
+    }
+
+    public static byte weeklyLabelCode(String weeklyLabel) {
+        for (byte i = 1; i < WEEKLY_LABELS.length; i++) {
+            if (WEEKLY_LABELS[i].equals(weeklyLabel)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown weekly label " + weeklyLabel);
+    }
+
+    public void put(long windowStart, String label) {
+        put(windowStart, labelCode(label));
+    }
+
+    /**
+     * Updates the label of an existing window, otherwise inserts it, dropping the oldest window when the history is
+     * already full.
+     */
+    public void put(long windowStart, byte label) {
+        int index = Arrays.binarySearch(windowStarts, 0, size, windowStart);
+        if (index >= 0) {
+            mediumOrHighDays += isMediumOrHigh(label) - isMediumOrHigh(labels[index]);
+            labels[index] = label;
+            return;
+        }
+
+        if (size >= CAPACITY) {
+            removeOldest();
+            index = Arrays.binarySearch(windowStarts, 0, size, windowStart);
+        }
+        int insertAt = -index - 1;
+
+        boolean hasPrevious = insertAt > 0;
+        boolean hasNext = insertAt < size;
+        if (hasPrevious && hasNext) {
+            gaps -= gap(windowStarts[insertAt - 1], windowStarts[insertAt]);
+        }
+        if (hasPrevious) {
+            gaps += gap(windowStarts[insertAt - 1], windowStart);
+        }
+        if (hasNext) {
+            gaps += gap(windowStart, windowStarts[insertAt]);
+        }
+
+        System.arraycopy(windowStarts, insertAt, windowStarts, insertAt + 1, size - insertAt);
+        System.arraycopy(labels, insertAt, labels, insertAt + 1, size - insertAt);
+        windowStarts[insertAt] = windowStart;
+        labels[insertAt] = label;
+        size++;
+        mediumOrHighDays += isMediumOrHigh(label);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    /**
+     * @return true when no two neighbouring windows are more than a day apart
+     */
+    public boolean isContinuous() {
+        return gaps == 0;
+    }
+
+    public int mediumOrHighDays() {
+        return mediumOrHighDays;
+    }
+
+    public long windowStart(int index) {
+        return windowStarts[index];
+    }
+
+    public byte labelCode(int index) {
+        return labels[index];
+    }
+
+    public String label(int index) {
+        return LABELS[labels[index]];
+    }
+
+    /**
+     * @return last weekly label forwarded for this user, null if nothing was forwarded yet
+     */
+    public String lastEmittedLabel() {
+        return WEEKLY_LABELS[lastEmitted];
+    }
+
+    public byte lastEmittedCode() {
+        return lastEmitted;
+    }
+
+    public void setLastEmittedLabel(String weeklyLabel) {
+        this.lastEmitted = weeklyLabelCode(weeklyLabel);
+    }
+
+    public void setLastEmittedCode(byte code) {
+        if (code < 0 || code >= WEEKLY_LABELS.length) {
+            throw new IllegalArgumentException("Unknown weekly label code " + code);
+        }
+        this.lastEmitted = code;
+    }
+
+    private void removeOldest() {
+        if (size > 1) {
+            gaps -= gap(windowStarts[0], windowStarts[1]);
+        }
+        mediumOrHighDays -= isMediumOrHigh(labels[0]);
+        System.arraycopy(windowStarts, 1, windowStarts, 0, size - 1);
+        System.arraycopy(labels, 1, labels, 0, size - 1);
+        size--;
+    }
+
+    private static int gap(long earlier, long later) {
+        return later - earlier > DAY ? 1 : 0;
+    }
+
+    private static int isMediumOrHigh(byte label) {
+        return label == LABEL_MEDIUM || label == LABEL_HIGH ? 1 : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(windowStarts[i]).append('=').append(label(i));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -1,7 +1,14 @@
 package com.ronaldsuwandi.processor;
 
 import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
 import org.apache.kafka.streams.processor.api.Processor;
 import org.apache.kafka.streams.processor.api.ProcessorContext;
 import org.apache.kafka.streams.processor.api.Record;
@@ -12,68 +19,138 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Iterator;
-import java.util.NavigableMap;
 import java.util.NavigableSet;
-import java.util.TreeMap;
 
 public class ConsecutiveStepsProcessor implements Processor<Windowed<String>, UserStepsDaily, String, String> {
-    private KeyValueStore<String, NavigableMap<Long, String>> stateStore;
+    private KeyValueStore<String, WeeklyLabelHistory> stateStore;
     private ProcessorContext<String, String> context;
     private static Logger logger = LoggerFactory.getLogger(ConsecutiveStepsProcessor.class);
     public final static String STORE_NAME = "user-steps-7-days-rolling-store";
+    public final static String SUPPRESSED_SENSOR = "weekly-label-suppressed";
+    private static final Stage STAGE = StageMetrics.stage(StageMetrics.WEEKLY_LABEL);
+    private static final Stage STORE_GET = StageMetrics.storeGet(STORE_NAME);
+    private static final Stage STORE_PUT = StageMetrics.storePut(STORE_NAME);
+
+    private final WeeklyEmitStrategy emitStrategy;
+    private final UserStateListener listener;
+    private final UserExpiry expiry;
+    private Sensor suppressedSensor;
+    private StoreExpiry<WeeklyLabelHistory> storeExpiry;
+    private Cancellable expiryPunctuator;
+    private long observedEventTime = Long.MIN_VALUE;
+
+    public ConsecutiveStepsProcessor() {
+        this(WeeklyEmitStrategy.ON_UPDATE);
+    }
+
+    public ConsecutiveStepsProcessor(WeeklyEmitStrategy emitStrategy) {
+        this(emitStrategy, UserStateListener.NOOP);
+    }
+
+    public ConsecutiveStepsProcessor(WeeklyEmitStrategy emitStrategy, UserStateListener listener) {
+        this(emitStrategy, listener, UserExpiry.DISABLED);
+    }
+
+    public ConsecutiveStepsProcessor(WeeklyEmitStrategy emitStrategy, UserStateListener listener, UserExpiry expiry) {
+        this.emitStrategy = emitStrategy;
+        this.listener = listener;
+        this.expiry = expiry;
+    }
 
     @Override
     public void init(ProcessorContext<String, String> context) {
         // Initialize the state store to keep 7-day history of labels
         this.stateStore = context.getStateStore(STORE_NAME);
         this.context = context;
+        this.suppressedSensor = StepsMetrics.rateTotalSensor(context, SUPPRESSED_SENSOR);
+        if (expiry.enabled()) {
+            this.storeExpiry = new StoreExpiry<>(context, stateStore, UserExpiry.SENSOR, expiry.sliceSize());
+            this.expiryPunctuator = context.schedule(expiry.interval(), PunctuationType.WALL_CLOCK_TIME, this::expire);
+        }
     }
 
     @Override
     public void process(Record<Windowed<String>, UserStepsDaily> record) {
+        long start = System.nanoTime();
         String userId = record.key().key();
-        Long timeWindowStart = record.key().window().start();
+        long timeWindowStart = record.key().window().start();
         String label = record.value().label();
+        observedEventTime = Math.max(observedEventTime, record.timestamp());
 
-        NavigableMap<Long, String> labelHistory = stateStore.get(userId);
+        WeeklyLabelHistory labelHistory = stateStore.get(userId);
+        STORE_GET.recordSince(start);
         if (labelHistory == null) {
-            labelHistory = new TreeMap<>();
+            labelHistory = new WeeklyLabelHistory();
         }
 
-        logger.trace("> BEFORE label history size = {} => {}", labelHistory.size(), labelHistory.toString());
-        if (labelHistory.containsKey(timeWindowStart)) {
-            labelHistory.put(timeWindowStart,label);
-        } else {
-            // check for size, we keep track of only 7 days
-            if (labelHistory.size() >= 7) {
-                labelHistory.pollFirstEntry();
-            }
-            labelHistory.put(timeWindowStart, label);
+        logger.trace("> BEFORE label history size = {} => {}", labelHistory.size(), labelHistory);
+        // replaces the label when the window is already tracked, otherwise rolls the oldest day out once we hold 7
+        labelHistory.put(timeWindowStart, label);
+
+        long timestamp = Instant.now().toEpochMilli();
+        logger.trace("> AFTER label history size = {} => {}", labelHistory.size(), labelHistory);
+
+        String weeklyLabel = weeklyLabel(labelHistory);
+        boolean emit = emitStrategy == WeeklyEmitStrategy.ON_UPDATE || !weeklyLabel.equals(labelHistory.lastEmittedLabel());
+        if (emit) {
+            labelHistory.setLastEmittedLabel(weeklyLabel);
         }
 
+        long putStart = System.nanoTime();
         stateStore.put(userId, labelHistory); // have to store this again
+        long end = System.nanoTime();
+        STORE_PUT.record(end - putStart);
+        // downstream is not part of this stage
+        STAGE.record(end - start);
+        // with per-update daily emits the window was written just before it was forwarded here, other strategies
+        // leave the daily view uncached (see TopologyBuilder)
+        listener.updated(userId);
 
-        long timestamp = Instant.now().toEpochMilli();
-        logger.trace("> AFTER label history size = {} => {}", labelHistory.size(), labelHistory);
+        if (emit) {
+            // keeps the headers, so the event time of the activity behind this update travels on
+            context.forward(record.withKey(userId).withValue(weeklyLabel).withTimestamp(timestamp));
+        } else {
+            logger.trace("> weekly label for {} unchanged ({}), suppressed", userId, weeklyLabel);
+            suppressedSensor.record();
+        }
+    }
+
+    /**
+     * Evicts idle users of the next slice of the store and tombstones their weekly label, so the compacted topic and
+     * the table joined against it forget them too
+     */
+    void expire(long now) {
+        // not the task's stream time, the aggregated topic is read back into the same task with wall clock timestamps
+        long streamTime = observedEventTime;
+        int evicted = storeExpiry.expireSlice(history -> expiry.isIdle(history, streamTime), userId -> {
+            listener.updated(userId);
+            context.forward(new Record<>(userId, null, now));
+        });
+        logger.debug("Evicted {} users idle for {} at stream time {}", evicted, expiry.ttl(), streamTime);
+    }
 
-        if (labelHistory.size() < 7) {
+    public static String weeklyLabel(WeeklyLabelHistory labelHistory) {
+        if (!labelHistory.isFull()) {
             // user doesn't have 7 days worth of history, skip
-            context.forward(new Record<>(userId, "", timestamp));
-        } else {
-            boolean allConsecutives = allTimestampsContinuous(labelHistory.navigableKeySet(), Duration.ofDays(1));
-            if (!allConsecutives) {
-                logger.info("User has missing gap in the weekly aggregation {}", labelHistory);
-                context.forward(new Record<>(userId, "", timestamp));
-                return;
-            }
+            return "";
+        }
+        // contiguity and medium/high days are running counters kept by the history, no need to walk it
+        if (!labelHistory.isContinuous()) {
+            logger.info("User has missing gap in the weekly aggregation {}", labelHistory);
+            return "";
+        }
 
-            boolean sevenDaysMediumOrHigh = labelHistory.values().stream().allMatch(l -> l.equals("daily_medium_stepper") || l.equals("daily_high_stepper"));
-            logger.trace("> all seven days medium/high? {}", sevenDaysMediumOrHigh);
-            if (sevenDaysMediumOrHigh) {
-                context.forward(new Record<>(userId, "medium_or_high", timestamp));
-            } else {
-                context.forward(new Record<>(userId, "low", timestamp));
-            }
+        boolean sevenDaysMediumOrHigh = labelHistory.mediumOrHighDays() == WeeklyLabelHistory.CAPACITY;
+        logger.trace("> all seven days medium/high? {}", sevenDaysMediumOrHigh);
+        return sevenDaysMediumOrHigh ? "medium_or_high" : "low";
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(suppressedSensor);
+        if (storeExpiry != null) {
+            expiryPunctuator.cancel();
+            storeExpiry.close(context);
         }
     }
 
@@ -0,0 +1,35 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.extractor.EventTimeHeader;
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Records how far behind the device event each record is when it passes a boundary, from the {@link EventTimeHeader}
+ * the record carries since normalization, and forwards it unchanged. Records without the header are not counted.
+ */
+public class EventLagRecorder<K, V> implements FixedKeyProcessor<K, V, V> {
+    private final Stage lag;
+    private FixedKeyProcessorContext<K, V> context;
+
+    public EventLagRecorder(String boundary) {
+        this.lag = StageMetrics.eventLag(boundary);
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<K, V> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<K, V> record) {
+        long eventTime = EventTimeHeader.get(record.headers());
+        if (eventTime >= 0) {
+            lag.record((context.currentSystemTimeMs() - eventTime) * 1_000_000L);
+        }
+        context.forward(record);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.extractor.EventTimeHeader;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Sets the record timestamp (and optionally the {@link EventTimeHeader}) to the activity's event time, so downstream
+ * consumers can read event time from record metadata.
+ */
+public class EventTimeStamper implements FixedKeyProcessor<String, UserActivityNormalized, UserActivityNormalized> {
+    private final boolean header;
+    private FixedKeyProcessorContext<String, UserActivityNormalized> context;
+
+    public EventTimeStamper(boolean header) {
+        this.header = header;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, UserActivityNormalized> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, UserActivityNormalized> record) {
+        if (record.value() == null || record.value().timestamp() == null) {
+            context.forward(record);
+            return;
+        }
+        long eventTime = record.value().timestamp().toEpochMilli();
+        if (header) {
+            EventTimeHeader.set(record.headers(), eventTime);
+        }
+        context.forward(record.withTimestamp(eventTime));
+    }
+}
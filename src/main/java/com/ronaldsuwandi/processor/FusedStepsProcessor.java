@@ -0,0 +1,161 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.time.DailyBuckets;
+import com.ronaldsuwandi.time.ZoneOffsetTable;
+import com.ronaldsuwandi.transformer.UserNotificationJoiner;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Fused pipeline stage: from each activity record it updates the daily aggregate, rolls the 7-day label history and
+ * creates the notification when the user qualifies, in one pass and without the intermediate topics.
+ * <p>
+ * The daily aggregate lives in a window store keyed by user and day start, on the local timeline of
+ * {@link DailyBuckets}. Like the DSL window aggregation, records for a day that closed (end + grace) before the
+ * current stream time are dropped. Notifications are forwarded with the activity timestamp and still need to be
+ * debounced downstream. Idle users are evicted from the rolling store as configured by {@link UserExpiry}; their days
+ * leave the window store with its retention.
+ */
+public class FusedStepsProcessor implements Processor<String, UserActivityNormalized, String, UserNotification> {
+    private static Logger logger = LoggerFactory.getLogger(FusedStepsProcessor.class);
+    public final static String LATE_SENSOR = "daily-late-record-dropped";
+    private static final Stage DAILY_STAGE = StageMetrics.stage(StageMetrics.DAILY_AGGREGATE);
+    private static final Stage WEEKLY_STAGE = StageMetrics.stage(StageMetrics.WEEKLY_LABEL);
+    private static final Stage JOIN_STAGE = StageMetrics.stage(StageMetrics.NOTIFICATION_JOIN);
+    private static final Stage DAILY_GET = StageMetrics.storeGet(UserStepsAggregator.STORE_NAME);
+    private static final Stage DAILY_PUT = StageMetrics.storePut(UserStepsAggregator.STORE_NAME);
+    private static final Stage ROLLING_GET = StageMetrics.storeGet(ConsecutiveStepsProcessor.STORE_NAME);
+    private static final Stage ROLLING_PUT = StageMetrics.storePut(ConsecutiveStepsProcessor.STORE_NAME);
+
+    private final long windowSizeMs;
+    private final long graceMs;
+    private final DailyBuckets dailyBuckets;
+    private final UserStepsAggregator aggregator;
+    private final UserStateListener listener;
+    private final UserExpiry expiry;
+
+    private WindowStore<String, UserStepsDaily> dailyStore;
+    private KeyValueStore<String, WeeklyLabelHistory> rollingStore;
+    private ProcessorContext<String, UserNotification> context;
+    private Sensor lateSensor;
+    private StoreExpiry<WeeklyLabelHistory> storeExpiry;
+    private Cancellable expiryPunctuator;
+
+    public FusedStepsProcessor(Duration windowSize, Duration grace) {
+        this(windowSize, grace, DailyBuckets.UTC);
+    }
+
+    public FusedStepsProcessor(Duration windowSize, Duration grace, DailyBuckets dailyBuckets) {
+        this(windowSize, grace, dailyBuckets, UserStateListener.NOOP);
+    }
+
+    public FusedStepsProcessor(Duration windowSize, Duration grace, DailyBuckets dailyBuckets,
+                               UserStateListener listener) {
+        this(windowSize, grace, dailyBuckets, listener, UserExpiry.DISABLED);
+    }
+
+    public FusedStepsProcessor(Duration windowSize, Duration grace, DailyBuckets dailyBuckets,
+                               UserStateListener listener, UserExpiry expiry) {
+        this.windowSizeMs = windowSize.toMillis();
+        this.graceMs = grace.toMillis();
+        this.dailyBuckets = dailyBuckets;
+        this.aggregator = new UserStepsAggregator();
+        this.listener = listener;
+        this.expiry = expiry;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, UserNotification> context) {
+        this.dailyStore = context.getStateStore(UserStepsAggregator.STORE_NAME);
+        this.rollingStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
+        this.context = context;
+        this.lateSensor = StepsMetrics.rateTotalSensor(context, LATE_SENSOR);
+        if (expiry.enabled()) {
+            this.storeExpiry = new StoreExpiry<>(context, rollingStore, UserExpiry.SENSOR, expiry.sliceSize());
+            this.expiryPunctuator = context.schedule(expiry.interval(), PunctuationType.WALL_CLOCK_TIME, this::expire);
+        }
+    }
+
+    @Override
+    public void process(Record<String, UserActivityNormalized> record) {
+        String userId = record.key();
+        ZoneOffsetTable zone = dailyBuckets.zone(record.value());
+        long localTime = zone.toLocal(record.timestamp());
+        long windowStart = localTime - Math.floorMod(localTime, windowSizeMs);
+        // compared on the user's local timeline, so users in other zones do not close each other's days early
+        if (windowStart + windowSizeMs + graceMs <= zone.toLocal(context.currentStreamTimeMs())) {
+            logger.debug("Dropping late record for {} at {}, window already closed", userId, record.timestamp());
+            lateSensor.record();
+            return;
+        }
+
+        long start = System.nanoTime();
+        UserStepsDaily daily = dailyStore.fetch(userId, windowStart);
+        DAILY_GET.recordSince(start);
+        if (daily == null) {
+            daily = new UserStepsDaily(0);
+        }
+        long aggregateStart = System.nanoTime();
+        daily = aggregator.apply(userId, record.value(), daily);
+        DAILY_STAGE.recordSince(aggregateStart);
+        long putStart = System.nanoTime();
+        dailyStore.put(userId, daily, windowStart);
+        DAILY_PUT.recordSince(putStart);
+
+        long weeklyStart = System.nanoTime();
+        WeeklyLabelHistory labelHistory = rollingStore.get(userId);
+        ROLLING_GET.recordSince(weeklyStart);
+        if (labelHistory == null) {
+            labelHistory = new WeeklyLabelHistory();
+        }
+        labelHistory.put(windowStart, daily.label());
+        String weeklyLabel = ConsecutiveStepsProcessor.weeklyLabel(labelHistory);
+        labelHistory.setLastEmittedLabel(weeklyLabel);
+        putStart = System.nanoTime();
+        rollingStore.put(userId, labelHistory);
+        ROLLING_PUT.recordSince(putStart);
+        WEEKLY_STAGE.recordSince(weeklyStart);
+        listener.updated(userId);
+
+        long joinStart = System.nanoTime();
+        UserNotification notification = UserNotificationJoiner.joinWithWeeklyAggregatedLabel(record.value(), weeklyLabel,
+                dailyBuckets);
+        JOIN_STAGE.recordSince(joinStart);
+        if (notification != null) {
+            context.forward(record.withValue(notification));
+        }
+    }
+
+    void expire(long now) {
+        long streamTime = context.currentStreamTimeMs();
+        int evicted = storeExpiry.expireSlice(history -> expiry.isIdle(history, streamTime), listener::updated);
+        logger.debug("Evicted {} users idle for {} at stream time {}", evicted, expiry.ttl(), streamTime);
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(lateSensor);
+        if (storeExpiry != null) {
+            expiryPunctuator.cancel();
+            storeExpiry.close(context);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.time.DailyBuckets;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Moves the record timestamp onto the activity's local timeline ({@link DailyBuckets#localTime}), so epoch-aligned
+ * daily windows downstream fall on local calendar days.
+ */
+public class LocalTimeStamper implements FixedKeyProcessor<String, UserActivityNormalized, UserActivityNormalized> {
+    private final DailyBuckets dailyBuckets;
+    private FixedKeyProcessorContext<String, UserActivityNormalized> context;
+
+    public LocalTimeStamper(DailyBuckets dailyBuckets) {
+        this.dailyBuckets = dailyBuckets;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, UserActivityNormalized> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, UserActivityNormalized> record) {
+        if (record.value() == null || record.value().timestamp() == null) {
+            context.forward(record);
+            return;
+        }
+        context.forward(record.withTimestamp(dailyBuckets.localTime(record.value())));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Drops notifications for users already notified within the debounce window.
+ * <p>
+ * The last notification id and time of each user live in a local timestamped store, checked and updated in the same
+ * {@link #process} call, so two activities arriving back to back can no longer both pass the check. Entries older
+ * than the window can no longer suppress anything and are removed by a wall-clock punctuator, a bounded slice of the
+ * store per punctuation.
+ */
+public class NotificationDebounceProcessor implements Processor<String, UserNotification, String, UserNotification> {
+    private static Logger logger = LoggerFactory.getLogger(NotificationDebounceProcessor.class);
+    public final static String STORE_NAME = "user-notification-id-store";
+    public final static String DEBOUNCED_SENSOR = "notification-debounced";
+    public final static String NOTIFICATION_SENSOR = "notification";
+    public final static String EXPIRY_SENSOR = "debounce-store";
+    private static final Stage STAGE = StageMetrics.stage(StageMetrics.NOTIFICATION_DEBOUNCE);
+    private static final Stage STORE_GET = StageMetrics.storeGet(STORE_NAME);
+    private static final Stage STORE_PUT = StageMetrics.storePut(STORE_NAME);
+
+    private final long windowMs;
+    private final Duration expiryInterval;
+    private final UserStateListener listener;
+    private final int expirySliceSize;
+
+    private TimestampedKeyValueStore<String, String> stateStore;
+    private ProcessorContext<String, UserNotification> context;
+    private Sensor debouncedSensor;
+    private Sensor notificationSensor;
+    private StoreExpiry<ValueAndTimestamp<String>> storeExpiry;
+    private Cancellable expiry;
+
+    public NotificationDebounceProcessor(Duration window, Duration expiryInterval) {
+        this(window, expiryInterval, UserStateListener.NOOP);
+    }
+
+    public NotificationDebounceProcessor(Duration window, Duration expiryInterval, UserStateListener listener) {
+        this(window, expiryInterval, listener, UserExpiry.DISABLED.sliceSize());
+    }
+
+    public NotificationDebounceProcessor(Duration window, Duration expiryInterval, UserStateListener listener,
+                                         int expirySliceSize) {
+        this.windowMs = window.toMillis();
+        this.expiryInterval = expiryInterval;
+        this.listener = listener;
+        this.expirySliceSize = expirySliceSize;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, UserNotification> context) {
+        this.stateStore = context.getStateStore(STORE_NAME);
+        this.context = context;
+        this.debouncedSensor = StepsMetrics.rateTotalSensor(context, DEBOUNCED_SENSOR);
+        this.notificationSensor = StepsMetrics.rateTotalSensor(context, NOTIFICATION_SENSOR);
+        this.storeExpiry = new StoreExpiry<>(context, stateStore, EXPIRY_SENSOR, expirySliceSize);
+        this.expiry = context.schedule(expiryInterval, PunctuationType.WALL_CLOCK_TIME, this::expire);
+    }
+
+    @Override
+    public void process(Record<String, UserNotification> record) {
+        long start = System.nanoTime();
+        UserNotification notification = record.value();
+        long notifiedAt = notification.timestamp().toEpochMilli();
+
+        ValueAndTimestamp<String> last = stateStore.get(record.key());
+        STORE_GET.recordSince(start);
+        if (last != null && Math.abs(notifiedAt - last.timestamp()) <= windowMs) {
+            logger.debug("Debounced. Too soon, wait again before sending notification to {}", notification.userId());
+            debouncedSensor.record();
+            STAGE.recordSince(start);
+            return;
+        }
+
+        long putStart = System.nanoTime();
+        stateStore.put(record.key(), ValueAndTimestamp.make(notification.notificationId(), notifiedAt));
+        long end = System.nanoTime();
+        STORE_PUT.record(end - putStart);
+        listener.updated(record.key());
+        notificationSensor.record();
+        // downstream is not part of this stage, staleness is reported as event-lag.user-notifications
+        STAGE.record(end - start);
+        context.forward(record);
+    }
+
+    void expire(long now) {
+        long cutoff = now - windowMs;
+        int expired = storeExpiry.expireSlice(last -> last.timestamp() < cutoff, listener::updated);
+        logger.debug("Expired {} debounce entries older than {}", expired, cutoff);
+    }
+
+    @Override
+    public void close() {
+        expiry.cancel();
+        context.metrics().removeSensor(debouncedSensor);
+        context.metrics().removeSensor(notificationSensor);
+        storeExpiry.close(context);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.store.StringBloomFilter;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Drops notifications whose id was already sent.
+ * <p>
+ * Sent ids are kept in a changelogged store and mirrored in a per-task Bloom filter, which is rebuilt from the store
+ * whenever the task starts, so it is as durable as the store. Only ids the filter might contain are looked up in the
+ * store; a new id, the common case, never touches it. Ids embed the qualifying day, so they only need to be kept for
+ * {@code retention} after they were sent. Each id is stored with the wall-clock time it was accepted rather than its
+ * event time, so a late or replayed notification is remembered as long as any other.
+ * <p>
+ * A wall-clock punctuator removes ids accepted more than {@code retention} ago, a {@link StoreExpiry} slice at a time.
+ * A Bloom filter cannot forget, so it is kept in two generations instead: new ids go into the current one, and once it
+ * is {@code retention} old it becomes the previous one and the one before is dropped. Every id accepted within
+ * {@code retention} is in one of the two, and only the task start reads the whole store.
+ */
+public class NotificationDedupProcessor implements Processor<String, UserNotification, String, UserNotification> {
+    private static Logger logger = LoggerFactory.getLogger(NotificationDedupProcessor.class);
+    public final static String STORE_NAME = "user-notification-dedup-store";
+    public final static String DUPLICATE_SENSOR = "notification-duplicate";
+    public final static String LOOKUP_SENSOR = "notification-dedup-lookup";
+    public final static String FALSE_POSITIVE_RATE = "notification-dedup-false-positive-rate";
+    public final static String FILTER_BYTES = "notification-dedup-filter-bytes";
+    private static final Stage STORE_GET = StageMetrics.storeGet(STORE_NAME);
+    private static final Stage STORE_PUT = StageMetrics.storePut(STORE_NAME);
+
+    private final long expectedIds;
+    private final double falsePositiveProbability;
+    private final long retentionMs;
+    private final Duration expiryInterval;
+    private final int expirySliceSize;
+
+    private KeyValueStore<String, Long> stateStore;
+    private ProcessorContext<String, UserNotification> context;
+    private StringBloomFilter filter;
+    private StringBloomFilter previousFilter;
+    private long filterStartedAt;
+    private Sensor duplicateSensor;
+    private Sensor lookupSensor;
+    private Sensor falsePositiveSensor;
+    private Sensor filterBytesSensor;
+    private Cancellable expiry;
+    private StoreExpiry<Long> storeExpiry;
+
+    public NotificationDedupProcessor(long expectedIds, double falsePositiveProbability, Duration retention,
+                                      Duration expiryInterval) {
+        this(expectedIds, falsePositiveProbability, retention, expiryInterval, UserExpiry.DISABLED.sliceSize());
+    }
+
+    public NotificationDedupProcessor(long expectedIds, double falsePositiveProbability, Duration retention,
+                                      Duration expiryInterval, int expirySliceSize) {
+        this.expectedIds = expectedIds;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.retentionMs = retention.toMillis();
+        this.expiryInterval = expiryInterval;
+        this.expirySliceSize = expirySliceSize;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, UserNotification> context) {
+        this.stateStore = context.getStateStore(STORE_NAME);
+        this.context = context;
+        this.duplicateSensor = StepsMetrics.rateTotalSensor(context, DUPLICATE_SENSOR);
+        this.lookupSensor = StepsMetrics.rateTotalSensor(context, LOOKUP_SENSOR);
+        this.falsePositiveSensor = StepsMetrics.avgSensor(context, FALSE_POSITIVE_RATE,
+                "Share of new notification ids the filter reported as possibly seen");
+        this.filterBytesSensor = StepsMetrics.valueSensor(context, FILTER_BYTES,
+                "Memory used by the notification id filter");
+        this.storeExpiry = new StoreExpiry<>(context, stateStore, "dedup-store", expirySliceSize);
+        rebuildFilter(context.currentSystemTimeMs());
+        this.expiry = context.schedule(expiryInterval, PunctuationType.WALL_CLOCK_TIME, this::expire);
+    }
+
+    @Override
+    public void process(Record<String, UserNotification> record) {
+        String notificationId = record.value().notificationId();
+        if (filter.mightContain(notificationId)
+                || (previousFilter != null && previousFilter.mightContain(notificationId))) {
+            lookupSensor.record();
+            long start = System.nanoTime();
+            Long sentAt = stateStore.get(notificationId);
+            STORE_GET.recordSince(start);
+            if (sentAt != null) {
+                logger.debug("Duplicate notification {} for {} dropped", notificationId, record.key());
+                duplicateSensor.record();
+                return;
+            }
+            falsePositiveSensor.record(1);
+        } else {
+            falsePositiveSensor.record(0);
+        }
+
+        long putStart = System.nanoTime();
+        stateStore.put(notificationId, context.currentSystemTimeMs());
+        STORE_PUT.recordSince(putStart);
+        filter.put(notificationId);
+        context.forward(record);
+    }
+
+    void expire(long now) {
+        long cutoff = now - retentionMs;
+        int expired = storeExpiry.expireSlice(acceptedAt -> acceptedAt < cutoff, notificationId -> {});
+        if (now - filterStartedAt >= retentionMs) {
+            // ids of the dropped generation were all accepted more than retention ago
+            previousFilter = filter;
+            filter = newFilter(previousFilter.entries());
+            filterStartedAt = now;
+            filterBytesSensor.record(filter.sizeInBytes() + previousFilter.sizeInBytes());
+        }
+        logger.debug("Expired {} notification ids accepted before {}", expired, cutoff);
+    }
+
+    private void rebuildFilter(long now) {
+        filter = newFilter(stateStore.approximateNumEntries());
+        previousFilter = null;
+        filterStartedAt = now;
+        try (KeyValueIterator<String, Long> iterator = stateStore.all()) {
+            while (iterator.hasNext()) {
+                filter.put(iterator.next().key);
+            }
+        }
+        filterBytesSensor.record(filter.sizeInBytes());
+    }
+
+    private StringBloomFilter newFilter(long entries) {
+        // leave headroom so the filter stays near its target rate as ids keep coming in
+        return new StringBloomFilter(Math.max(expectedIds, entries * 2), falsePositiveProbability);
+    }
+
+    @Override
+    public void close() {
+        expiry.cancel();
+        storeExpiry.close(context);
+        context.metrics().removeSensor(duplicateSensor);
+        context.metrics().removeSensor(lookupSensor);
+        context.metrics().removeSensor(falsePositiveSensor);
+        context.metrics().removeSensor(filterBytesSensor);
+    }
+}
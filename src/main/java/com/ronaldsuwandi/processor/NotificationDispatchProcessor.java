@@ -0,0 +1,41 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.dispatch.NotificationDispatchStore;
+import com.ronaldsuwandi.dispatch.NotificationDispatcher;
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * Terminal stage handing notifications to the task's dispatcher (see {@link NotificationDispatchStore}).
+ */
+public class NotificationDispatchProcessor implements Processor<String, UserNotification, Void, Void> {
+    public final static String STORE_NAME = "user-notification-dispatch";
+    public final static String DISPATCHED_SENSOR = "notification-dispatched";
+
+    private NotificationDispatcher dispatcher;
+    private ProcessorContext<Void, Void> context;
+    private Sensor dispatchedSensor;
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        NotificationDispatchStore store = context.getStateStore(STORE_NAME);
+        this.dispatcher = store.dispatcher();
+        this.context = context;
+        this.dispatchedSensor = StepsMetrics.rateTotalSensor(context, DISPATCHED_SENSOR);
+    }
+
+    @Override
+    public void process(Record<String, UserNotification> record) {
+        dispatcher.submit(record.key(), record.value());
+        dispatchedSensor.record();
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(dispatchedSensor);
+    }
+}
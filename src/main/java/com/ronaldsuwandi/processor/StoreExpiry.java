@@ -0,0 +1,110 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.metrics.StepsMetrics;
+import com.ronaldsuwandi.store.SlotScanQuery;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Removes expired entries of a user keyed store a bounded slice at a time. Each call scans at most {@code sliceSize}
+ * entries, starting after the last key the previous call scanned and starting over once it reached the end, so a
+ * punctuation costs the same however large the store grows. Reports {@code <name>-evicted-rate/-total} and the scan
+ * time as {@code <name>-expiry-scan-latency-avg/-max} (milliseconds).
+ * <p>
+ * A store answering {@link SlotScanQuery} (the off-heap store) is walked by table slot rather than by key range, its
+ * ranges sort a snapshot of every key.
+ */
+final class StoreExpiry<V> {
+    private static final QueryConfig QUERY_CONFIG = new QueryConfig(false);
+
+    private final KeyValueStore<String, V> store;
+    private final int sliceSize;
+    private final Sensor evictedSensor;
+    private final Sensor scanSensor;
+    private final boolean slotScan;
+    private String cursor;
+    private int slot;
+
+    StoreExpiry(ProcessorContext<?, ?> context, KeyValueStore<String, V> store, String name, int sliceSize) {
+        this.store = store;
+        this.sliceSize = sliceSize;
+        this.evictedSensor = StepsMetrics.rateTotalSensor(context, name + "-evicted");
+        this.scanSensor = StepsMetrics.latencySensor(context, name + "-expiry-scan");
+        this.slotScan = store.query(new SlotScanQuery(0, 0), PositionBound.unbounded(), QUERY_CONFIG).isSuccess();
+    }
+
+    /**
+     * Deletes the entries of the next slice {@code expired} holds for, then hands each deleted key to {@code evicted}
+     *
+     * @return number of entries deleted
+     */
+    int expireSlice(Predicate<V> expired, Consumer<String> evicted) {
+        long start = System.nanoTime();
+        List<String> keys = slotScan ? expiredInSlotSlice(expired) : expiredInRangeSlice(expired);
+
+        for (String key : keys) {
+            store.delete(key);
+            evictedSensor.record();
+            evicted.accept(key);
+        }
+        scanSensor.record((System.nanoTime() - start) / 1e6);
+        return keys.size();
+    }
+
+    private List<String> expiredInRangeSlice(Predicate<V> expired) {
+        List<String> keys = new ArrayList<>();
+        int scanned = 0;
+        String last = null;
+        // deleted once the iterator is closed, the store is not written to while it is open
+        try (KeyValueIterator<String, V> iterator = cursor == null ? store.all() : store.range(cursor, null)) {
+            while (scanned < sliceSize && iterator.hasNext()) {
+                KeyValue<String, V> entry = iterator.next();
+                if (entry.key.equals(cursor)) {
+                    continue;
+                }
+                scanned++;
+                last = entry.key;
+                if (expired.test(entry.value)) {
+                    keys.add(entry.key);
+                }
+            }
+        }
+        // a short slice reached the end, the next one starts over
+        cursor = scanned < sliceSize ? null : last;
+        return keys;
+    }
+
+    private List<String> expiredInSlotSlice(Predicate<V> expired) {
+        SlotScanQuery.Result slice = store.query(new SlotScanQuery(slot, sliceSize), PositionBound.unbounded(), QUERY_CONFIG)
+                .getResult();
+        List<String> keys = new ArrayList<>();
+        for (Bytes key : slice.keys()) {
+            // raw store keys, user ids written by the string serde
+            String userId = new String(key.get(), StandardCharsets.UTF_8);
+            V value = store.get(userId);
+            if (value != null && expired.test(value)) {
+                keys.add(userId);
+            }
+        }
+        // the end of the table was reached, the next one starts over
+        slot = Math.max(slice.nextSlot(), 0);
+        return keys;
+    }
+
+    void close(ProcessorContext<?, ?> context) {
+        context.metrics().removeSensor(evictedSensor);
+        context.metrics().removeSensor(scanSensor);
+    }
+}
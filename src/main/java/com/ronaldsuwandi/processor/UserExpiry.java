@@ -0,0 +1,43 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+
+import java.time.Duration;
+
+/**
+ * Expiry of idle users from the rolling store.
+ * <p>
+ * A user is idle once their newest day ended more than {@code ttl} before the newest event time the task has seen, so
+ * a replay of old activity does not evict users that were active at that point of the replay. Anything above
+ * {@link WeeklyLabelHistory#CAPACITY} + 1 days changes no weekly label: a user coming back after that long has a gap
+ * in their history either way and starts over.
+ *
+ * @param ttl       idle time after which a user is evicted, zero to keep users forever
+ * @param interval  how often (wall clock) a slice of the store is scanned
+ * @param sliceSize entries scanned per punctuation, the next one carries on where it stopped
+ */
+public record UserExpiry(Duration ttl, Duration interval, int sliceSize) {
+    public static final UserExpiry DISABLED = new UserExpiry(Duration.ZERO, Duration.ofMinutes(1), 1000);
+    public static final String SENSOR = "rolling-store";
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    public UserExpiry {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must not be negative, got " + ttl);
+        }
+        if (sliceSize < 1) {
+            throw new IllegalArgumentException("sliceSize must be at least 1, got " + sliceSize);
+        }
+    }
+
+    public boolean enabled() {
+        return !ttl.isZero();
+    }
+
+    public boolean isIdle(WeeklyLabelHistory history, long streamTime) {
+        if (history.size() == 0) {
+            return true;
+        }
+        return history.windowStart(history.size() - 1) + DAY + ttl.toMillis() <= streamTime;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ronaldsuwandi.processor;
+
+/**
+ * Told after a processor has written a user's state to one of the queryable stores, so views read from it earlier can
+ * be dropped. Called on the stream thread, implementations must be cheap and must not block.
+ */
+@FunctionalInterface
+public interface UserStateListener {
+    UserStateListener NOOP = userId -> {
+    };
+
+    void updated(String userId);
+}
@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.processor;
+
+import java.util.Locale;
+
+/**
+ * When {@link ConsecutiveStepsProcessor} forwards the weekly label.
+ */
+public enum WeeklyEmitStrategy {
+    /**
+     * Forward a label on every daily aggregate update
+     */
+    ON_UPDATE,
+    /**
+     * Forward only when the label differs from the last one forwarded for the user
+     */
+    ON_CHANGE;
+
+    public static WeeklyEmitStrategy parse(String value) {
+        return WeeklyEmitStrategy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,20 @@
+package com.ronaldsuwandi.query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily aggregates of a user still held by the daily window store, oldest first. Dates are the bucketing day, UTC or
+ * the user's local day.
+ */
+public record DailyView(
+        String userId,
+        List<Day> days
+) {
+    public record Day(
+            LocalDate date,
+            int steps,
+            String label
+    ) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreType;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+/**
+ * Interactive queries against a running {@link KafkaStreams}. Ownership comes from the partition metadata every
+ * instance shares through {@code application.server}, so {@code self} must be the endpoint this instance advertises.
+ */
+public class KafkaStreamsUserStateAccess implements UserStateAccess {
+    private final KafkaStreams streams;
+    private final HostInfo self;
+    private final Serializer<String> keySerializer = Serdes.String().serializer();
+
+    public KafkaStreamsUserStateAccess(KafkaStreams streams, HostInfo self) {
+        this.streams = streams;
+        this.self = self;
+    }
+
+    @Override
+    public HostInfo owner(UserStatePart part, String userId) {
+        KeyQueryMetadata metadata = streams.queryMetadataForKey(part.storeName(), userId, keySerializer);
+        if (metadata == null || metadata.equals(KeyQueryMetadata.NOT_AVAILABLE)) {
+            throw new QueryUnavailableException("No metadata for " + part.storeName() + " yet, streams is " + streams.state());
+        }
+        return metadata.activeHost().equals(self) ? null : metadata.activeHost();
+    }
+
+    @Override
+    public ReadOnlyWindowStore<String, UserStepsDaily> dailyStore() {
+        return store(UserStatePart.DAILY, QueryableStoreTypes.windowStore());
+    }
+
+    @Override
+    public ReadOnlyKeyValueStore<String, WeeklyLabelHistory> rollingStore() {
+        return store(UserStatePart.WEEKLY, QueryableStoreTypes.keyValueStore());
+    }
+
+    @Override
+    public ReadOnlyKeyValueStore<String, ValueAndTimestamp<String>> debounceStore() {
+        return store(UserStatePart.NOTIFICATION, QueryableStoreTypes.timestampedKeyValueStore());
+    }
+
+    private <T> T store(UserStatePart part, QueryableStoreType<T> type) {
+        try {
+            return streams.store(StoreQueryParameters.fromNameAndType(part.storeName(), type));
+        } catch (InvalidStateStoreException e) {
+            throw new QueryUnavailableException(part.storeName() + " cannot be queried right now", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ronaldsuwandi.query;
+
+import java.time.Instant;
+
+/**
+ * Last notification of a user still within the debounce window.
+ */
+public record NotificationView(
+        String userId,
+        String notificationId,
+        Instant notifiedAt
+) {
+}
@@ -0,0 +1,17 @@
+package com.ronaldsuwandi.query;
+
+/**
+ * The state needed to answer a query is not reachable right now, eg. during a rebalance or when the owning instance
+ * does not answer. Worth retrying.
+ */
+public class QueryUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public QueryUnavailableException(String message) {
+        super(message);
+    }
+
+    public QueryUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
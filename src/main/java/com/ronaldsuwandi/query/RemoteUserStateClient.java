@@ -0,0 +1,55 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.streams.state.HostInfo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Fetches a part of a user's state from the instance owning it. Requests are marked as forwarded so the owner answers
+ * from its own stores and never forwards again, eg. when ownership moved in between.
+ */
+public class RemoteUserStateClient {
+    public static final String FORWARDED_HEADER = "X-Steps-Forwarded";
+
+    private final HttpClient client;
+    private final Duration timeout;
+
+    public RemoteUserStateClient(Duration timeout) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the view, null when the owner has nothing for the user
+     */
+    public <T> T fetch(HostInfo owner, UserStatePart part, String userId, Class<T> type) {
+        URI uri = URI.create("http://" + owner.host() + ":" + owner.port() + UserStateServer.path(userId, part));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, "1")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new QueryUnavailableException("Owner " + owner + " of " + part.path() + " for " + userId + " did not answer", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryUnavailableException("Interrupted while forwarding to " + owner, e);
+        }
+
+        return switch (response.statusCode()) {
+            case 200 -> JSONSerdeUtil.getSerde(type).deserializer().deserialize(null, response.body());
+            case 404 -> null;
+            default -> throw new QueryUnavailableException("Owner " + owner + " of " + part.path() + " for " + userId
+                    + " returned " + response.statusCode());
+        };
+    }
+}
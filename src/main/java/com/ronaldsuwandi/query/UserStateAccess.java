@@ -0,0 +1,25 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+/**
+ * Where the queryable stores live. Store accessors only return this instance's stores and throw
+ * {@link QueryUnavailableException} while they cannot be read.
+ */
+public interface UserStateAccess {
+    /**
+     * @return the instance hosting the active task of the user's part, null when it is this one
+     */
+    HostInfo owner(UserStatePart part, String userId);
+
+    ReadOnlyWindowStore<String, UserStepsDaily> dailyStore();
+
+    ReadOnlyKeyValueStore<String, WeeklyLabelHistory> rollingStore();
+
+    ReadOnlyKeyValueStore<String, ValueAndTimestamp<String>> debounceStore();
+}
@@ -0,0 +1,41 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.NotificationDebounceProcessor;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+
+import java.util.Locale;
+
+/**
+ * Parts of a user's state that can be queried, one per store. Each part is routed on its own since the stores can
+ * belong to different sub-topologies and their tasks to different instances.
+ */
+public enum UserStatePart {
+    DAILY(UserStepsAggregator.STORE_NAME, DailyView.class),
+    WEEKLY(ConsecutiveStepsProcessor.STORE_NAME, WeeklyView.class),
+    NOTIFICATION(NotificationDebounceProcessor.STORE_NAME, NotificationView.class);
+
+    private final String storeName;
+    private final Class<?> viewType;
+
+    UserStatePart(String storeName, Class<?> viewType) {
+        this.storeName = storeName;
+        this.viewType = viewType;
+    }
+
+    public String storeName() {
+        return storeName;
+    }
+
+    public Class<?> viewType() {
+        return viewType;
+    }
+
+    public String path() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static UserStatePart parse(String path) {
+        return valueOf(path.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Answers queries for a user's state. Each part is read from this instance's store when it owns the user's task,
+ * through the {@link UserViewCache}, and otherwise fetched from the owner; views of other instances are not cached
+ * since their updates are never seen here.
+ */
+public class UserStateQuery {
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final UserStateAccess access;
+    private final UserViewCache cache;
+    private final RemoteUserStateClient remote;
+
+    public UserStateQuery(UserStateAccess access, UserViewCache cache, RemoteUserStateClient remote) {
+        this.access = access;
+        this.cache = cache;
+        this.remote = remote;
+    }
+
+    /**
+     * @return every part of the user's state, null when no store holds anything for the user
+     */
+    public UserView user(String userId) {
+        DailyView daily = daily(userId, false);
+        WeeklyView weekly = weekly(userId, false);
+        NotificationView notification = notification(userId, false);
+        if (daily == null && weekly == null && notification == null) {
+            return null;
+        }
+        return new UserView(userId, daily, weekly, notification);
+    }
+
+    /**
+     * @param forwarded the query was forwarded by another instance and must be answered locally
+     */
+    public DailyView daily(String userId, boolean forwarded) {
+        return route(UserStatePart.DAILY, userId, forwarded, DailyView.class, this::localDaily);
+    }
+
+    public WeeklyView weekly(String userId, boolean forwarded) {
+        return route(UserStatePart.WEEKLY, userId, forwarded, WeeklyView.class, this::localWeekly);
+    }
+
+    public NotificationView notification(String userId, boolean forwarded) {
+        return route(UserStatePart.NOTIFICATION, userId, forwarded, NotificationView.class, this::localNotification);
+    }
+
+    public Object part(UserStatePart part, String userId, boolean forwarded) {
+        return switch (part) {
+            case DAILY -> daily(userId, forwarded);
+            case WEEKLY -> weekly(userId, forwarded);
+            case NOTIFICATION -> notification(userId, forwarded);
+        };
+    }
+
+    private <T> T route(UserStatePart part, String userId, boolean forwarded, Class<T> type, Function<String, T> local) {
+        HostInfo owner = access.owner(part, userId);
+        if (owner != null) {
+            if (forwarded) {
+                throw new QueryUnavailableException(part.path() + " of " + userId + " moved to " + owner);
+            }
+            return remote.fetch(owner, part, userId, type);
+        }
+
+        T view = cache.get(part, userId, type);
+        if (view != null) {
+            return view;
+        }
+        long generation = cache.generation(userId);
+        try {
+            view = local.apply(userId);
+        } catch (InvalidStateStoreException e) {
+            // stores can be migrated away between the ownership check and the read
+            throw new QueryUnavailableException(part.storeName() + " cannot be queried right now", e);
+        }
+        if (view != null) {
+            cache.put(part, userId, view, generation);
+        }
+        return view;
+    }
+
+    private DailyView localDaily(String userId) {
+        List<DailyView.Day> days = new ArrayList<>();
+        try (WindowStoreIterator<UserStepsDaily> iterator = access.dailyStore()
+                .fetch(userId, Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE))) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, UserStepsDaily> entry = iterator.next();
+                days.add(new DailyView.Day(day(entry.key), entry.value.steps(), entry.value.label()));
+            }
+        }
+        return days.isEmpty() ? null : new DailyView(userId, days);
+    }
+
+    private WeeklyView localWeekly(String userId) {
+        WeeklyLabelHistory history = access.rollingStore().get(userId);
+        if (history == null) {
+            return null;
+        }
+        List<WeeklyView.Day> days = new ArrayList<>(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            days.add(new WeeklyView.Day(day(history.windowStart(i)), history.label(i)));
+        }
+        String weeklyLabel = ConsecutiveStepsProcessor.weeklyLabel(history);
+        return new WeeklyView(userId, weeklyLabel, history.lastEmittedLabel(), days);
+    }
+
+    private NotificationView localNotification(String userId) {
+        ValueAndTimestamp<String> last = access.debounceStore().get(userId);
+        if (last == null) {
+            return null;
+        }
+        return new NotificationView(userId, last.value(), Instant.ofEpochMilli(last.timestamp()));
+    }
+
+    /**
+     * Window starts are day starts on the bucketing timeline (UTC, or local wall clock written as if it were UTC), so
+     * the day number is the calendar date either way.
+     */
+    private static LocalDate day(long windowStart) {
+        return LocalDate.ofEpochDay(Math.floorDiv(windowStart, DAY));
+    }
+}
@@ -0,0 +1,104 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP endpoint of the interactive queries, one virtual thread per request.
+ * <ul>
+ *     <li>{@code GET /users/{userId}}: {@link UserView}, each part from wherever it lives</li>
+ *     <li>{@code GET /users/{userId}/daily|weekly|notification}: a single part</li>
+ * </ul>
+ * Answers 404 when there is nothing for the user and 503 when the state cannot be reached right now.
+ */
+public class UserStateServer implements AutoCloseable {
+    private static Logger logger = LoggerFactory.getLogger(UserStateServer.class);
+    public static final String CONTEXT = "/users/";
+
+    private final HttpServer server;
+    private final UserStateQuery query;
+
+    public UserStateServer(UserStateQuery query, InetSocketAddress address) throws IOException {
+        this.query = query;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(CONTEXT, this::handle);
+        server.start();
+        logger.info("Serving user state queries on {}", server.getAddress());
+    }
+
+    public static String path(String userId, UserStatePart part) {
+        return CONTEXT + URLEncoder.encode(userId, StandardCharsets.UTF_8) + "/" + part.path();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, null);
+                return;
+            }
+            String[] segments = exchange.getRequestURI().getRawPath().substring(CONTEXT.length()).split("/");
+            String userId = URLDecoder.decode(segments[0], StandardCharsets.UTF_8);
+            if (userId.isEmpty() || segments.length > 2) {
+                respond(exchange, 404, null);
+                return;
+            }
+
+            Object view;
+            try {
+                if (segments.length == 1) {
+                    view = query.user(userId);
+                } else {
+                    boolean forwarded = exchange.getRequestHeaders().containsKey(RemoteUserStateClient.FORWARDED_HEADER);
+                    view = query.part(UserStatePart.parse(segments[1]), userId, forwarded);
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 404, null); // unknown part
+                return;
+            } catch (QueryUnavailableException e) {
+                logger.debug("Query for {} unavailable: {}", userId, e.getMessage());
+                respond(exchange, 503, null);
+                return;
+            }
+            respond(exchange, view == null ? 404 : 200, view);
+        } catch (RuntimeException e) {
+            logger.warn("Query {} failed", exchange.getRequestURI(), e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void respond(HttpExchange exchange, int status, Object view) throws IOException {
+        if (view == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = ((Serializer<Object>) JSONSerdeUtil.getSerde(view.getClass()).serializer()).serialize(null, view);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ronaldsuwandi.query;
+
+/**
+ * All queryable parts of a user's state, a part is null when its store holds nothing for the user.
+ */
+public record UserView(
+        String userId,
+        DailyView daily,
+        WeeklyView weekly,
+        NotificationView notification
+) {
+}
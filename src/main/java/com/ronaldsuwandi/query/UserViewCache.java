@@ -0,0 +1,113 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.processor.UserStateListener;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU of views read from this instance's stores, keyed by part and user.
+ * <p>
+ * Processors call {@link #updated} right after writing a user's state, which drops every view of the user, so a cached
+ * view is never older than the last write. A reader racing with such a write could still put back what it read just
+ * before it; reads take the user's {@link #generation} first and {@link #put} refuses the view when it moved
+ * meanwhile. Generations are striped by user, so an update to another user of the same stripe occasionally refuses a
+ * put as well, which only costs a miss.
+ * <p>
+ * Only the parts given to the constructor are cached, a part whose store is written without a processor seeing the
+ * write right away is always read from the store.
+ */
+public class UserViewCache implements UserStateListener {
+    private static final int STRIPES = 1024;
+
+    private final Set<UserStatePart> parts;
+    private final Map<Key, Object> views;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Key(UserStatePart part, String userId) {
+    }
+
+    public UserViewCache(int maxEntries) {
+        this(maxEntries, EnumSet.allOf(UserStatePart.class));
+    }
+
+    public UserViewCache(int maxEntries, Set<UserStatePart> parts) {
+        this.parts = EnumSet.copyOf(parts);
+        this.views = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public <T> T get(UserStatePart part, String userId, Class<T> type) {
+        if (!parts.contains(part)) {
+            return null;
+        }
+        Object view;
+        synchronized (views) {
+            view = views.get(new Key(part, userId));
+        }
+        if (view == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return type.cast(view);
+    }
+
+    /**
+     * @return the value to hand back to {@link #put} for a view read after this call
+     */
+    public long generation(String userId) {
+        return generations.get(stripe(userId));
+    }
+
+    public void put(UserStatePart part, String userId, Object view, long generation) {
+        if (!parts.contains(part)) {
+            return;
+        }
+        synchronized (views) {
+            // checked under the lock, an update either happened before (refused) or removes this view after
+            if (generations.get(stripe(userId)) == generation) {
+                views.put(new Key(part, userId), view);
+            }
+        }
+    }
+
+    @Override
+    public void updated(String userId) {
+        generations.incrementAndGet(stripe(userId));
+        synchronized (views) {
+            for (UserStatePart part : UserStatePart.values()) {
+                views.remove(new Key(part, userId));
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (views) {
+            return views.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private static int stripe(String userId) {
+        int h = userId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ronaldsuwandi.query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rolling 7-day label history of a user with the weekly label it currently yields.
+ */
+public record WeeklyView(
+        String userId,
+        String weeklyLabel,
+        String lastEmittedLabel,
+        List<Day> days
+) {
+    public record Day(
+            LocalDate date,
+            String label
+    ) {
+    }
+}
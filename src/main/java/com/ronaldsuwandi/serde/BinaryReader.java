@@ -0,0 +1,59 @@
+package com.ronaldsuwandi.serde;
+
+import org.apache.kafka.common.utils.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Counterpart of {@link BinaryWriter}.
+ */
+class BinaryReader {
+    private final ByteBuffer buffer;
+
+    BinaryReader(byte[] bytes) {
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    int readByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    int readUnsignedVarint() {
+        return ByteUtils.readUnsignedVarint(buffer);
+    }
+
+    int readVarint() {
+        return ByteUtils.readVarint(buffer);
+    }
+
+    long readVarlong() {
+        return ByteUtils.readVarlong(buffer);
+    }
+
+    double readDouble() {
+        return buffer.getDouble();
+    }
+
+    String readString() {
+        int length = readUnsignedVarint();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    void skipString() {
+        skip(readUnsignedVarint());
+    }
+
+    void skip(int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    Instant readInstant() {
+        long millis = readVarlong();
+        int nanos = readUnsignedVarint();
+        return Instant.ofEpochMilli(millis).plusNanos(nanos);
+    }
+}
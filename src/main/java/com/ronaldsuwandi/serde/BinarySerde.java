@@ -0,0 +1,82 @@
+package com.ronaldsuwandi.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Base for the compact binary serdes used on internal topics. Every value starts with a schema version byte so the
+ * layout can evolve; subclasses read every version they have ever written.
+ */
+public abstract class BinarySerde<T> implements Serde<T>, Serializer<T>, Deserializer<T> {
+    private final int currentVersion;
+
+    protected BinarySerde(int currentVersion) {
+        this.currentVersion = currentVersion;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) return null;
+        try {
+            BinaryWriter writer = new BinaryWriter(sizeHint(data));
+            writer.writeByte(currentVersion);
+            write(writer, data);
+            return writer.toByteArray();
+        } catch (Exception e) {
+            throw new SerializationException("Error serializing " + data.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] bytes) {
+        if (bytes == null) return null;
+        try {
+            BinaryReader reader = new BinaryReader(bytes);
+            return read(reader, reader.readByte());
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Error deserializing binary value", e);
+        }
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // nothing to configure
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return this;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return this;
+    }
+
+    /**
+     * Initial buffer size, including the version byte. A value written into exactly this many bytes is returned without
+     * a copy.
+     */
+    protected int sizeHint(T data) {
+        return 64;
+    }
+
+    protected abstract void write(BinaryWriter writer, T data);
+
+    protected abstract T read(BinaryReader reader, int version);
+
+    protected static SerializationException unsupportedVersion(int version) {
+        return new SerializationException("Unsupported schema version " + version);
+    }
+}
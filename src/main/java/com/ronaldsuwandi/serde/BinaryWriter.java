@@ -0,0 +1,86 @@
+package com.ronaldsuwandi.serde;
+
+import org.apache.kafka.common.utils.ByteUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Minimal growable buffer for the binary serdes. Varints follow the protobuf/Kafka layout so values can be read back
+ * with {@link BinaryReader}.
+ */
+class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeUnsignedVarint(int value) {
+        ensureCapacity(ByteUtils.sizeOfUnsignedVarint(value));
+        while ((value & 0xFFFFFF80) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarint(int value) {
+        writeUnsignedVarint((value << 1) ^ (value >> 31));
+    }
+
+    void writeVarlong(long value) {
+        ensureCapacity(10);
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & 0xFFFFFFFFFFFFFF80L) != 0L) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    /**
+     * Length prefixed UTF-8. Callers track nullability in their presence bits.
+     */
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Epoch millis followed by the remaining nanos of the millisecond, so the instant survives a round trip exactly
+     * while the common millisecond precision case costs a single extra byte.
+     */
+    void writeInstant(Instant value) {
+        writeVarlong(value.toEpochMilli());
+        writeUnsignedVarint(value.getNano() % 1_000_000);
+    }
+
+    byte[] toByteArray() {
+        return position == buffer.length ? buffer : Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
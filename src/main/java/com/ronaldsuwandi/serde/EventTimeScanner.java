@@ -0,0 +1,143 @@
+package com.ronaldsuwandi.serde;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Finds the {@code timestamp} of a serialized {@link com.ronaldsuwandi.model.UserActivityNormalized} without building
+ * the object. JSON is walked at the top level only, skipping over other values, so the field name appearing inside a
+ * string or nested value is not mistaken for it.
+ */
+public class EventTimeScanner {
+    private static final byte[] TIMESTAMP_FIELD = "timestamp".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * @return epoch millis or -1 if there is no timestamp or the value is malformed
+     */
+    public static long scan(byte[] value, WireFormat format) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return switch (format) {
+                case JSON -> scanJson(value);
+                case BINARY -> UserActivityNormalizedBinarySerde.scanTimestamp(value);
+            };
+        } catch (RuntimeException e) {
+            // left to the deserializer to report
+            return -1;
+        }
+    }
+
+    static long scanJson(byte[] json) {
+        int i = skipWhitespace(json, 0);
+        if (json[i] != '{') {
+            return -1;
+        }
+        i++;
+        while (true) {
+            i = skipWhitespace(json, i);
+            if (json[i] == ',') {
+                i = skipWhitespace(json, i + 1);
+            }
+            if (json[i] != '"') {
+                return -1;
+            }
+            int nameEnd = skipString(json, i);
+            boolean timestamp = equals(json, i + 1, nameEnd - 1, TIMESTAMP_FIELD);
+            i = skipWhitespace(json, nameEnd);
+            if (json[i] != ':') {
+                return -1;
+            }
+            i = skipWhitespace(json, i + 1);
+            if (timestamp) {
+                return parseTimestamp(json, i);
+            }
+            i = skipValue(json, i);
+        }
+    }
+
+    private static long parseTimestamp(byte[] json, int start) {
+        if (json[start] == '"') {
+            int end = skipString(json, start);
+            return Instant.parse(new String(json, start + 1, end - start - 2, StandardCharsets.US_ASCII)).toEpochMilli();
+        }
+        int end = skipValue(json, start);
+        String number = new String(json, start, end - start, StandardCharsets.US_ASCII);
+        if (number.equals("null")) {
+            return -1;
+        }
+        // numeric instants are seconds with an optional fraction, as Jackson reads them
+        return new BigDecimal(number).movePointRight(3).longValue();
+    }
+
+    /**
+     * @return index after the value starting at {@code start}
+     */
+    private static int skipValue(byte[] json, int start) {
+        byte first = json[start];
+        if (first == '"') {
+            return skipString(json, start);
+        }
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            int i = start;
+            while (true) {
+                byte c = json[i];
+                if (c == '"') {
+                    i = skipString(json, i);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+        }
+        int i = start;
+        while (i < json.length && json[i] != ',' && json[i] != '}' && json[i] != ']' && !isWhitespace(json[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index after the closing quote of the string starting at {@code start}
+     */
+    private static int skipString(byte[] json, int start) {
+        int i = start + 1;
+        while (json[i] != '"') {
+            i += json[i] == '\\' ? 2 : 1;
+        }
+        return i + 1;
+    }
+
+    private static int skipWhitespace(byte[] json, int start) {
+        int i = start;
+        while (isWhitespace(json[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean equals(byte[] json, int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (json[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.serde;
+
+import java.util.Locale;
+
+/**
+ * How the iOS and Android ingress topics are read into {@link com.ronaldsuwandi.model.UserActivityNormalized}.
+ */
+public enum IngressParser {
+    /**
+     * Bind the full platform record with Jackson databind, then normalize it
+     */
+    BINDING,
+    /**
+     * Stream over the raw JSON and only pick up the normalized fields ({@link IngressProjection})
+     */
+    PROJECTION;
+
+    public static IngressParser parse(String value) {
+        return IngressParser.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
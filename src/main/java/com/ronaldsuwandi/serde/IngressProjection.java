@@ -0,0 +1,246 @@
+package com.ronaldsuwandi.serde;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads iOS and Android ingress JSON straight into {@link UserActivityNormalized} with a streaming parser. Only the
+ * normalized fields are read; every other field, nested objects included, is skipped without being built. Values
+ * are coerced the way databind binds them into {@link com.ronaldsuwandi.model.UserActivityIos} and
+ * {@link com.ronaldsuwandi.model.UserActivityAndroid}, except that unknown fields are ignored.
+ */
+public class IngressProjection {
+    private static final JsonFactory factory = new JsonFactory();
+
+    public static Deserializer<UserActivityNormalized> iosDeserializer() {
+        return deserializer(IngressProjection::ios);
+    }
+
+    public static Deserializer<UserActivityNormalized> androidDeserializer() {
+        return deserializer(IngressProjection::android);
+    }
+
+    private interface Projection {
+        UserActivityNormalized project(JsonParser parser) throws IOException;
+    }
+
+    private static Deserializer<UserActivityNormalized> deserializer(Projection projection) {
+        return (String topic, byte[] bytes) -> {
+            if (bytes == null) return null;
+            try (JsonParser parser = factory.createParser(bytes)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected an object, got " + parser.currentToken());
+                }
+                return projection.project(parser);
+            } catch (Exception e) {
+                throw new RuntimeException("Error deserializing object", e);
+            }
+        };
+    }
+
+    static UserActivityNormalized ios(JsonParser parser) throws IOException {
+        Fields fields = new Fields();
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (name) {
+                case "UserId" -> fields.userId = parser.getValueAsString();
+                case "UserFirstName" -> fields.firstName = parser.getValueAsString();
+                case "UserLastName" -> fields.lastName = parser.getValueAsString();
+                case "PhysicalActivity" -> fields.steps = walkingSteps(parser);
+                case "Geo_lat" -> fields.latitude = nullableDouble(parser);
+                case "Geo_lon" -> fields.longitude = nullableDouble(parser);
+                case "pincode" -> fields.pincode = parser.getValueAsString();
+                case "event_timestamp" -> fields.timestamp = instant(parser);
+                case "timezone" -> fields.zone = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return fields.toNormalized();
+    }
+
+    static UserActivityNormalized android(JsonParser parser) throws IOException {
+        Fields fields = new Fields();
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "Person" -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while ((name = parser.nextFieldName()) != null) {
+                        parser.nextToken();
+                        switch (name) {
+                            case "Id" -> fields.userId = parser.getValueAsString();
+                            case "FirstName" -> fields.firstName = parser.getValueAsString();
+                            case "LastName" -> fields.lastName = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                case "Activity" -> fields.steps = walkingSteps(parser);
+                case "Location" -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while ((name = parser.nextFieldName()) != null) {
+                        parser.nextToken();
+                        switch (name) {
+                            case "lat" -> fields.latitude = nullableDouble(parser);
+                            case "lon" -> fields.longitude = nullableDouble(parser);
+                            case "pincode" -> fields.pincode = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                case "ts" -> fields.timestamp = instant(parser);
+                case "timezone" -> fields.zone = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return fields.toNormalized();
+    }
+
+    private static int walkingSteps(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return 0;
+        }
+        int steps = 0;
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if (name.equals("walking_steps")) {
+                steps = parser.getValueAsInt();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return steps;
+    }
+
+    private static Double nullableDouble(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble();
+    }
+
+    private static Instant instant(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> {
+                Instant instant = utcInstant(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (instant != null) {
+                    yield instant;
+                }
+                String text = parser.getText();
+                try {
+                    yield Instant.parse(text);
+                } catch (DateTimeParseException e) {
+                    yield OffsetDateTime.parse(text).toInstant();
+                }
+            }
+            // numeric instants are epoch seconds with an optional fraction, as databind reads them
+            case VALUE_NUMBER_INT -> Instant.ofEpochSecond(parser.getLongValue());
+            case VALUE_NUMBER_FLOAT -> {
+                BigDecimal value = parser.getDecimalValue();
+                long seconds = value.longValue();
+                yield Instant.ofEpochSecond(seconds, value.subtract(BigDecimal.valueOf(seconds)).movePointRight(9).longValue());
+            }
+            case VALUE_NULL -> null;
+            default -> throw new IOException("Expected a timestamp, got " + parser.currentToken());
+        };
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ss[.fraction]Z}, the form producers send, without going through a
+     * {@link java.time.format.DateTimeFormatter}, which allocates well over a kilobyte per call.
+     *
+     * @return null if the text is in any other form
+     */
+    static Instant utcInstant(char[] text, int offset, int length) {
+        if (length < 20 || length > 30 || text[offset + length - 1] != 'Z'
+                || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':' || text[offset + 16] != ':') {
+            return null;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int nanos = 0;
+        int fraction = offset + 19;
+        int end = offset + length - 1;
+        if (fraction < end) {
+            int fractionDigits = end - fraction - 1;
+            if (text[fraction] != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                return null;
+            }
+            nanos = digits(text, fraction + 1, fractionDigits);
+            if (nanos < 0) {
+                return null;
+            }
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        try {
+            long epochDay = LocalDate.of(year, month, day).toEpochDay();
+            return Instant.ofEpochSecond(epochDay * 86_400 + hour * 3_600L + minute * 60L + second, nanos);
+        } catch (DateTimeException e) {
+            // eg. February 30th, left to the full parser to reject
+            return null;
+        }
+    }
+
+    /**
+     * @return the value of {@code count} decimal digits or -1 if any is not a digit
+     */
+    private static int digits(char[] text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static final class Fields {
+        String userId;
+        String firstName;
+        String lastName;
+        int steps;
+        Double latitude;
+        Double longitude;
+        String pincode;
+        Instant timestamp;
+        String zone;
+
+        UserActivityNormalized toNormalized() {
+            return new UserActivityNormalized(userId, firstName, lastName, steps, latitude, longitude, pincode, timestamp,
+                    zone);
+        }
+    }
+}
@@ -2,29 +2,47 @@ package com.ronaldsuwandi.serde;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.serialization.Serializer;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class JSONSerdeUtil {
     private static final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private static final Map<Class<?>, Serde<?>> serdes = new ConcurrentHashMap<>();
 
     static {
         // to enable JDK 8 date support
         objectMapper.registerModule(new JavaTimeModule());
+        // generate accessors with LambdaMetafactory instead of going through reflection
+        objectMapper.registerModule(new BlackbirdModule());
         // ensure date is serialized using iso format
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
+    @SuppressWarnings("unchecked")
     public static <T> Serde<T> getSerde(Class<T> recordClass) {
+        // serdes are stateless, share one per class so readers/writers are only resolved once
+        return (Serde<T>) serdes.computeIfAbsent(recordClass, JSONSerdeUtil::createSerde);
+    }
+
+    private static <T> Serde<T> createSerde(Class<T> recordClass) {
+        // pre-built reader/writer skip the per-call type lookup and read/write bytes directly without a String copy
+        ObjectWriter writer = objectMapper.writerFor(recordClass);
+        ObjectReader reader = objectMapper.readerFor(recordClass);
+
         Serializer<T> serializer = (String topic, T data) -> {
             try {
-                String jsonString = objectMapper.writeValueAsString(data);
-                return jsonString.getBytes();
+                return writer.writeValueAsBytes(data);
             } catch (JsonProcessingException e) {
                 throw new RuntimeException(e);
             }
@@ -33,8 +51,7 @@ public class JSONSerdeUtil {
         Deserializer<T> deserializer = (String topic, byte[] bytes) -> {
             try {
                 if (bytes == null) return null;
-                String jsonString = new String(bytes);  // Decode bytes to string
-                return objectMapper.readValue(jsonString, recordClass);  // Parse JSON string
+                return reader.readValue(bytes);
             } catch (Exception e) {
                 throw new RuntimeException("Error deserializing object", e);
             }
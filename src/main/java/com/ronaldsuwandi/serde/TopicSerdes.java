@@ -0,0 +1,40 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.serialization.Serde;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the value serde of a topic from its configured {@link WireFormat}. Producers and consumers of the same
+ * topic must go through here so both sides agree on the encoding.
+ */
+public class TopicSerdes {
+    private static final Map<Class<?>, Supplier<Serde<?>>> BINARY_SERDES = Map.of(
+            UserActivityNormalized.class, UserActivityNormalizedBinarySerde::new,
+            UserNotification.class, UserNotificationBinarySerde::new
+    );
+
+    private final AppConfig config;
+
+    public TopicSerdes(AppConfig config) {
+        this.config = config;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Serde<T> serde(String topic, Class<T> recordClass) {
+        WireFormat format = config.wireFormat(topic);
+        if (format == WireFormat.JSON) {
+            return JSONSerdeUtil.getSerde(recordClass);
+        }
+        Supplier<Serde<?>> binary = BINARY_SERDES.get(recordClass);
+        if (binary == null) {
+            throw new IllegalArgumentException("No " + format + " encoding for " + recordClass.getSimpleName()
+                    + " on topic " + topic);
+        }
+        return (Serde<T>) binary.get();
+    }
+}
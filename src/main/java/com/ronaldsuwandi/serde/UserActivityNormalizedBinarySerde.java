@@ -0,0 +1,94 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+
+/**
+ * Version 1 layout:
+ * <pre>
+ * [version:1][presence:1][userId][firstName][lastName][steps:varint][latitude:8][longitude:8][pincode][timestamp][zone]
+ * </pre>
+ * Nullable fields are only written when their presence bit is set. The zone came later; it is the last field and has
+ * the last presence bit, so values without one are unchanged.
+ */
+public class UserActivityNormalizedBinarySerde extends BinarySerde<UserActivityNormalized> {
+    static final int VERSION_1 = 1;
+
+    private static final int USER_ID = 1;
+    private static final int FIRST_NAME = 1 << 1;
+    private static final int LAST_NAME = 1 << 2;
+    private static final int LATITUDE = 1 << 3;
+    private static final int LONGITUDE = 1 << 4;
+    private static final int PINCODE = 1 << 5;
+    private static final int TIMESTAMP = 1 << 6;
+    private static final int ZONE = 1 << 7;
+
+    public UserActivityNormalizedBinarySerde() {
+        super(VERSION_1);
+    }
+
+    @Override
+    protected void write(BinaryWriter writer, UserActivityNormalized data) {
+        int presence = (data.userId() != null ? USER_ID : 0)
+                | (data.firstName() != null ? FIRST_NAME : 0)
+                | (data.lastName() != null ? LAST_NAME : 0)
+                | (data.latitude() != null ? LATITUDE : 0)
+                | (data.longitude() != null ? LONGITUDE : 0)
+                | (data.pincode() != null ? PINCODE : 0)
+                | (data.timestamp() != null ? TIMESTAMP : 0)
+                | (data.zone() != null ? ZONE : 0);
+        writer.writeByte(presence);
+
+        if (data.userId() != null) writer.writeString(data.userId());
+        if (data.firstName() != null) writer.writeString(data.firstName());
+        if (data.lastName() != null) writer.writeString(data.lastName());
+        writer.writeVarint(data.steps());
+        if (data.latitude() != null) writer.writeDouble(data.latitude());
+        if (data.longitude() != null) writer.writeDouble(data.longitude());
+        if (data.pincode() != null) writer.writeString(data.pincode());
+        if (data.timestamp() != null) writer.writeInstant(data.timestamp());
+        if (data.zone() != null) writer.writeString(data.zone());
+    }
+
+    @Override
+    protected UserActivityNormalized read(BinaryReader reader, int version) {
+        if (version != VERSION_1) {
+            throw unsupportedVersion(version);
+        }
+        int presence = reader.readByte();
+        return new UserActivityNormalized(
+                (presence & USER_ID) != 0 ? reader.readString() : null,
+                (presence & FIRST_NAME) != 0 ? reader.readString() : null,
+                (presence & LAST_NAME) != 0 ? reader.readString() : null,
+                reader.readVarint(),
+                (presence & LATITUDE) != 0 ? reader.readDouble() : null,
+                (presence & LONGITUDE) != 0 ? reader.readDouble() : null,
+                (presence & PINCODE) != 0 ? reader.readString() : null,
+                (presence & TIMESTAMP) != 0 ? reader.readInstant() : null,
+                (presence & ZONE) != 0 ? reader.readString() : null
+        );
+    }
+
+    /**
+     * Reads only the timestamp of a serialized value, skipping over the other fields.
+     *
+     * @return epoch millis or -1 if there is no timestamp or the version is unknown
+     */
+    static long scanTimestamp(byte[] bytes) {
+        BinaryReader reader = new BinaryReader(bytes);
+        if (reader.readByte() != VERSION_1) {
+            return -1;
+        }
+        int presence = reader.readByte();
+        if ((presence & TIMESTAMP) == 0) {
+            return -1;
+        }
+        if ((presence & USER_ID) != 0) reader.skipString();
+        if ((presence & FIRST_NAME) != 0) reader.skipString();
+        if ((presence & LAST_NAME) != 0) reader.skipString();
+        reader.readVarint();
+        if ((presence & LATITUDE) != 0) reader.skip(Double.BYTES);
+        if ((presence & LONGITUDE) != 0) reader.skip(Double.BYTES);
+        if ((presence & PINCODE) != 0) reader.skipString();
+        return reader.readVarlong();
+    }
+}
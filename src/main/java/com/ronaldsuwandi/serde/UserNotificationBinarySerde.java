@@ -0,0 +1,50 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.model.UserNotification;
+
+/**
+ * Version 1 layout:
+ * <pre>
+ * [version:1][presence:1][userId][notificationId][payload][timestamp]
+ * </pre>
+ */
+public class UserNotificationBinarySerde extends BinarySerde<UserNotification> {
+    static final int VERSION_1 = 1;
+
+    private static final int USER_ID = 1;
+    private static final int NOTIFICATION_ID = 1 << 1;
+    private static final int PAYLOAD = 1 << 2;
+    private static final int TIMESTAMP = 1 << 3;
+
+    public UserNotificationBinarySerde() {
+        super(VERSION_1);
+    }
+
+    @Override
+    protected void write(BinaryWriter writer, UserNotification data) {
+        int presence = (data.userId() != null ? USER_ID : 0)
+                | (data.notificationId() != null ? NOTIFICATION_ID : 0)
+                | (data.payload() != null ? PAYLOAD : 0)
+                | (data.timestamp() != null ? TIMESTAMP : 0);
+        writer.writeByte(presence);
+
+        if (data.userId() != null) writer.writeString(data.userId());
+        if (data.notificationId() != null) writer.writeString(data.notificationId());
+        if (data.payload() != null) writer.writeString(data.payload());
+        if (data.timestamp() != null) writer.writeInstant(data.timestamp());
+    }
+
+    @Override
+    protected UserNotification read(BinaryReader reader, int version) {
+        if (version != VERSION_1) {
+            throw unsupportedVersion(version);
+        }
+        int presence = reader.readByte();
+        return new UserNotification(
+                (presence & USER_ID) != 0 ? reader.readString() : null,
+                (presence & NOTIFICATION_ID) != 0 ? reader.readString() : null,
+                (presence & PAYLOAD) != 0 ? reader.readString() : null,
+                (presence & TIMESTAMP) != 0 ? reader.readInstant() : null
+        );
+    }
+}
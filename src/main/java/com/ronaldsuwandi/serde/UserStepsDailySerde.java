@@ -0,0 +1,65 @@
+package com.ronaldsuwandi.serde;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.utils.ByteUtils;
+
+/**
+ * Serde for the values of the daily window store.
+ * <p>
+ * Version 1 layout:
+ * <pre>
+ * [version:1][steps:uvarint]
+ * </pre>
+ * A day of up to 16383 steps takes 3 bytes. Values written as JSON (userId, steps, timestamp and label) are still
+ * readable, so the store migrates in place as windows get updated.
+ */
+public class UserStepsDailySerde extends BinarySerde<UserStepsDaily> {
+    static final int VERSION_1 = 1;
+    private static final byte JSON_START = '{';
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public UserStepsDailySerde() {
+        super(VERSION_1);
+    }
+
+    @Override
+    public UserStepsDaily deserialize(String topic, byte[] bytes) {
+        if (bytes != null && bytes.length > 0 && bytes[0] == JSON_START) {
+            // legacy JSON value
+            try {
+                JsonNode steps = mapper.readTree(bytes).get("steps");
+                if (steps == null || !steps.canConvertToInt()) {
+                    throw new SerializationException("Legacy daily value without steps");
+                }
+                return new UserStepsDaily(steps.intValue());
+            } catch (SerializationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SerializationException("Error deserializing legacy daily value", e);
+            }
+        }
+        return super.deserialize(topic, bytes);
+    }
+
+    @Override
+    protected int sizeHint(UserStepsDaily data) {
+        return 1 + ByteUtils.sizeOfUnsignedVarint(data.steps());
+    }
+
+    @Override
+    protected void write(BinaryWriter writer, UserStepsDaily data) {
+        writer.writeUnsignedVarint(data.steps());
+    }
+
+    @Override
+    protected UserStepsDaily read(BinaryReader reader, int version) {
+        if (version != VERSION_1) {
+            throw unsupportedVersion(version);
+        }
+        return new UserStepsDaily(reader.readUnsignedVarint());
+    }
+}
@@ -0,0 +1,150 @@
+package com.ronaldsuwandi.serde;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serde for the 7-day rolling label history.
+ * <p>
+ * Values are written in a compact versioned binary layout:
+ * <pre>
+ * [version:1][flags:1][count:uvarint][base:varlong][delta:varlong * (count - 1)][labels:2 bits * count][lastEmitted:1]
+ * </pre>
+ * When every window start is aligned to a day, keys are stored as epoch days (flag {@link #FLAG_DAY_ALIGNED}) so
+ * each delta is a single byte. Labels are packed 4 per byte using the {@link WeeklyLabelHistory} label codes. Values
+ * written by the previous JSON based serde (a window start to label map) are still readable, so the store migrates
+ * in place as entries get rewritten. Running counters are not stored, they are rebuilt while decoding.
+ * <p>
+ * Version 2 appends the code of the last emitted weekly label; version 1 values decode as never emitted.
+ */
+public class WeeklyLabelHistorySerde implements Serde<WeeklyLabelHistory> {
+    static final byte VERSION_1 = 0x01;
+    static final byte VERSION_2 = 0x02;
+    static final byte FLAG_DAY_ALIGNED = 0x01;
+    private static final byte JSON_START = '{';
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private static final TypeReference<TreeMap<Long, String>> TYPE_REF = new TypeReference<>() {};
+
+    @Override
+    public Serializer<WeeklyLabelHistory> serializer() {
+        return (topic, data) -> {
+            if (data == null) return null;
+            try {
+                return encode(data);
+            } catch (Exception e) {
+                throw new RuntimeException("Error serializing WeeklyLabelHistory", e);
+            }
+        };
+    }
+
+    @Override
+    public Deserializer<WeeklyLabelHistory> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) return null;
+            try {
+                if (bytes.length > 0 && bytes[0] == JSON_START) {
+                    // legacy JSON value
+                    WeeklyLabelHistory history = new WeeklyLabelHistory();
+                    for (Map.Entry<Long, String> entry : mapper.readValue(bytes, TYPE_REF).entrySet()) {
+                        history.put(entry.getKey(), entry.getValue());
+                    }
+                    return history;
+                }
+                return decode(bytes);
+            } catch (Exception e) {
+                throw new RuntimeException("Error deserializing WeeklyLabelHistory", e);
+            }
+        };
+    }
+
+    private static byte[] encode(WeeklyLabelHistory data) {
+        int count = data.size();
+        boolean dayAligned = true;
+        for (int i = 0; i < count; i++) {
+            if (data.windowStart(i) % DAY != 0) {
+                dayAligned = false;
+                break;
+            }
+        }
+        long unit = dayAligned ? DAY : 1;
+
+        // size everything up front so the value is written into a single exact-sized array
+        int size = 3 + ByteUtils.sizeOfUnsignedVarint(count) + (count + 3) / 4;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long scaled = data.windowStart(i) / unit;
+            size += ByteUtils.sizeOfVarlong(scaled - previous);
+            previous = scaled;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_2);
+        buffer.put(dayAligned ? FLAG_DAY_ALIGNED : 0);
+        ByteUtils.writeUnsignedVarint(count, buffer);
+
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            long scaled = data.windowStart(i) / unit;
+            ByteUtils.writeVarlong(scaled - previous, buffer);
+            previous = scaled;
+        }
+
+        int packed = 0;
+        for (int i = 0; i < count; i++) {
+            packed |= data.labelCode(i) << ((i % 4) * 2);
+            if (i % 4 == 3) {
+                buffer.put((byte) packed);
+                packed = 0;
+            }
+        }
+        if (count % 4 != 0) {
+            buffer.put((byte) packed);
+        }
+        buffer.put(data.lastEmittedCode());
+        return buffer.array();
+    }
+
+    private static WeeklyLabelHistory decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION_1 && version != VERSION_2) {
+            throw new SerializationException("Unsupported label history version " + version);
+        }
+        byte flags = buffer.get();
+        long unit = (flags & FLAG_DAY_ALIGNED) != 0 ? DAY : 1;
+        int count = ByteUtils.readUnsignedVarint(buffer);
+
+        long[] keys = new long[count];
+        long scaled = 0;
+        for (int i = 0; i < count; i++) {
+            scaled += ByteUtils.readVarlong(buffer);
+            keys[i] = scaled * unit;
+        }
+
+        WeeklyLabelHistory history = new WeeklyLabelHistory();
+        int packed = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % 4 == 0) {
+                packed = buffer.get();
+            }
+            history.put(keys[i], (byte) ((packed >> ((i % 4) * 2)) & 0x03));
+        }
+        if (version >= VERSION_2) {
+            history.setLastEmittedCode(buffer.get());
+        }
+        return history;
+    }
+}
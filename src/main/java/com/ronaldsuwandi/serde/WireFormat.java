@@ -0,0 +1,16 @@
+package com.ronaldsuwandi.serde;
+
+import java.util.Locale;
+
+/**
+ * Encoding used for a topic. Internal topics can opt into {@link #BINARY}; external ingress always stays
+ * {@link #JSON}.
+ */
+public enum WireFormat {
+    JSON,
+    BINARY;
+
+    public static WireFormat parse(String value) {
+        return WireFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
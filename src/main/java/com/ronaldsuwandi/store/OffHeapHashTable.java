@@ -0,0 +1,233 @@
+package com.ronaldsuwandi.store;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash table (linear probing) over a direct {@link ByteBuffer}, holding byte[] keys and values in
+ * fixed size slots so entries cost no heap objects. Slot layout:
+ * <pre>
+ * [state:1][keyLength:1][valueLength:1][unused:1][hash:4][key:maxKeyLength][value:maxValueLength]
+ * </pre>
+ * Entries larger than the slot are rejected by {@link #put} and left to the caller. Not thread safe.
+ */
+class OffHeapHashTable {
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final byte DELETED = 2;
+    private static final int HEADER = 8;
+    private static final double MAX_LOAD = 0.7;
+
+    private final int maxKeyLength;
+    private final int maxValueLength;
+    private final int slotSize;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int deleted;
+
+    OffHeapHashTable(int initialCapacity, int maxKeyLength, int maxValueLength) {
+        if (maxKeyLength > 255 || maxValueLength > 255) {
+            throw new IllegalArgumentException("Key and value slots are limited to 255 bytes");
+        }
+        this.maxKeyLength = maxKeyLength;
+        this.maxValueLength = maxValueLength;
+        this.slotSize = HEADER + maxKeyLength + maxValueLength;
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1));
+    }
+
+    boolean fits(byte[] key, byte[] value) {
+        return key.length <= maxKeyLength && value.length <= maxValueLength;
+    }
+
+    byte[] get(byte[] key) {
+        int slot = find(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        int offset = slot * slotSize;
+        byte[] value = new byte[slots.get(offset + 2) & 0xFF];
+        slots.get(offset + HEADER + maxKeyLength, value);
+        return value;
+    }
+
+    /**
+     * @return false when the entry does not fit into a slot, the table is left untouched
+     */
+    boolean put(byte[] key, byte[] value) {
+        if (!fits(key, value)) {
+            return false;
+        }
+        int hash = hash(key);
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            writeValue(slot * slotSize, value);
+            return true;
+        }
+
+        if (size + deleted + 1 > capacity * MAX_LOAD) {
+            // grow when mostly live entries, otherwise just clean up the deleted markers
+            allocateAndRehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+        }
+        insert(key, value, hash);
+        return true;
+    }
+
+    boolean remove(byte[] key) {
+        int slot = find(key, hash(key));
+        if (slot < 0) {
+            return false;
+        }
+        slots.put(slot * slotSize, DELETED);
+        size--;
+        deleted++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return (long) capacity * slotSize;
+    }
+
+    void forEach(BiConsumer<byte[], byte[]> consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slot * slotSize;
+            if (slots.get(offset) == USED) {
+                byte[] key = new byte[slots.get(offset + 1) & 0xFF];
+                byte[] value = new byte[slots.get(offset + 2) & 0xFF];
+                slots.get(offset + HEADER, key);
+                slots.get(offset + HEADER + maxKeyLength, value);
+                consumer.accept(key, value);
+            }
+        }
+    }
+
+    /**
+     * Hands the keys of used slots to {@code consumer} in slot order, starting at {@code fromSlot} and stopping after
+     * {@code limit} keys
+     *
+     * @return the slot to continue from, -1 once the end of the table is reached
+     */
+    int forEachKey(int fromSlot, int limit, Consumer<byte[]> consumer) {
+        int found = 0;
+        for (int slot = fromSlot; slot < capacity; slot++) {
+            if (found == limit) {
+                return slot;
+            }
+            int offset = slot * slotSize;
+            if (slots.get(offset) == USED) {
+                byte[] key = new byte[slots.get(offset + 1) & 0xFF];
+                slots.get(offset + HEADER, key);
+                consumer.accept(key);
+                found++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Drops the buffer, so its direct memory is freed once it is collected. The table is empty and unusable afterwards.
+     */
+    void release() {
+        slots = null;
+        capacity = 0;
+        size = 0;
+        deleted = 0;
+    }
+
+    private int find(byte[] key, int hash) {
+        int slot = hash & (capacity - 1);
+        for (int probes = 0; probes < capacity; probes++) {
+            int offset = slot * slotSize;
+            byte state = slots.get(offset);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && slots.getInt(offset + 4) == hash && keyEquals(offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    private void insert(byte[] key, byte[] value, int hash) {
+        int slot = hash & (capacity - 1);
+        while (true) {
+            int offset = slot * slotSize;
+            byte state = slots.get(offset);
+            if (state != USED) {
+                if (state == DELETED) {
+                    deleted--;
+                }
+                slots.put(offset, USED);
+                slots.put(offset + 1, (byte) key.length);
+                slots.putInt(offset + 4, hash);
+                slots.put(offset + HEADER, key);
+                writeValue(offset, value);
+                size++;
+                return;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private void writeValue(int offset, byte[] value) {
+        slots.put(offset + 2, (byte) value.length);
+        slots.put(offset + HEADER + maxKeyLength, value);
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if ((slots.get(offset + 1) & 0xFF) != key.length) {
+            return false;
+        }
+        int keyOffset = offset + HEADER;
+        for (int i = 0; i < key.length; i++) {
+            if (slots.get(keyOffset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void allocate(int newCapacity) {
+        long bytes = (long) newCapacity * slotSize;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap table cannot grow beyond " + Integer.MAX_VALUE + " bytes");
+        }
+        this.slots = ByteBuffer.allocateDirect((int) bytes);
+        this.capacity = newCapacity;
+        this.size = 0;
+        this.deleted = 0;
+    }
+
+    private void allocateAndRehash(int newCapacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int offset = slot * slotSize;
+            if (old.get(offset) == USED) {
+                byte[] key = new byte[old.get(offset + 1) & 0xFF];
+                byte[] value = new byte[old.get(offset + 2) & 0xFF];
+                old.get(offset + HEADER, key);
+                old.get(offset + HEADER + maxKeyLength, value);
+                insert(key, value, old.getInt(offset + 4));
+            }
+        }
+    }
+
+    private static int hash(byte[] key) {
+        int h = 1;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        // spread the bits so linear probing on the low bits doesn't cluster on similar user ids
+        return (h ^ (h >>> 16)) * 0x9E3779B1;
+    }
+}
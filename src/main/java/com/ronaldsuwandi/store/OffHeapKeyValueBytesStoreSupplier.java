@@ -0,0 +1,46 @@
+package com.ronaldsuwandi.store;
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Supplies {@link OffHeapKeyValueStore}s. Use it with {@link org.apache.kafka.streams.state.Stores#keyValueStoreBuilder}
+ * like any built-in supplier so the store gets the usual metering, caching and changelog layers.
+ */
+public class OffHeapKeyValueBytesStoreSupplier implements KeyValueBytesStoreSupplier {
+    public static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_KEY_LENGTH = 64;
+    public static final int DEFAULT_MAX_VALUE_LENGTH = 32;
+
+    private final String name;
+    private final int initialCapacity;
+    private final int maxKeyLength;
+    private final int maxValueLength;
+
+    public OffHeapKeyValueBytesStoreSupplier(String name) {
+        this(name, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_KEY_LENGTH, DEFAULT_MAX_VALUE_LENGTH);
+    }
+
+    public OffHeapKeyValueBytesStoreSupplier(String name, int initialCapacity, int maxKeyLength, int maxValueLength) {
+        this.name = name;
+        this.initialCapacity = initialCapacity;
+        this.maxKeyLength = maxKeyLength;
+        this.maxValueLength = maxValueLength;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public KeyValueStore<Bytes, byte[]> get() {
+        return new OffHeapKeyValueStore(name, initialCapacity, maxKeyLength, maxValueLength);
+    }
+
+    @Override
+    public String metricsScope() {
+        return "off-heap";
+    }
+}
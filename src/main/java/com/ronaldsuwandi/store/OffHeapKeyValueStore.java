@@ -0,0 +1,253 @@
+package com.ronaldsuwandi.store;
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.Query;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.util.*;
+
+/**
+ * Bytes store backed by an {@link OffHeapHashTable}. Like the in-memory store it is not persistent, the content is
+ * rebuilt from the changelog on restore, but entries live outside the Java heap so a large user base adds no GC
+ * pressure. Entries that do not fit into a table slot are kept in a small on-heap overflow map.
+ * <p>
+ * Point operations are O(1); range queries sort a snapshot of the keys, so they are meant for occasional use only.
+ * A {@link SlotScanQuery} walks the table a slice at a time instead.
+ */
+public class OffHeapKeyValueStore implements KeyValueStore<Bytes, byte[]> {
+    private final String name;
+    private final OffHeapHashTable table;
+    private final Map<Bytes, byte[]> overflow = new HashMap<>();
+    private final Position position = Position.emptyPosition();
+
+    private StateStoreContext context;
+    private volatile boolean open;
+
+    public OffHeapKeyValueStore(String name, int initialCapacity, int maxKeyLength, int maxValueLength) {
+        this.name = name;
+        this.table = new OffHeapHashTable(initialCapacity, maxKeyLength, maxValueLength);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Deprecated
+    @Override
+    public void init(ProcessorContext context, StateStore root) {
+        context.register(root, this::restore);
+        open = true;
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        this.context = context;
+        context.register(root, this::restore);
+        open = true;
+    }
+
+    private void restore(byte[] key, byte[] value) {
+        if (value == null) {
+            delete(Bytes.wrap(key));
+        } else {
+            put(Bytes.wrap(key), value);
+        }
+    }
+
+    @Override
+    public synchronized byte[] get(Bytes key) {
+        byte[] value = table.get(key.get());
+        if (value == null && !overflow.isEmpty()) {
+            value = overflow.get(key);
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(Bytes key, byte[] value) {
+        if (value == null) {
+            delete(key);
+            return;
+        }
+        if (table.put(key.get(), value)) {
+            if (!overflow.isEmpty()) {
+                overflow.remove(key);
+            }
+        } else {
+            table.remove(key.get());
+            overflow.put(key, value);
+        }
+        updatePosition();
+    }
+
+    @Override
+    public synchronized byte[] putIfAbsent(Bytes key, byte[] value) {
+        byte[] existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public synchronized void putAll(List<KeyValue<Bytes, byte[]>> entries) {
+        for (KeyValue<Bytes, byte[]> entry : entries) {
+            put(entry.key, entry.value);
+        }
+    }
+
+    @Override
+    public synchronized byte[] delete(Bytes key) {
+        byte[] existing = table.get(key.get());
+        if (existing != null) {
+            table.remove(key.get());
+        } else if (!overflow.isEmpty()) {
+            existing = overflow.remove(key);
+        }
+        updatePosition();
+        return existing;
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
+        return new SnapshotIterator(sortedSnapshot(from, to, false));
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> reverseRange(Bytes from, Bytes to) {
+        return new SnapshotIterator(sortedSnapshot(from, to, true));
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> all() {
+        return range(null, null);
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> reverseAll() {
+        return reverseRange(null, null);
+    }
+
+    @Override
+    public synchronized long approximateNumEntries() {
+        return table.size() + overflow.size();
+    }
+
+    /**
+     * @return bytes allocated outside the heap for the hash table
+     */
+    public synchronized long offHeapBytes() {
+        return table.offHeapBytes();
+    }
+
+    @Override
+    public void flush() {
+        // nothing to flush, the changelog is the durable copy
+    }
+
+    @Override
+    public synchronized void close() {
+        table.release();
+        overflow.clear();
+        open = false;
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <R> QueryResult<R> query(Query<R> query, PositionBound positionBound, QueryConfig config) {
+        if (query instanceof SlotScanQuery scan) {
+            return (QueryResult<R>) QueryResult.forResult(scan(scan));
+        }
+        return QueryResult.forUnknownQueryType(query, this);
+    }
+
+    private SlotScanQuery.Result scan(SlotScanQuery scan) {
+        List<Bytes> keys = new ArrayList<>();
+        int nextSlot = table.forEachKey(scan.fromSlot(), scan.limit(), key -> keys.add(Bytes.wrap(key)));
+        if (nextSlot < 0) {
+            keys.addAll(overflow.keySet());
+        }
+        return new SlotScanQuery.Result(keys, nextSlot);
+    }
+
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    private void updatePosition() {
+        if (context != null) {
+            context.recordMetadata().ifPresent(metadata ->
+                    position.withComponent(metadata.topic(), metadata.partition(), metadata.offset()));
+        }
+    }
+
+    private List<KeyValue<Bytes, byte[]>> sortedSnapshot(Bytes from, Bytes to, boolean reverse) {
+        List<KeyValue<Bytes, byte[]>> entries = new ArrayList<>();
+        table.forEach((key, value) -> addInRange(entries, Bytes.wrap(key), value, from, to));
+        overflow.forEach((key, value) -> addInRange(entries, key, value, from, to));
+        Comparator<KeyValue<Bytes, byte[]>> byKey = Comparator.comparing(entry -> entry.key);
+        entries.sort(reverse ? byKey.reversed() : byKey);
+        return entries;
+    }
+
+    private static void addInRange(List<KeyValue<Bytes, byte[]>> entries, Bytes key, byte[] value, Bytes from, Bytes to) {
+        if ((from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0)) {
+            entries.add(KeyValue.pair(key, value));
+        }
+    }
+
+    private static class SnapshotIterator implements KeyValueIterator<Bytes, byte[]> {
+        private final List<KeyValue<Bytes, byte[]>> entries;
+        private int index;
+
+        SnapshotIterator(List<KeyValue<Bytes, byte[]>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < entries.size();
+        }
+
+        @Override
+        public KeyValue<Bytes, byte[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return entries.get(index++);
+        }
+
+        @Override
+        public Bytes peekNextKey() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return entries.get(index).key;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ronaldsuwandi.store;
+
+import java.util.Locale;
+
+/**
+ * Backing store of the 7-day rolling label state. All of them are changelogged, the in-memory and off-heap stores
+ * are rebuilt from the changelog on restart.
+ */
+public enum RollingStoreType {
+    /**
+     * RocksDB, survives restarts without a changelog restore
+     */
+    ROCKSDB,
+    /**
+     * Kafka Streams' on-heap in-memory store
+     */
+    IN_MEMORY,
+    /**
+     * Open-addressing hash table in direct memory ({@link OffHeapKeyValueStore})
+     */
+    OFF_HEAP;
+
+    public static RollingStoreType parse(String value) {
+        return RollingStoreType.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
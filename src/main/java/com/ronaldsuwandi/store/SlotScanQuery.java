@@ -0,0 +1,22 @@
+package com.ronaldsuwandi.store;
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.query.Query;
+
+import java.util.List;
+
+/**
+ * Up to {@code limit} keys of an {@link OffHeapKeyValueStore} in hash table slot order, starting at {@code fromSlot}.
+ * Unlike a range it costs only the slots it walks, so a large store can be visited a slice at a time. As a query it
+ * passes through the layers Kafka Streams wraps the store in.
+ * <p>
+ * Slots move when the table grows, a walk that spans a resize may skip or repeat keys until it starts over.
+ */
+public record SlotScanQuery(int fromSlot, int limit) implements Query<SlotScanQuery.Result> {
+    /**
+     * @param nextSlot where the next slice starts, -1 once the end of the table was reached; the last slice also holds
+     *                 the keys kept in the on-heap overflow
+     */
+    public record Result(List<Bytes> keys, int nextSlot) {
+    }
+}
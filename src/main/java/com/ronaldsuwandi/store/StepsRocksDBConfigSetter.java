@@ -0,0 +1,128 @@
+package com.ronaldsuwandi.store;
+
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.NotificationDebounceProcessor;
+import com.ronaldsuwandi.processor.NotificationDedupProcessor;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Bounds RocksDB memory across every store of the process and tunes each of our stores for its access pattern.
+ * <p>
+ * All stores share one LRU block cache; memtables are charged against the same cache through a shared
+ * {@link WriteBufferManager}, and index/filter blocks live in the cache as well, so
+ * {@link #TOTAL_OFF_HEAP_BYTES} is the upper bound of RocksDB memory no matter how many tasks or segments are
+ * open. Per store:
+ * <ul>
+ *     <li>rolling label and notification id stores - point lookups by userId: bloom filter, small blocks and a
+ *     hash index inside data blocks</li>
+ *     <li>daily window store (one RocksDB instance per segment) - bloom filter for the per-window fetch, larger
+ *     blocks for segment scans and fewer memtables per segment</li>
+ * </ul>
+ */
+public class StepsRocksDBConfigSetter implements RocksDBConfigSetter {
+    private static Logger logger = LoggerFactory.getLogger(StepsRocksDBConfigSetter.class);
+
+    public static final String TOTAL_OFF_HEAP_BYTES = "rocksdb.total.offheap.bytes";
+    public static final String TOTAL_MEMTABLE_BYTES = "rocksdb.total.memtable.bytes";
+    public static final String INDEX_FILTER_BLOCK_RATIO = "rocksdb.index.filter.block.ratio";
+
+    static final long DEFAULT_TOTAL_OFF_HEAP_BYTES = 256 * 1024 * 1024L;
+    static final long DEFAULT_TOTAL_MEMTABLE_BYTES = 64 * 1024 * 1024L;
+    static final double DEFAULT_INDEX_FILTER_BLOCK_RATIO = 0.1;
+
+    static final long POINT_LOOKUP_BLOCK_SIZE = 4 * 1024L;
+    static final long SCAN_BLOCK_SIZE = 16 * 1024L;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+
+    private static Cache cache;
+    private static WriteBufferManager writeBufferManager;
+    private static long cacheCapacity;
+    private static long memtableCapacity;
+
+    private Filter filter;
+
+    public record MemoryUsage(long blockCacheCapacity, long memtableCapacity, long blockCacheUsage, long pinnedUsage) {
+    }
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        initSharedMemory(configs);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(cache);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        options.setWriteBufferManager(writeBufferManager);
+
+        // replaces the default filter Kafka Streams sets, which it closes on its own
+        filter = new BloomFilter(BLOOM_BITS_PER_KEY, false);
+        tableConfig.setFilterPolicy(filter);
+
+        if (isPointLookupStore(storeName)) {
+            tableConfig.setBlockSize(POINT_LOOKUP_BLOCK_SIZE);
+            tableConfig.setDataBlockIndexType(DataBlockIndexType.kDataBlockBinaryAndHash);
+        } else if (isWindowSegment(storeName)) {
+            tableConfig.setBlockSize(SCAN_BLOCK_SIZE);
+            options.setMaxWriteBufferNumber(2);
+        }
+
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // cache and write buffer manager are shared by every store, only the per-store filter is ours to close
+        if (filter != null) {
+            filter.close();
+        }
+    }
+
+    static boolean isPointLookupStore(String storeName) {
+        return storeName.equals(ConsecutiveStepsProcessor.STORE_NAME)
+                || storeName.equals(NotificationDebounceProcessor.STORE_NAME)
+                || storeName.equals(NotificationDedupProcessor.STORE_NAME);
+    }
+
+    static boolean isWindowSegment(String storeName) {
+        // segments are named <store>.<segmentId>
+        return storeName.startsWith(UserStepsAggregator.STORE_NAME);
+    }
+
+    private static synchronized void initSharedMemory(Map<String, Object> configs) {
+        if (cache != null) {
+            return;
+        }
+        cacheCapacity = longConfig(configs, TOTAL_OFF_HEAP_BYTES, DEFAULT_TOTAL_OFF_HEAP_BYTES);
+        memtableCapacity = longConfig(configs, TOTAL_MEMTABLE_BYTES, DEFAULT_TOTAL_MEMTABLE_BYTES);
+        double indexFilterRatio = configs.containsKey(INDEX_FILTER_BLOCK_RATIO)
+                ? Double.parseDouble(configs.get(INDEX_FILTER_BLOCK_RATIO).toString())
+                : DEFAULT_INDEX_FILTER_BLOCK_RATIO;
+
+        cache = new LRUCache(cacheCapacity, -1, false, indexFilterRatio);
+        writeBufferManager = new WriteBufferManager(memtableCapacity, cache);
+        logger.info("RocksDB shared memory: block cache {} bytes (memtables up to {} bytes, index/filter ratio {})",
+                cacheCapacity, memtableCapacity, indexFilterRatio);
+    }
+
+    private static long longConfig(Map<String, Object> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+
+    /**
+     * @return current usage of the shared cache (memtables included), null before the first store is opened
+     */
+    public static synchronized MemoryUsage memoryUsage() {
+        if (cache == null) {
+            return null;
+        }
+        return new MemoryUsage(cacheCapacity, memtableCapacity, cache.getUsage(), cache.getPinnedUsage());
+    }
+}
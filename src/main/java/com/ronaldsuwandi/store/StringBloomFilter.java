@@ -0,0 +1,79 @@
+package com.ronaldsuwandi.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bloom filter over strings, sized for an expected number of entries and false-positive probability. Bit positions
+ * use double hashing on both halves of a 64-bit hash of the UTF-8 bytes. Not thread safe.
+ */
+public class StringBloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private long entries;
+
+    public StringBloomFilter(long expectedEntries, double falsePositiveProbability) {
+        long n = Math.max(1, expectedEntries);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) ((m + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        entries++;
+    }
+
+    /**
+     * @return false if the value was never put, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0);
+        entries = 0;
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    public long sizeInBytes() {
+        return bits.length * 8L;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a followed by the splitmix64 finalizer so both 32-bit halves are well mixed
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
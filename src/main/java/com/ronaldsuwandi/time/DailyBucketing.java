@@ -0,0 +1,21 @@
+package com.ronaldsuwandi.time;
+
+import java.util.Locale;
+
+/**
+ * Which calendar days daily step counts are bucketed into.
+ */
+public enum DailyBucketing {
+    /**
+     * UTC days for everyone
+     */
+    UTC,
+    /**
+     * Local days in the zone of each activity, or the configured default zone when it has none
+     */
+    LOCAL;
+
+    public static DailyBucketing parse(String value) {
+        return DailyBucketing.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
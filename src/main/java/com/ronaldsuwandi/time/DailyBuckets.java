@@ -0,0 +1,70 @@
+package com.ronaldsuwandi.time;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Assigns activity to calendar days.
+ * <p>
+ * Days are expressed on the local timeline: a day starts at {@code epochDay * DAY_MS} of local wall-clock time, which
+ * is what daily windows are cut on. A day with a DST change still spans exactly one day there, so the gap check of
+ * {@link com.ronaldsuwandi.model.WeeklyLabelHistory} holds across DST without knowing about zones. In {@link
+ * DailyBucketing#UTC} mode the local timeline is the UTC one and nothing changes.
+ */
+public class DailyBuckets {
+    /**
+     * Spread between the westernmost (-12:00) and easternmost (+14:00) offsets. Once records of different zones are
+     * placed on their local timelines they can be this far out of order.
+     */
+    public static final Duration MAX_OFFSET_SPREAD = Duration.ofHours(26);
+
+    public static final DailyBuckets UTC = new DailyBuckets(false, ZoneOffsetTable.UTC);
+
+    private final boolean local;
+    private final ZoneOffsetTable defaultZone;
+
+    private DailyBuckets(boolean local, ZoneOffsetTable defaultZone) {
+        this.local = local;
+        this.defaultZone = defaultZone;
+    }
+
+    public static DailyBuckets local(String defaultZone) {
+        return new DailyBuckets(true, ZoneOffsetTable.of(defaultZone));
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    public ZoneOffsetTable zone(UserActivityNormalized activity) {
+        if (!local || activity.zone() == null) {
+            return defaultZone;
+        }
+        return ZoneOffsetTable.of(activity.zone());
+    }
+
+    /**
+     * @return wall-clock time of the activity in its zone, as millis since the local epoch
+     */
+    public long localTime(UserActivityNormalized activity) {
+        return zone(activity).toLocal(activity.timestamp().toEpochMilli());
+    }
+
+    /**
+     * @return start of the activity's day on the local timeline
+     */
+    public long dayStart(UserActivityNormalized activity) {
+        return zone(activity).localDayStart(activity.timestamp().toEpochMilli());
+    }
+
+    public Instant day(UserActivityNormalized activity) {
+        return Instant.ofEpochMilli(dayStart(activity));
+    }
+
+    public LocalDate localDate(UserActivityNormalized activity) {
+        return LocalDate.ofEpochDay(Math.floorDiv(dayStart(activity), ZoneOffsetTable.DAY_MS));
+    }
+}
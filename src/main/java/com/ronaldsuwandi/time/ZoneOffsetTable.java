@@ -0,0 +1,120 @@
+package com.ronaldsuwandi.time;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UTC offsets of a zone, precomputed as a table of transition instants so that converting an instant to local time
+ * is a binary search over a {@code long[]} instead of a {@link ZoneRules} lookup building {@code Instant} and
+ * {@code ZoneOffset} objects. The table covers {@link #TABLE_START} to {@link #TABLE_END}; anything outside falls
+ * back to the zone rules.
+ * <p>
+ * Tables are shared per zone id through {@link #of(String)}.
+ */
+public final class ZoneOffsetTable {
+    private static Logger logger = LoggerFactory.getLogger(ZoneOffsetTable.class);
+    public static final long DAY_MS = 86_400_000L;
+    static final long TABLE_START = 0L; // 1970-01-01T00:00:00Z
+    static final long TABLE_END = 4_102_444_800_000L; // 2100-01-01T00:00:00Z
+    private static final int MAX_CACHED_ZONES = 1024;
+    private static final Map<String, ZoneOffsetTable> tables = new ConcurrentHashMap<>();
+
+    public static final ZoneOffsetTable UTC = new ZoneOffsetTable(ZoneOffset.UTC);
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    // offsets[i] applies from transitions[i - 1] (inclusive) until transitions[i]
+    private final long[] transitions;
+    private final int[] offsetsMs;
+
+    ZoneOffsetTable(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            this.transitions = new long[0];
+            this.offsetsMs = new int[]{rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000};
+            return;
+        }
+
+        List<Long> transitionList = new ArrayList<>();
+        List<Integer> offsetList = new ArrayList<>();
+        offsetList.add(rules.getOffset(Instant.ofEpochMilli(TABLE_START)).getTotalSeconds() * 1000);
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(TABLE_START));
+        while (transition != null && transition.toEpochSecond() * 1000 < TABLE_END) {
+            transitionList.add(transition.toEpochSecond() * 1000);
+            offsetList.add(transition.getOffsetAfter().getTotalSeconds() * 1000);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        this.transitions = transitionList.stream().mapToLong(Long::longValue).toArray();
+        this.offsetsMs = offsetList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Shared table of a zone id. Unknown ids resolve to {@link #UTC}, once, with a warning.
+     */
+    public static ZoneOffsetTable of(String zoneId) {
+        ZoneOffsetTable table = tables.get(zoneId);
+        if (table != null) {
+            return table;
+        }
+        try {
+            table = new ZoneOffsetTable(ZoneId.of(zoneId));
+        } catch (DateTimeException e) {
+            logger.warn("Unknown zone {}, using UTC", zoneId);
+            table = UTC;
+        }
+        if (tables.size() < MAX_CACHED_ZONES) {
+            tables.putIfAbsent(zoneId, table);
+        }
+        return table;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public int offsetMs(long epochMs) {
+        if (transitions.length == 0) {
+            return offsetsMs[0];
+        }
+        if (epochMs < TABLE_START || epochMs >= TABLE_END) {
+            return rules.getOffset(Instant.ofEpochMilli(epochMs)).getTotalSeconds() * 1000;
+        }
+        int index = Arrays.binarySearch(transitions, epochMs);
+        // an instant on a transition already has the offset after it
+        return offsetsMs[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    /**
+     * @return the local wall-clock time of an instant, as millis since the local epoch
+     */
+    public long toLocal(long epochMs) {
+        return epochMs + offsetMs(epochMs);
+    }
+
+    /**
+     * @return local midnight of the calendar day the instant falls on, as millis since the local epoch. Consecutive
+     * calendar days are always {@link #DAY_MS} apart, including days with a DST change.
+     */
+    public long localDayStart(long epochMs) {
+        long local = toLocal(epochMs);
+        return local - Math.floorMod(local, DAY_MS);
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneOffsetTable{" + zone + ", " + transitions.length + " transitions}";
+    }
+}
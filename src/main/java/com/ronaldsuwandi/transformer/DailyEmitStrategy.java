@@ -0,0 +1,25 @@
+package com.ronaldsuwandi.transformer;
+
+import java.util.Locale;
+
+/**
+ * When the daily window aggregate forwards updates downstream.
+ */
+public enum DailyEmitStrategy {
+    /**
+     * Forward every update as soon as it is applied (record caching disabled)
+     */
+    PER_UPDATE,
+    /**
+     * Coalesce updates in the record cache and forward the latest aggregate per window on commit or cache eviction
+     */
+    CACHED,
+    /**
+     * Forward a single final aggregate once the window has closed (end + grace)
+     */
+    ON_WINDOW_CLOSE;
+
+    public static DailyEmitStrategy parse(String value) {
+        return DailyEmitStrategy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -2,39 +2,47 @@ package com.ronaldsuwandi.transformer;
 
 import com.ronaldsuwandi.model.UserActivityNormalized;
 import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.time.DailyBuckets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
 
 public class UserNotificationJoiner {
     private static Logger logger = LoggerFactory.getLogger(UserNotificationJoiner.class);
-    public static final String STORE_NAME = "user-notification-id-store";
+    public static final String CAMPAIGN = "juice-nearby";
+
+    /**
+     * Notification id derived from the user, the campaign and the day the user qualified on, so the same
+     * notification created twice (eg. on reprocessing) carries the same id.
+     */
+    public static String notificationId(String userId, String campaign, LocalDate qualifyingDay) {
+        return UUID.nameUUIDFromBytes((userId + '|' + campaign + '|' + qualifyingDay).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
 
     public static UserNotification joinWithWeeklyAggregatedLabel(UserActivityNormalized userActivity, String userWeeklyAggregatedLabel) {
+        return joinWithWeeklyAggregatedLabel(userActivity, userWeeklyAggregatedLabel, DailyBuckets.UTC);
+    }
+
+    /**
+     * @param dailyBuckets decides the qualifying day the notification id is derived from
+     */
+    public static UserNotification joinWithWeeklyAggregatedLabel(UserActivityNormalized userActivity, String userWeeklyAggregatedLabel,
+                                                                 DailyBuckets dailyBuckets) {
         logger.trace("weeklyLabel = {}", userWeeklyAggregatedLabel);
 
         if ("medium_or_high".equals(userWeeklyAggregatedLabel)) {
             return new UserNotification(
                     userActivity.userId(),
-                    "UNIQUE-NOTIFICATION-ID", // TODO
+                    notificationId(userActivity.userId(), CAMPAIGN, dailyBuckets.localDate(userActivity)),
                     "Time for a juice nearby!" + userActivity.userId(),
                     Instant.now()
             );
         }
         return null;
     }
-
-    public static UserNotification debounceNotification(UserNotification userNotification, UserNotification existingUserNotification) {
-        if (existingUserNotification != null) {
-            Duration diff = Duration.between(userNotification.timestamp(), existingUserNotification.timestamp());
-            if (Math.abs(diff.getSeconds()) > 10) { // TODO - hardcoded for now
-                return userNotification;
-            }
-            logger.debug("Debounced. Too soon, wait again before sending notification to {}", userNotification.userId());
-            return null;
-        }
-        return userNotification;
-    }
 }
@@ -4,9 +4,6 @@ import com.ronaldsuwandi.model.UserActivityNormalized;
 import com.ronaldsuwandi.model.UserStepsDaily;
 import org.apache.kafka.streams.kstream.Aggregator;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-
 public class UserStepsAggregator implements Aggregator<String, UserActivityNormalized, UserStepsDaily> {
     public static final String STORE_NAME = "daily-user-steps-store";
     public static String getStepLabel(int steps) {
@@ -21,9 +18,7 @@ public class UserStepsAggregator implements Aggregator<String, UserActivityNorma
 
     @Override
     public UserStepsDaily apply(String key, UserActivityNormalized value, UserStepsDaily aggregate) {
-        int newSteps = aggregate.steps() + value.steps();
-        String label = getStepLabel(newSteps);
-        Instant day = value.timestamp().truncatedTo(ChronoUnit.DAYS);
-        return new UserStepsDaily(value.userId(), newSteps, day, label);
+        // the day is the window the aggregate lives in and the label is derived, only the total changes
+        return new UserStepsDaily(aggregate.steps() + value.steps());
     }
 }
@@ -0,0 +1,135 @@
+package com.ronaldsuwandi;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.workload.EmbeddedKafka;
+import com.ronaldsuwandi.workload.KafkaWorkloadSink;
+import com.ronaldsuwandi.workload.WorkloadGenerator;
+import com.ronaldsuwandi.workload.WorkloadSpec;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.ThreadMetadata;
+import org.apache.kafka.streams.processor.TaskId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances with two stream threads each on an in-process broker, sharing one application id
+ */
+public class ScaleOutTest {
+    private static final int PARTITIONS = 4;
+    private static final int INSTANCES = 2;
+    private static final int THREADS = 2;
+
+    @Test
+    public void testInstancesAndThreadsShareTheWork(@TempDir Path stateDir) throws Exception {
+        try (EmbeddedKafka kafka = new EmbeddedKafka()) {
+            kafka.createTopics(new TopicPlan(PARTITIONS, (short) 1).newTopics());
+
+            Properties appProps = new Properties();
+            appProps.put(AppConfig.TOPOLOGY_MODE, TopologyMode.FUSED.name());
+            appProps.put(AppConfig.STREAMS_NUM_THREADS, String.valueOf(THREADS));
+            appProps.put(AppConfig.STREAMS_STANDBY_REPLICAS, "1");
+            int tasks = new TopologyBuilder(new AppConfig(appProps)).build().describe().subtopologies().size() * PARTITIONS;
+            try (Admin admin = kafka.admin()) {
+                TopicPlan.check(admin, "steps-processor-scale-out-test", TopologyMode.FUSED, 10_000L);
+            }
+
+            List<KafkaStreams> instances = new ArrayList<>();
+            try {
+                for (int i = 0; i < INSTANCES; i++) {
+                    TopologyBuilder topologyBuilder = new TopologyBuilder(new AppConfig(appProps));
+                    Properties props = new Properties();
+                    props.put(StreamsConfig.APPLICATION_ID_CONFIG, "steps-processor-scale-out-test");
+                    props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.bootstrapServers());
+                    props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+                    props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+                    props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve("instance-" + i).toString());
+                    topologyBuilder.configureStreams(props);
+                    instances.add(new KafkaStreams(topologyBuilder.build(), props));
+                }
+                instances.forEach(KafkaStreams::start);
+
+                // the group settles before any input, so no task moves while records are in flight
+                await(() -> instances.stream().allMatch(instance -> instance.state() == KafkaStreams.State.RUNNING)
+                        && activeTasks(instances).size() == tasks);
+
+                for (KafkaStreams instance : instances) {
+                    Set<TaskId> active = new HashSet<>();
+                    Set<TaskId> standby = new HashSet<>();
+                    Collection<ThreadMetadata> threads = instance.metadataForLocalThreads();
+                    assertEquals(THREADS, threads.size());
+                    for (ThreadMetadata thread : threads) {
+                        assertFalse(thread.activeTasks().isEmpty(), thread.threadName() + " has no task");
+                        thread.activeTasks().forEach(task -> active.add(task.taskId()));
+                        thread.standbyTasks().forEach(task -> standby.add(task.taskId()));
+                    }
+                    // a warm copy of the other instance's stateful tasks
+                    assertFalse(standby.isEmpty(), "no standby tasks");
+                    assertTrue(Collections.disjoint(active, standby), "standby of a task active on the same instance");
+                }
+
+                Properties workloadProps = new Properties();
+                workloadProps.setProperty(WorkloadSpec.USERS, "8");
+                workloadProps.setProperty(WorkloadSpec.HOURS, String.valueOf(8 * 24));
+                workloadProps.setProperty(WorkloadSpec.MIX, "HIGH:1");
+                try (KafkaWorkloadSink sink = new KafkaWorkloadSink(kafka.bootstrapServers())) {
+                    new WorkloadGenerator(WorkloadSpec.from(workloadProps)).generate(sink);
+                }
+
+                // every user is a high stepper for eight days, whichever instance and thread owns them
+                await(() -> notifications(kafka) >= 8);
+                assertEquals(8, notifications(kafka));
+                List<TaskId> active = activeTasks(instances);
+                assertEquals(tasks, active.size());
+                assertEquals(tasks, new HashSet<>(active).size(), "task active on two threads");
+            } finally {
+                instances.forEach(KafkaStreams::close);
+            }
+        }
+    }
+
+    private static List<TaskId> activeTasks(List<KafkaStreams> instances) {
+        List<TaskId> tasks = new ArrayList<>();
+        for (KafkaStreams instance : instances) {
+            for (ThreadMetadata thread : instance.metadataForLocalThreads()) {
+                thread.activeTasks().forEach(task -> tasks.add(task.taskId()));
+            }
+        }
+        return tasks;
+    }
+
+    private static long notifications(EmbeddedKafka kafka) {
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            request.put(new TopicPartition(TopologyBuilder.TOPIC_USER_NOTIFICATIONS, partition), OffsetSpec.latest());
+        }
+        try (Admin admin = kafka.admin()) {
+            return admin.listOffsets(request).all().get().values().stream()
+                    .mapToLong(offset -> offset.offset())
+                    .sum();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 2 minutes");
+            }
+            Thread.sleep(200);
+        }
+    }
+}
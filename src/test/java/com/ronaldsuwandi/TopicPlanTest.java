@@ -0,0 +1,63 @@
+package com.ronaldsuwandi;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopicPlanTest {
+    private static final String APP = "steps-processor";
+    private static final String ID_STORE_CHANGELOG = "steps-processor-user-notification-id-store-changelog";
+
+    @Test
+    public void testNewTopics() {
+        List<NewTopic> topics = new TopicPlan(6, (short) 3).newTopics();
+
+        assertEquals(TopicPlan.TOPICS, topics.stream().map(NewTopic::name).toList());
+        for (NewTopic topic : topics) {
+            assertEquals(6, topic.numPartitions());
+            assertEquals(3, topic.replicationFactor());
+            boolean compacted = topic.name().equals(TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED);
+            assertEquals(compacted ? Map.of(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT) : null,
+                    topic.configs(), topic.name());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TopicPlan(0, (short) 1));
+    }
+
+    @Test
+    public void testCoPartitioned() {
+        assertEquals(List.of(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED,
+                ID_STORE_CHANGELOG), TopicPlan.coPartitioned(APP, TopologyMode.SPLIT));
+        // nothing is joined through the aggregated topic
+        assertEquals(List.of(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, ID_STORE_CHANGELOG),
+                TopicPlan.coPartitioned(APP, TopologyMode.FUSED));
+    }
+
+    @Test
+    public void testVerify() {
+        assertEquals(List.of(), TopicPlan.verify(APP, TopologyMode.SPLIT, Map.of(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, 6,
+                TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED, 6,
+                TopologyBuilder.TOPIC_USER_NOTIFICATIONS, 2)), "only the joined topics have to agree");
+
+        Map<String, Integer> mismatch = Map.of(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, 6,
+                TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED, 1,
+                ID_STORE_CHANGELOG, 4);
+        assertEquals(List.of(
+                "user-steps-7-days-aggregated has 1 partitions, user-activity-normalized has 6",
+                ID_STORE_CHANGELOG + " has 4 partitions, user-activity-normalized has 6"),
+                TopicPlan.verify(APP, TopologyMode.SPLIT, mismatch));
+        assertEquals(1, TopicPlan.verify(APP, TopologyMode.FUSED, mismatch).size());
+
+        assertEquals(List.of(), TopicPlan.verify(APP, TopologyMode.SPLIT, Map.of()), "nothing created yet");
+        assertEquals(List.of(ID_STORE_CHANGELOG + " has 4 partitions, user-steps-7-days-aggregated has 1"),
+                TopicPlan.verify(APP, TopologyMode.SPLIT, Map.of(
+                        TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED, 1,
+                        ID_STORE_CHANGELOG, 4)));
+    }
+}
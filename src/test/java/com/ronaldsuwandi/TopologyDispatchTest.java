@@ -0,0 +1,59 @@
+package com.ronaldsuwandi;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.dispatch.DispatchMode;
+import com.ronaldsuwandi.dispatch.StubNotificationServer;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Notification dispatch against a stub provider. The test driver commits after every record, so each record must
+ * have reached the provider by the time {@code pipeInput} returns.
+ */
+public class TopologyDispatchTest {
+    private StubNotificationServer server;
+    private TopologyTestDriver driver;
+
+    @AfterEach
+    public void teardown() {
+        driver.close();
+        server.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DispatchMode.class)
+    public void testDeliveredBeforeCommit(DispatchMode mode) throws Exception {
+        server = new StubNotificationServer(50);
+        Properties config = new Properties();
+        config.put(AppConfig.NOTIFICATION_DISPATCH_MODE, mode.name());
+        config.put(AppConfig.NOTIFICATION_DISPATCH_URL, server.uri().toString());
+        AppConfig appConfig = new AppConfig(config);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        driver = new TopologyTestDriver(new TopologyBuilder(appConfig).build(), props);
+        TestInputTopic<String, UserNotification> notificationTopic = driver.createInputTopic(
+                TopologyBuilder.TOPIC_USER_NOTIFICATIONS,
+                new StringSerializer(),
+                new TopicSerdes(appConfig).serde(TopologyBuilder.TOPIC_USER_NOTIFICATIONS, UserNotification.class).serializer());
+
+        for (int i = 1; i <= 3; i++) {
+            notificationTopic.pipeInput("user" + i, new UserNotification("user" + i, "ID-" + i, "Time for a juice nearby!", Instant.now()));
+            assertEquals(i, server.received().size());
+        }
+    }
+}
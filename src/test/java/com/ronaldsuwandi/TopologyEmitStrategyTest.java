@@ -0,0 +1,119 @@
+package com.ronaldsuwandi;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import com.ronaldsuwandi.transformer.DailyEmitStrategy;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the notification flow under every {@link DailyEmitStrategy}. Timestamps are fixed so window close is
+ * deterministic: every day gets 5 hourly events from 10:00, closing the previous day's window (end + 1 hour grace).
+ */
+public class TopologyEmitStrategyTest {
+    private static final Instant DAY_0 = Instant.parse("2024-11-04T10:00:00Z");
+    private static final int EVENTS_PER_DAY = 5;
+
+    TopologyTestDriver driver;
+    TestInputTopic<String, UserActivityNormalized> inputTopic;
+    TestOutputTopic<String, UserNotification> outputTopic;
+    TestOutputTopic<String, String> weeklyLabelTopic;
+
+    private void setupDriver(DailyEmitStrategy strategy) {
+        Properties config = new Properties();
+        config.put(AppConfig.DAILY_EMIT_STRATEGY, strategy.name());
+        AppConfig appConfig = new AppConfig(config);
+        TopologyBuilder topologyBuilder = new TopologyBuilder(appConfig);
+        TopicSerdes topicSerdes = new TopicSerdes(appConfig);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        topologyBuilder.configureStreams(props);
+
+        driver = new TopologyTestDriver(topologyBuilder.build(), props);
+        inputTopic = driver.createInputTopic(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED,
+                new StringSerializer(),
+                topicSerdes.serde(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class).serializer());
+        outputTopic = driver.createOutputTopic(
+                TopologyBuilder.TOPIC_USER_NOTIFICATIONS,
+                new StringDeserializer(),
+                topicSerdes.serde(TopologyBuilder.TOPIC_USER_NOTIFICATIONS, UserNotification.class).deserializer());
+        weeklyLabelTopic = driver.createOutputTopic(
+                TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED,
+                new StringDeserializer(),
+                new StringDeserializer());
+    }
+
+    @AfterEach
+    public void teardown() {
+        driver.close();
+    }
+
+    private void pipeDay(int day, int stepsPerEvent) {
+        for (int hour = 0; hour < EVENTS_PER_DAY; hour++) {
+            Instant timestamp = DAY_0.plus(day, ChronoUnit.DAYS).plus(hour, ChronoUnit.HOURS);
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", stepsPerEvent, null, null, null, timestamp));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DailyEmitStrategy.class)
+    public void testNotificationAfterSevenMediumDays(DailyEmitStrategy strategy) {
+        setupDriver(strategy);
+
+        for (int day = 0; day <= 5; day++) {
+            pipeDay(day, 500);
+        }
+        assertEquals(0, outputTopic.readRecordsToList().size(), "no notification before 7 days");
+
+        for (int day = 6; day <= 8; day++) {
+            pipeDay(day, 500);
+        }
+        assertEquals(1, outputTopic.readRecordsToList().size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(DailyEmitStrategy.class)
+    public void testNoNotificationWithLowDay(DailyEmitStrategy strategy) {
+        setupDriver(strategy);
+
+        for (int day = 0; day <= 8; day++) {
+            pipeDay(day, day == 3 ? 100 : 500);
+        }
+        assertEquals(0, outputTopic.readRecordsToList().size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(DailyEmitStrategy.class)
+    public void testDownstreamRecords(DailyEmitStrategy strategy) {
+        setupDriver(strategy);
+
+        int days = 9;
+        for (int day = 0; day < days; day++) {
+            pipeDay(day, 500);
+        }
+
+        long expected = switch (strategy) {
+            // TopologyTestDriver commits after every record, so the cache is flushed per update as well
+            case PER_UPDATE, CACHED -> (long) days * EVENTS_PER_DAY;
+            // the last day is still open
+            case ON_WINDOW_CLOSE -> days - 1;
+        };
+        assertEquals(expected, weeklyLabelTopic.getQueueSize());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ronaldsuwandi;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs every {@link TopologyTest} against the fused topology.
+ */
+public class TopologyFusedTest extends TopologyTest {
+
+    @Override
+    protected Properties baseConfig() {
+        Properties config = new Properties();
+        config.put(AppConfig.TOPOLOGY_MODE, TopologyMode.FUSED.name());
+        return config;
+    }
+
+    @Test
+    public void testTopologyNotificationOnQualifyingRecord() {
+        // the 7th medium day notifies straight away, the split topology only sees the verdict on the next activity
+        Instant timestamp = Instant.now();
+        for (int day = 0; day < 7; day++) {
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(day, ChronoUnit.DAYS)));
+        }
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+    }
+
+    @Test
+    public void testTopologyLateRecordDropped() {
+        Instant timestamp = Instant.parse("2024-11-04T10:00:00Z");
+        for (int day = 0; day < 7; day++) {
+            int steps = day == 5 ? 100 : 2000;
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", steps, null, null, null, timestamp.plus(day, ChronoUnit.DAYS)));
+        }
+        assertEquals(0, outputTopic.readRecordsToList().size());
+
+        // would make day 5 a medium day, but its window closed (end + 1 hour grace) before the stream time of day 6
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 5000, null, null, null, timestamp.plus(5, ChronoUnit.DAYS)));
+        assertEquals(0, outputTopic.readRecordsToList().size());
+    }
+}
@@ -1,32 +1,59 @@
 package com.ronaldsuwandi;
 
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.extractor.EventTimeHeader;
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.model.UserActivityIos;
 import com.ronaldsuwandi.model.UserActivityNormalized;
 import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
 import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.*;
+import org.apache.kafka.streams.state.KeyValueStore;
 import org.apache.kafka.streams.test.TestRecord;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TopologyTest {
     TopologyTestDriver driver;
     TestInputTopic<String, UserActivityNormalized> inputTopic;
     TestOutputTopic<String, UserNotification> outputTopic;
 
+    /**
+     * Settings every test starts from, overridden to run the same tests against another topology mode
+     */
+    protected Properties baseConfig() {
+        return new Properties();
+    }
+
     @BeforeEach
     public void setup() {
-        Topology topology = new TopologyBuilder().build();
+        setupDriver(new AppConfig(baseConfig()));
+    }
+
+    protected void setupDriver(AppConfig config) {
+        Topology topology = new TopologyBuilder(config).build();
+        TopicSerdes topicSerdes = new TopicSerdes(config);
 
         Properties props = new Properties();
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
@@ -38,12 +65,12 @@ public class TopologyTest {
         inputTopic = driver.createInputTopic(
                 TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED,
                 new StringSerializer(),
-                JSONSerdeUtil.getSerde(UserActivityNormalized.class).serializer());
+                topicSerdes.serde(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class).serializer());
 
         outputTopic = driver.createOutputTopic(
                 TopologyBuilder.TOPIC_USER_NOTIFICATIONS,
                 new StringDeserializer(),
-                JSONSerdeUtil.getSerde(UserNotification.class).deserializer());
+                topicSerdes.serde(TopologyBuilder.TOPIC_USER_NOTIFICATIONS, UserNotification.class).deserializer());
 
     }
 
@@ -118,4 +145,193 @@ public class TopologyTest {
         assertEquals(1, result.size());
         assertEquals("user1", result.get(0).key());
     }
+
+    @Test
+    public void testTopologyBinaryWireFormat() {
+        // same flow as testTopologySimple but with every internal topic using the binary encoding
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.WIRE_FORMAT_PREFIX + TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, "binary");
+        config.put(AppConfig.WIRE_FORMAT_PREFIX + TopologyBuilder.TOPIC_USER_NOTIFICATIONS, "binary");
+        setupDriver(new AppConfig(config));
+
+        Instant timestamp = Instant.now();
+        for (int day = 0; day <= 7; day++) {
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, 1.3521, null, "333001", timestamp.plus(day, ChronoUnit.DAYS)));
+        }
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+        assertEquals("user1", result.get(0).value().userId());
+    }
+
+    @Test
+    public void testTopologyWeeklyEmitOnChange() {
+        // same as testTopologyNotificationSendAfterBecomingMediumStepper with unchanged weekly labels suppressed
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.WEEKLY_EMIT_STRATEGY, "on-change");
+        setupDriver(new AppConfig(config));
+
+        Instant timestamp = Instant.now();
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(1, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 6000, null, null, null, timestamp.plus(2, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(3, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 9000, null, null, null, timestamp.plus(4, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2500, null, null, null, timestamp.plus(5, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 100, null, null, null, timestamp.plus(6, ChronoUnit.DAYS)));
+
+        assertEquals(0, outputTopic.readRecordsToList().size());
+
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(6, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS)));
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(6, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS)));
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+    }
+
+    @Test
+    public void testTopologyOffHeapRollingStore() {
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.ROLLING_STORE_TYPE, "off-heap");
+        setupDriver(new AppConfig(config));
+
+        Instant timestamp = Instant.now();
+        for (int day = 0; day <= 7; day++) {
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(day, ChronoUnit.DAYS)));
+        }
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+    }
+
+    @Test
+    public void testTopologyEvictsIdleUsers() {
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.ROLLING_STORE_IDLE_TTL_MS, String.valueOf(Duration.ofDays(8).toMillis()));
+        config.put(AppConfig.ROLLING_STORE_EXPIRY_INTERVAL_MS, "60000");
+        AppConfig appConfig = new AppConfig(config);
+        setupDriver(appConfig);
+        TestOutputTopic<String, String> weeklyLabels = driver.createOutputTopic(
+                TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED, new StringDeserializer(), new StringDeserializer());
+
+        Instant timestamp = Instant.parse("2024-11-04T10:00:00Z");
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp));
+        inputTopic.pipeInput("user2", new UserActivityNormalized("user2", "first", "last", 2000, null, null, null, timestamp.plus(5, ChronoUnit.DAYS)));
+        inputTopic.pipeInput("user3", new UserActivityNormalized("user3", "first", "last", 2000, null, null, null, timestamp.plus(10, ChronoUnit.DAYS)));
+        KeyValueStore<String, WeeklyLabelHistory> rollingStore = driver.getKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+        assertEquals(3, rollingStore.approximateNumEntries());
+
+        // user1's day ended more than 8 days before the stream time
+        driver.advanceWallClockTime(Duration.ofMinutes(1));
+        assertNull(rollingStore.get("user1"));
+        assertNotNull(rollingStore.get("user2"));
+        assertNotNull(rollingStore.get("user3"));
+        if (appConfig.topologyMode() == TopologyMode.SPLIT) {
+            Map<String, String> latest = weeklyLabels.readKeyValuesToMap();
+            assertTrue(latest.containsKey("user1"));
+            assertNull(latest.get("user1"), "the compacted weekly label is tombstoned");
+            assertEquals("", latest.get("user2"));
+        }
+
+        // an evicted user starts over
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp.plus(11, ChronoUnit.DAYS)));
+        assertEquals(1, rollingStore.get("user1").size());
+    }
+
+    @Test
+    public void testNormalizationStampsEventTime() {
+        TestInputTopic<String, UserActivityIos> iosTopic = driver.createInputTopic(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_IOS,
+                new StringSerializer(),
+                JSONSerdeUtil.getSerde(UserActivityIos.class).serializer());
+        TestOutputTopic<String, UserActivityNormalized> normalizedTopic = driver.createOutputTopic(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED,
+                new StringDeserializer(),
+                JSONSerdeUtil.getSerde(UserActivityNormalized.class).deserializer());
+
+        Instant eventTime = Instant.parse("2024-11-04T10:00:00Z");
+        iosTopic.pipeInput("user1", new UserActivityIos("first", "last", "address", "user1", "F", 1.6, 50,
+                new UserActivityIos.PhysicalActivity(0, 0, 8, 2000), null, null, null, eventTime), eventTime.plusSeconds(30));
+
+        TestRecord<String, UserActivityNormalized> normalized = normalizedTopic.readRecord();
+        assertEquals(eventTime, normalized.getRecordTime());
+        assertEquals(eventTime.toEpochMilli(), EventTimeHeader.get(normalized.getHeaders()));
+    }
+
+    @Test
+    public void testEventTimeCarriedToNotification() {
+        TestOutputTopic<String, String> weeklyTopic = driver.createOutputTopic(
+                TopologyBuilder.TOPIC_USER_STEPS_7_DAYS_AGGREGATED, new StringDeserializer(), new StringDeserializer());
+        Stage notificationLag = StageMetrics.eventLag(TopologyBuilder.TOPIC_USER_NOTIFICATIONS);
+        long lagRecorded = notificationLag.count();
+
+        Instant timestamp = Instant.parse("2024-03-01T10:00:00Z");
+        for (int day = 0; day <= 7; day++) {
+            Instant eventTime = timestamp.plus(day, ChronoUnit.DAYS);
+            RecordHeaders headers = new RecordHeaders();
+            EventTimeHeader.set(headers, eventTime.toEpochMilli());
+            inputTopic.pipeInput(new TestRecord<>("user1",
+                    new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, eventTime), headers, eventTime));
+        }
+
+        // weekly labels (split topology only) carry the event time of the activity that updated them
+        List<TestRecord<String, String>> weekly = weeklyTopic.readRecordsToList();
+        for (int i = 0; i < weekly.size(); i++) {
+            assertEquals(timestamp.plus(i, ChronoUnit.DAYS).toEpochMilli(), EventTimeHeader.get(weekly.get(i).getHeaders()));
+        }
+        TestRecord<String, UserNotification> notification = outputTopic.readRecord();
+        assertEquals(notification.getRecordTime().toEpochMilli(), EventTimeHeader.get(notification.getHeaders()));
+        assertEquals(1, notificationLag.count() - lagRecorded);
+    }
+
+    @Test
+    public void testTopologyMetadataEventTime() {
+        // records written by the normalization stage, event time is in the header and the record timestamp
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.EVENT_TIME_SOURCE, "metadata");
+        setupDriver(new AppConfig(config));
+
+        Instant timestamp = Instant.now();
+        for (int day = 0; day <= 7; day++) {
+            Instant eventTime = timestamp.plus(day, ChronoUnit.DAYS);
+            RecordHeaders headers = new RecordHeaders();
+            EventTimeHeader.set(headers, eventTime.toEpochMilli());
+            inputTopic.pipeInput(new TestRecord<>("user1",
+                    new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, eventTime), headers, eventTime));
+        }
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+    }
+
+    @Test
+    public void testTopologyLocalDaysAcrossDst() {
+        // every local day from 2024-10-30 to 2024-11-06 in New York, alternating late evening and just after midnight.
+        // in UTC the late evenings share a day with the next morning, leaving gaps
+        driver.close();
+        Properties config = baseConfig();
+        config.put(AppConfig.DAILY_BUCKETING, "local");
+        setupDriver(new AppConfig(config));
+
+        LocalDate firstDay = LocalDate.parse("2024-10-30");
+        for (int day = 0; day <= 7; day++) {
+            LocalDateTime localTime = firstDay.plusDays(day).atTime(day % 2 == 0 ? 23 : 0, 30);
+            Instant timestamp = localTime.atZone(ZoneId.of("America/New_York")).toInstant();
+            inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null,
+                    timestamp, "America/New_York"));
+        }
+
+        List<TestRecord<String, UserNotification>> result = outputTopic.readRecordsToList();
+        assertEquals(1, result.size());
+        assertEquals("user1", result.get(0).key());
+    }
 }
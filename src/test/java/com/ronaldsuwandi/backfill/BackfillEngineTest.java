@@ -0,0 +1,185 @@
+package com.ronaldsuwandi.backfill;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.FusedStepsProcessor;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.ronaldsuwandi.workload.FileWorkloadSink;
+import com.ronaldsuwandi.workload.TestDriverWorkloadSink;
+import com.ronaldsuwandi.workload.WorkloadGenerator;
+import com.ronaldsuwandi.workload.WorkloadSpec;
+import com.ronaldsuwandi.workload.WorkloadSummary;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackfillEngineTest {
+
+    private static WorkloadSpec spec(String... settings) {
+        Properties props = new Properties();
+        for (String setting : settings) {
+            String[] parts = setting.split("=", 2);
+            props.setProperty(parts[0], parts[1]);
+        }
+        return WorkloadSpec.from(props);
+    }
+
+    private static Path ios(Path directory) {
+        return FileWorkloadSink.file(directory, TopologyBuilder.TOPIC_USER_ACTIVITY_IOS);
+    }
+
+    private static Path android(Path directory) {
+        return FileWorkloadSink.file(directory, TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID);
+    }
+
+    private static BackfillResult backfill(AppConfig config, Path directory, int partitions, int parallelism) {
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return new BackfillEngine(config, partitions, pool).run(ios(directory), android(directory));
+        }
+    }
+
+    private static Map<String, RollingStoreEntry> entries(Map<String, WeeklyLabelHistory> rollingStore) {
+        Map<String, RollingStoreEntry> entries = new TreeMap<>();
+        rollingStore.forEach((userId, history) -> entries.put(userId, RollingStoreEntry.of(userId, history)));
+        return entries;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"FUSED, UTC, 48", "SPLIT, UTC, 48", "FUSED, LOCAL, 48", "SPLIT, LOCAL, 48",
+            // later than the grace, but within the offset spread split mode adds on local timelines
+            "FUSED, LOCAL, 12", "SPLIT, LOCAL, 12"})
+    public void testMatchesTopology(String mode, String bucketing, int lateByHours, @TempDir Path directory)
+            throws IOException {
+        Properties config = new Properties();
+        config.put(AppConfig.TOPOLOGY_MODE, mode);
+        config.put(AppConfig.DAILY_BUCKETING, bucketing);
+        config.put(AppConfig.DAILY_DEFAULT_ZONE, "Asia/Singapore");
+        AppConfig appConfig = new AppConfig(config);
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+
+        // ten days of every profile, with late records the topology drops. The driver flushes its stores after every
+        // record, so this stays small
+        WorkloadSpec spec = spec("users=4", "hours=" + 10 * 24, "mix=HIGH:1,MEDIUM:1,LOW_TO_HIGH:1",
+                "out.of.order.rate=0.05", "late.rate=0.02", "late.by.ms=" + Duration.ofHours(lateByHours).toMillis());
+        Map<String, RollingStoreEntry> streamed = new TreeMap<>();
+        double dropped;
+        try (TopologyTestDriver driver = new TopologyTestDriver(new TopologyBuilder(appConfig).build(), props);
+             FileWorkloadSink files = new FileWorkloadSink(directory)) {
+            TestDriverWorkloadSink topics = new TestDriverWorkloadSink(driver);
+            new WorkloadGenerator(spec).generate((topic, key, value, timestamp) -> {
+                files.send(topic, key, value, timestamp);
+                topics.send(topic, key, value, timestamp);
+            });
+
+            KeyValueStore<String, WeeklyLabelHistory> rollingStore = driver.getKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            try (KeyValueIterator<String, WeeklyLabelHistory> iterator = rollingStore.all()) {
+                while (iterator.hasNext()) {
+                    KeyValue<String, WeeklyLabelHistory> entry = iterator.next();
+                    streamed.put(entry.key, RollingStoreEntry.of(entry.key, entry.value));
+                }
+            }
+            // late records dropped by the window aggregation in split mode, by the fused processor in fused mode
+            dropped = driver.metrics().entrySet().stream()
+                    .filter(e -> e.getKey().name().equals("dropped-records-total")
+                            || e.getKey().name().equals(FusedStepsProcessor.LATE_SENSOR + "-total"))
+                    .mapToDouble(e -> (double) e.getValue().metricValue())
+                    .sum();
+        }
+
+        BackfillResult result = backfill(appConfig, directory, 1, 2);
+        assertEquals(spec.users(), streamed.size());
+        assertEquals((long) dropped, result.lateRecords());
+        assertEquals(streamed, entries(result.rollingStore()));
+        assertTrue(streamed.values().stream().anyMatch(entry -> entry.weeklyLabel().equals("medium_or_high")));
+    }
+
+    @Test
+    public void testPartitionsAndParallelismAgree(@TempDir Path directory) throws IOException {
+        WorkloadSpec spec = spec("users=300", "hours=" + 9 * 24, "late.rate=0.01");
+        WorkloadSummary summary;
+        try (FileWorkloadSink sink = new FileWorkloadSink(directory)) {
+            summary = new WorkloadGenerator(spec).generate(sink);
+        }
+
+        AppConfig config = new AppConfig();
+        BackfillResult single = backfill(config, directory, 1, 1);
+        BackfillResult partitioned = backfill(config, directory, 4, 4);
+
+        assertEquals(summary.events(), single.records());
+        assertEquals(summary.events(), partitioned.records());
+        assertEquals(single.lateRecords(), partitioned.lateRecords());
+        assertEquals(spec.users(), single.rollingStore().size());
+        assertEquals(entries(single.rollingStore()), entries(partitioned.rollingStore()));
+    }
+
+    @Test
+    public void testWritesRollingStoreAndWeeklyLabels(@TempDir Path directory) throws IOException {
+        try (FileWorkloadSink sink = new FileWorkloadSink(directory)) {
+            new WorkloadGenerator(spec("users=20", "hours=" + 8 * 24, "mix=HIGH:1,LOW:1")).generate(sink);
+        }
+        BackfillResult result = backfill(new AppConfig(), directory, 2, 2);
+        Path out = directory.resolve("out");
+        result.write(out);
+
+        List<String> labels = Files.readAllLines(out.resolve(BackfillResult.WEEKLY_LABELS_FILE));
+        assertEquals(20, labels.size());
+        for (String line : labels) {
+            String[] parts = line.split("\t", -1);
+            assertEquals(result.weeklyLabel(parts[0]), parts[1]);
+            assertEquals(parts[0].startsWith("HIGH") ? "medium_or_high" : "low", parts[1]);
+        }
+
+        List<String> rolling = Files.readAllLines(out.resolve(BackfillResult.ROLLING_STORE_FILE));
+        assertEquals(20, rolling.size());
+        Map<String, RollingStoreEntry> written = new TreeMap<>();
+        for (String line : rolling) {
+            RollingStoreEntry entry = JSONSerdeUtil.getSerde(RollingStoreEntry.class).deserializer().deserialize("", line.getBytes());
+            assertEquals(WeeklyLabelHistory.CAPACITY, entry.days().size());
+            written.put(entry.userId(), entry);
+        }
+        assertEquals(entries(result.rollingStore()), written);
+    }
+
+    @Test
+    public void testRangesEndOnLineBoundaries(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("lines.ndjson");
+        List<String> lines = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            String line = "{\"line\":" + i + ",\"padding\":\"" + "x".repeat(i % 37) + "\"}";
+            lines.add(line);
+            content.append(line).append(i % 3 == 0 ? "\r\n" : i % 5 == 0 ? "\n\n" : "\n");
+        }
+        // no newline after the last line
+        content.setLength(content.length() - 1);
+        Files.writeString(file, content);
+
+        for (int count : new int[]{1, 7, 64, 10_000}) {
+            List<String> read = new ArrayList<>();
+            for (MappedLines.Range range : MappedLines.split(file, count)) {
+                range.forEachLine(line -> read.add(new String(line)));
+            }
+            assertEquals(lines, read, count + " ranges");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncNotificationDispatcherTest {
+    private StubNotificationServer server;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        server = new StubNotificationServer(20);
+    }
+
+    @AfterEach
+    public void teardown() {
+        server.close();
+    }
+
+    private static UserNotification notification(String userId, int sequence) {
+        return new UserNotification(userId, String.valueOf(sequence), "Time for a juice nearby!", Instant.now());
+    }
+
+    @Test
+    public void testDeliversInKeyOrderWithBatching() {
+        try (AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(
+                new HttpNotificationSender(server.uri(), Duration.ofSeconds(5)), 4, 100, 50, 0, Duration.ZERO)) {
+            for (int i = 0; i < 500; i++) {
+                dispatcher.submit("user" + (i % 10), notification("user" + (i % 10), i));
+            }
+            dispatcher.awaitDelivered();
+
+            assertEquals(500, dispatcher.delivered());
+            assertEquals(500, server.received().size());
+            // slow provider, so later calls pick up everything that queued meanwhile
+            assertTrue(server.requests() < 500, "expected batching, got " + server.requests() + " requests");
+        }
+
+        Map<String, Integer> lastSequence = new HashMap<>();
+        for (UserNotification notification : server.received()) {
+            int sequence = Integer.parseInt(notification.notificationId());
+            Integer previous = lastSequence.put(notification.userId(), sequence);
+            assertTrue(previous == null || previous < sequence, "out of order for " + notification.userId());
+        }
+    }
+
+    @Test
+    public void testSubmitBlocksWhenSaturated() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationSender blockingSender = batch -> {
+            sending.countDown();
+            release.await();
+        };
+
+        try (AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(
+                blockingSender, 1, 2, 1, 0, Duration.ZERO)) {
+            // first one is taken off the queue and stuck in the provider call, the next two fill the queue
+            dispatcher.submit("user1", notification("user1", 0));
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            dispatcher.submit("user1", notification("user1", 1));
+            dispatcher.submit("user1", notification("user1", 2));
+
+            CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> dispatcher.submit("user1", notification("user1", 3)));
+            assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+            dispatcher.awaitDelivered();
+            assertEquals(4, dispatcher.delivered());
+        }
+    }
+
+    @Test
+    public void testFailedDeliveryFailsAwait() {
+        server.setStatus(500);
+        try (AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(
+                new HttpNotificationSender(server.uri(), Duration.ofSeconds(5)), 2, 10, 10, 1, Duration.ofMillis(1))) {
+            dispatcher.submit("user1", notification("user1", 0));
+
+            assertThrows(RuntimeException.class, dispatcher::awaitDelivered);
+            assertThrows(RuntimeException.class, () -> dispatcher.submit("user1", notification("user1", 1)));
+            assertEquals(2, server.requests()); // first attempt and one retry
+            assertEquals(0, dispatcher.delivered());
+        }
+    }
+
+    @Test
+    public void testSyncDispatcherSendsBeforeReturning() {
+        try (SyncNotificationDispatcher dispatcher = new SyncNotificationDispatcher(
+                new HttpNotificationSender(server.uri(), Duration.ofSeconds(5)), 0, Duration.ZERO)) {
+            dispatcher.submit("user1", notification("user1", 0));
+            assertEquals(List.of("0"), server.received().stream().map(UserNotification::notificationId).toList());
+        }
+    }
+}
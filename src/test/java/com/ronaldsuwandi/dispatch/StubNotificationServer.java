@@ -0,0 +1,66 @@
+package com.ronaldsuwandi.dispatch;
+
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local notification provider answering every batch after a fixed latency with a configurable status.
+ */
+public class StubNotificationServer implements AutoCloseable {
+    private final HttpServer server;
+    private final List<UserNotification> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+
+    public StubNotificationServer(long latencyMs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/notifications", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            requests.incrementAndGet();
+            if (status == 200) {
+                received.addAll(Arrays.asList(
+                        JSONSerdeUtil.getSerde(UserNotification[].class).deserializer().deserialize(null, body)));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    public URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/notifications");
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public List<UserNotification> received() {
+        return received;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ronaldsuwandi.extractor;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.ronaldsuwandi.serde.WireFormat;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventTimeExtractorTest {
+    private static final long RECORD_TIMESTAMP = 1_000L;
+    private static final Instant EVENT_TIME = Instant.parse("2024-11-04T10:00:00Z");
+
+    private static ConsumerRecord<Object, Object> record(Object value, RecordHeaders headers) {
+        return new ConsumerRecord<>("topic", 0, 0, RECORD_TIMESTAMP, TimestampType.CREATE_TIME, 0, 0,
+                "user1", value, headers, Optional.empty());
+    }
+
+    private static byte[] json() {
+        return JSONSerdeUtil.getSerde(UserActivityNormalized.class).serializer().serialize("topic",
+                new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, EVENT_TIME));
+    }
+
+    @Test
+    public void testHeaderPreferred() {
+        RecordHeaders headers = new RecordHeaders();
+        EventTimeHeader.set(headers, 42L);
+
+        assertEquals(42L, new EventTimeExtractor().extract(record(json(), headers), -1));
+        assertEquals(42L, new ScanningEventTimeExtractor(WireFormat.JSON).extract(record(json(), headers), -1));
+    }
+
+    @Test
+    public void testMetadataFallsBackToRecordTimestamp() {
+        assertEquals(RECORD_TIMESTAMP, new EventTimeExtractor().extract(record(json(), new RecordHeaders()), -1));
+    }
+
+    @Test
+    public void testScanningFallsBackToValue() {
+        ScanningEventTimeExtractor extractor = new ScanningEventTimeExtractor(WireFormat.JSON);
+
+        assertEquals(EVENT_TIME.toEpochMilli(), extractor.extract(record(json(), new RecordHeaders()), -1));
+        // nothing to scan
+        assertEquals(RECORD_TIMESTAMP, extractor.extract(record("{}".getBytes(), new RecordHeaders()), -1));
+    }
+
+    @Test
+    public void testHeaderReplaced() {
+        RecordHeaders headers = new RecordHeaders();
+        EventTimeHeader.set(headers, 1L);
+        EventTimeHeader.set(headers, 2L);
+
+        assertEquals(1, headers.toArray().length);
+        assertEquals(2L, EventTimeHeader.get(headers));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ronaldsuwandi.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguousAndPrecise() {
+        int previous = -1;
+        for (long value = 0; value < 1L << 50; value = value < 4096 ? value + 1 : value + value / 97) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(index == previous || index == previous + 1, "gap before " + value);
+            long highest = LatencyHistogram.highestValue(index);
+            assertTrue(highest >= value, value + " above its bucket " + highest);
+            // within 1/32 of the value
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, value + " bucket too wide: " + highest);
+            previous = index;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.index(-5));
+    }
+
+    @Test
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 10_000).forEach(micros -> histogram.record(micros * 1_000));
+        long[] counts = histogram.counts();
+
+        assertEquals(5_000_000, LatencyHistogram.valueAtQuantile(counts, 10_000, 0.5), 5_000_000 / 32.0);
+        assertEquals(9_900_000, LatencyHistogram.valueAtQuantile(counts, 10_000, 0.99), 9_900_000 / 32.0);
+        assertEquals(0, LatencyHistogram.valueAtQuantile(new long[LatencyHistogram.BUCKETS], 0, 0.99));
+    }
+
+    @Test
+    public void testConcurrentRecordsAreNotLost() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 4; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i % 2048);
+                    }
+                });
+            }
+        }
+        assertEquals(400_000, LongStream.of(histogram.counts()).sum());
+    }
+}
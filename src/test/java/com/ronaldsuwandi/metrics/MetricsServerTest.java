@@ -0,0 +1,74 @@
+package com.ronaldsuwandi.metrics;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsServerTest {
+
+    private static Metric metric(MetricName name, Object value) {
+        return new Metric() {
+            @Override
+            public MetricName metricName() {
+                return name;
+            }
+
+            @Override
+            public Object metricValue() {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void testScrapeFormat() {
+        Stage stage = new Stage("weekly-label", 0);
+        for (int i = 0; i < 100; i++) {
+            stage.recordSince(System.nanoTime() - 2_000);
+        }
+        stage.recordBatchSince(System.nanoTime(), 10);
+
+        MetricName debounced = new MetricName("notification-debounced-total", "stream-steps-processor-metrics", "",
+                Map.of("steps-processor-id", "0_1"));
+        MetricName consumer = new MetricName("records-consumed-total", "consumer-fetch-manager-metrics", "", Map.of());
+        String scrape = MetricsServer.scrape(List.of(stage), Map.of(
+                debounced, metric(debounced, 3.0),
+                consumer, metric(consumer, 7.0)));
+
+        assertTrue(scrape.contains("steps_stage_records_total{stage=\"weekly-label\"} 110.0\n"), scrape);
+        assertTrue(scrape.contains("steps_stage_latency_seconds{stage=\"weekly-label\",quantile=\"0.99\"} "), scrape);
+        assertTrue(scrape.contains("kafka_stream_steps_processor_metrics_notification_debounced_total{steps_processor_id=\"0_1\"} 3.0\n"), scrape);
+        assertFalse(scrape.contains("records_consumed"), "only Kafka Streams groups are exported");
+    }
+
+    @Test
+    public void testStagesOnJmxAndEndpoint() throws Exception {
+        Stage stage = StageMetrics.stage("test-stage");
+        stage.recordSince(System.nanoTime());
+        assertSame(stage, StageMetrics.stage("test-stage"));
+
+        Object total = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName(StageMetrics.JMX_DOMAIN + ":type=stage,name=test-stage"), "RecordsTotal");
+        assertEquals(1L, total);
+
+        try (MetricsServer server = new MetricsServer(new InetSocketAddress("127.0.0.1", 0), Map::of)) {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + "/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("steps_stage_records_total{stage=\"test-stage\"} 1.0"), response.body());
+        }
+    }
+}
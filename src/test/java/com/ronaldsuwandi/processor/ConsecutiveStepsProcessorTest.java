@@ -1,7 +1,9 @@
 package com.ronaldsuwandi.processor;
 
 import com.ronaldsuwandi.model.UserStepsDaily;
-import com.ronaldsuwandi.serde.NavigableMapSerde;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.serde.WeeklyLabelHistorySerde;
+import com.ronaldsuwandi.store.OffHeapKeyValueBytesStoreSupplier;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.internals.TimeWindow;
@@ -15,7 +17,11 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,7 +29,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class ConsecutiveStepsProcessorTest {
     private ConsecutiveStepsProcessor processor;
     private MockProcessorContext<String, String> context;
-    private KeyValueStore<String, NavigableMap<Long, String>> stateStore;
+    private KeyValueStore<String, WeeklyLabelHistory> stateStore;
 
     @BeforeEach
     public void setUp() {
@@ -32,7 +38,7 @@ public class ConsecutiveStepsProcessorTest {
         stateStore = Stores.keyValueStoreBuilder(
                         Stores.inMemoryKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME),
                         Serdes.String(),
-                        new NavigableMapSerde())
+                        new WeeklyLabelHistorySerde())
                 .withLoggingDisabled()
                 .withCachingDisabled()
                 .build();
@@ -47,20 +53,20 @@ public class ConsecutiveStepsProcessorTest {
     public void testProcessUserWithLessThan7Days() {
         processor.process(new Record<>(
                 new Windowed<>("user1", new TimeWindow(0, 1)),
-                new UserStepsDaily("user1", 1000, Instant.now(), "daily_medium_stepper"),
+                new UserStepsDaily(1000),
                 0
         ));
         processor.process(new Record<>(
                 new Windowed<>("user1", new TimeWindow(1, 2)),
-                new UserStepsDaily("user1", 1000, Instant.now(), "daily_medium_stepper"),
+                new UserStepsDaily(1000),
                 1
         ));
         processor.process(new Record<>(
                 new Windowed<>("user1", new TimeWindow(1, 2)),
-                new UserStepsDaily("user1", 2000, Instant.now(), "daily_medium_stepper"),
+                new UserStepsDaily(2000),
                 1
         ));
-        KeyValueStore<String, NavigableMap<Long, String>> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
+        KeyValueStore<String, WeeklyLabelHistory> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
         assertEquals(3, context.forwarded().size());
         assertEquals(2,  stateStore.get("user1").size()); // we should only update twice because timestamp 1 has 2 records (updated)
         assertEquals("", context.forwarded().getLast().record().value());
@@ -72,11 +78,11 @@ public class ConsecutiveStepsProcessorTest {
         for (long i = 1; i <= 10; i++) {
             processor.process(new Record<>(
                     new Windowed<>("user1", new TimeWindow(i, i + 1)),
-                    new UserStepsDaily("user1", 1000, Instant.now(), "daily_medium_stepper"),
+                    new UserStepsDaily(1000),
                     i
             ));
         }
-        KeyValueStore<String, NavigableMap<Long, String>> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
+        KeyValueStore<String, WeeklyLabelHistory> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
         assertEquals(10, context.forwarded().size()); // processor forwards 10x
         assertEquals(7,  stateStore.get("user1").size()); // we should only care about the 7 days worth of data
         assertEquals("medium_or_high", context.forwarded().getLast().record().value());
@@ -88,22 +94,82 @@ public class ConsecutiveStepsProcessorTest {
         for (long i = 1; i <= 6; i++) {
             processor.process(new Record<>(
                     new Windowed<>("user1", new TimeWindow(i, i + 1)),
-                    new UserStepsDaily("user1", 1000, Instant.now(), "daily_medium_stepper"),
+                    new UserStepsDaily(1000),
                     i
             ));
         }
         long gapStart=Duration.ofDays(4).toMillis();
         processor.process(new Record<>(
                 new Windowed<>("user1", new TimeWindow(gapStart, gapStart+1)),
-                new UserStepsDaily("user1", 1000, Instant.now(), "daily_medium_stepper"),
+                new UserStepsDaily(1000),
                 gapStart
         ));
-        KeyValueStore<String, NavigableMap<Long, String>> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
+        KeyValueStore<String, WeeklyLabelHistory> stateStore = context.getStateStore(ConsecutiveStepsProcessor.STORE_NAME);
         assertEquals(7, context.forwarded().size()); // processor forwards 10x
         assertEquals(7,  stateStore.get("user1").size());
         assertEquals("", context.forwarded().getLast().record().value()); // user has a gap, so we do
     }
 
+    @Test
+    public void testProcessEmitOnChange() {
+        processor = new ConsecutiveStepsProcessor(WeeklyEmitStrategy.ON_CHANGE);
+        processor.init(context);
+
+        // 6 days of "" (not enough history) only forwards the first one
+        for (long i = 1; i <= 6; i++) {
+            processor.process(new Record<>(
+                    new Windowed<>("user1", new TimeWindow(i, i + 1)),
+                    new UserStepsDaily(1000),
+                    i
+            ));
+        }
+        assertEquals(1, context.forwarded().size());
+        assertEquals("", context.forwarded().getLast().record().value());
+
+        // 7th day flips to medium_or_high, further updates of the same verdict are suppressed
+        for (long i = 7; i <= 10; i++) {
+            processor.process(new Record<>(
+                    new Windowed<>("user1", new TimeWindow(i, i + 1)),
+                    new UserStepsDaily(1000),
+                    i
+            ));
+        }
+        assertEquals(2, context.forwarded().size());
+        assertEquals("medium_or_high", context.forwarded().getLast().record().value());
+
+        // a low day changes the verdict again
+        processor.process(new Record<>(
+                new Windowed<>("user1", new TimeWindow(10, 11)),
+                new UserStepsDaily(100),
+                10
+        ));
+        assertEquals(3, context.forwarded().size());
+        assertEquals("low", context.forwarded().getLast().record().value());
+        assertEquals("low", stateStore.get("user1").lastEmittedLabel());
+
+        assertEquals(8.0, suppressedTotal());
+    }
+
+    @Test
+    public void testProcessEmitOnUpdateNeverSuppresses() {
+        for (long i = 1; i <= 10; i++) {
+            processor.process(new Record<>(
+                    new Windowed<>("user1", new TimeWindow(i, i + 1)),
+                    new UserStepsDaily(1000),
+                    i
+            ));
+        }
+        assertEquals(10, context.forwarded().size());
+        assertEquals(0.0, suppressedTotal());
+    }
+
+    private double suppressedTotal() {
+        return context.metrics().metrics().entrySet().stream()
+                .filter(e -> e.getKey().name().equals(ConsecutiveStepsProcessor.SUPPRESSED_SENSOR + "-total"))
+                .mapToDouble(e -> (double) e.getValue().metricValue())
+                .sum();
+    }
+
     @Test
     public void testAllTimestampContinous() {
         Instant now = Instant.now();
@@ -142,4 +208,149 @@ public class ConsecutiveStepsProcessorTest {
         assertFalse(ConsecutiveStepsProcessor.allTimestampsContinuous(timestamps, Duration.ofDays(1)));
     }
 
+    @Test
+    public void testMatchesReferenceImplementation() {
+        // replays random updates (same-day overwrites, late windows, gaps) against the original TreeMap based logic
+        String[] labels = {"daily_low_stepper", "daily_medium_stepper", "daily_high_stepper"};
+        int[] steps = {100, 1000, 5000};
+        long day = Duration.ofDays(1).toMillis();
+        Random random = new Random(42);
+        NavigableMap<Long, String> reference = new TreeMap<>();
+        long currentDay = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            int roll = random.nextInt(10);
+            if (roll < 5) {
+                currentDay += 1;
+            } else if (roll == 5) {
+                currentDay += 2 + random.nextInt(3); // gap
+            } else if (roll == 6 && currentDay > 0) {
+                currentDay -= 1; // late update for an earlier window
+            }
+            long windowStart = currentDay * day;
+            int pick = random.nextInt(labels.length);
+            String label = labels[pick];
+
+            if (!reference.containsKey(windowStart) && reference.size() >= 7) {
+                reference.pollFirstEntry();
+            }
+            reference.put(windowStart, label);
+            String expected;
+            if (reference.size() < 7 || !ConsecutiveStepsProcessor.allTimestampsContinuous(reference.navigableKeySet(), Duration.ofDays(1))) {
+                expected = "";
+            } else if (reference.values().stream().allMatch(l -> l.equals("daily_medium_stepper") || l.equals("daily_high_stepper"))) {
+                expected = "medium_or_high";
+            } else {
+                expected = "low";
+            }
+
+            processor.process(new Record<>(
+                    new Windowed<>("user1", new TimeWindow(windowStart, windowStart + day)),
+                    new UserStepsDaily(steps[pick]),
+                    windowStart
+            ));
+            assertEquals(expected, context.forwarded().getLast().record().value(), "mismatch at update " + i);
+            assertEquals(reference.size(), stateStore.get("user1").size());
+        }
+    }
+
+    @Test
+    public void testExpiresIdleUsersInSlices() {
+        processor = new ConsecutiveStepsProcessor(WeeklyEmitStrategy.ON_UPDATE, UserStateListener.NOOP,
+                new UserExpiry(Duration.ofDays(8), Duration.ofMinutes(1), 2));
+        processor.init(context);
+        long day = Duration.ofDays(1).toMillis();
+        for (int user = 1; user <= 5; user++) {
+            // users 1 to 3 were last active on day 0, users 4 and 5 on day 5
+            long windowStart = user <= 3 ? 0 : 5 * day;
+            processor.process(new Record<>(
+                    new Windowed<>("user" + user, new TimeWindow(windowStart, windowStart + day)),
+                    new UserStepsDaily(1000),
+                    windowStart
+            ));
+        }
+        // event time moves on to day 10
+        processor.process(new Record<>(
+                new Windowed<>("user5", new TimeWindow(10 * day, 11 * day)),
+                new UserStepsDaily(1000),
+                10 * day
+        ));
+        context.resetForwards();
+
+        // two entries per punctuation: user1, user2 / user3, user4 / user5 and the end of the store
+        List<String> evicted = new ArrayList<>();
+        for (int punctuation = 0; punctuation < 3; punctuation++) {
+            processor.expire(0);
+            evicted.add(String.valueOf(stateStore.approximateNumEntries()));
+        }
+        assertEquals(List.of("3", "2", "2"), evicted);
+        assertNull(stateStore.get("user3"));
+        assertNotNull(stateStore.get("user4"));
+        assertNotNull(stateStore.get("user5"));
+
+        // each eviction tombstones the weekly label
+        assertEquals(List.of("user1", "user2", "user3"),
+                context.forwarded().stream().map(forwarded -> forwarded.record().key()).toList());
+        assertTrue(context.forwarded().stream().allMatch(forwarded -> forwarded.record().value() == null));
+        assertEquals(3, metric(UserExpiry.SENSOR + "-evicted-total"));
+        assertEquals(3, metric(UserExpiry.SENSOR + "-expiry-scan-total"));
+    }
+
+    @Test
+    public void testExpiresIdleUsersInSlotSlicesOffHeap() {
+        stateStore = Stores.keyValueStoreBuilder(
+                        new OffHeapKeyValueBytesStoreSupplier(ConsecutiveStepsProcessor.STORE_NAME),
+                        Serdes.String(),
+                        new WeeklyLabelHistorySerde())
+                .withLoggingDisabled()
+                .withCachingDisabled()
+                .build();
+        stateStore.init(context.getStateStoreContext(), stateStore);
+        context.addStateStore(stateStore);
+        processor = new ConsecutiveStepsProcessor(WeeklyEmitStrategy.ON_UPDATE, UserStateListener.NOOP,
+                new UserExpiry(Duration.ofDays(8), Duration.ofMinutes(1), 2));
+        processor.init(context);
+        long day = Duration.ofDays(1).toMillis();
+        for (int user = 1; user <= 20; user++) {
+            // users 1 to 10 were last active on day 0, the others on day 5
+            long windowStart = user <= 10 ? 0 : 5 * day;
+            processor.process(new Record<>(
+                    new Windowed<>("user" + user, new TimeWindow(windowStart, windowStart + day)),
+                    new UserStepsDaily(1000),
+                    windowStart
+            ));
+        }
+        processor.process(new Record<>(
+                new Windowed<>("user20", new TimeWindow(10 * day, 11 * day)),
+                new UserStepsDaily(1000),
+                10 * day
+        ));
+        context.resetForwards();
+
+        // the store is walked in table slot order, two entries per punctuation
+        long remaining = stateStore.approximateNumEntries();
+        for (int punctuation = 0; punctuation < 10; punctuation++) {
+            processor.expire(0);
+            long now = stateStore.approximateNumEntries();
+            assertTrue(remaining - now <= 2, "evicted " + (remaining - now) + " users in one slice");
+            remaining = now;
+        }
+        // the end of the table is reached, whatever the slot order left behind is caught on the next pass
+        for (int punctuation = 0; punctuation < 20; punctuation++) {
+            processor.expire(0);
+        }
+        assertEquals(10, stateStore.approximateNumEntries());
+        for (int user = 1; user <= 20; user++) {
+            assertEquals(user > 10, stateStore.get("user" + user) != null, "user" + user);
+        }
+        assertEquals(10, context.forwarded().size());
+        assertEquals(10, metric(UserExpiry.SENSOR + "-evicted-total"));
+    }
+
+    private double metric(String name) {
+        return context.metrics().metrics().entrySet().stream()
+                .filter(e -> e.getKey().name().equals(name))
+                .mapToDouble(e -> (double) e.getValue().metricValue())
+                .sum();
+    }
 }
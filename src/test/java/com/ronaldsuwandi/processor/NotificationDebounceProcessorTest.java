@@ -0,0 +1,128 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationDebounceProcessorTest {
+    private static final Instant NOW = Instant.parse("2024-11-04T10:00:00Z");
+
+    private NotificationDebounceProcessor processor;
+    private MockProcessorContext<String, UserNotification> context;
+    private TimestampedKeyValueStore<String, String> stateStore;
+
+    @BeforeEach
+    public void setUp() {
+        processor = new NotificationDebounceProcessor(Duration.ofSeconds(10), Duration.ofMinutes(1));
+        context = new MockProcessorContext<>();
+        context.setCurrentSystemTimeMs(NOW.toEpochMilli());
+        stateStore = Stores.timestampedKeyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(NotificationDebounceProcessor.STORE_NAME),
+                        Serdes.String(),
+                        Serdes.String())
+                .withLoggingDisabled()
+                .withCachingDisabled()
+                .build();
+
+        stateStore.init(context.getStateStoreContext(), stateStore);
+        context.addStateStore(stateStore);
+
+        processor.init(context);
+    }
+
+    private void process(String userId, Instant notifiedAt) {
+        processor.process(new Record<>(userId,
+                new UserNotification(userId, "NOTIF-ID", "Time for a juice nearby!", notifiedAt),
+                notifiedAt.toEpochMilli()));
+    }
+
+    private double metric(String name) {
+        return context.metrics().metrics().entrySet().stream()
+                .filter(e -> e.getKey().name().equals(name))
+                .mapToDouble(e -> (double) e.getValue().metricValue())
+                .sum();
+    }
+
+    @Test
+    public void testFirstNotificationForwarded() {
+        process("user1", NOW);
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(NOW.toEpochMilli(), stateStore.get("user1").timestamp());
+        assertEquals("NOTIF-ID", stateStore.get("user1").value());
+    }
+
+    @Test
+    public void testNotificationTooRecentDebounced() {
+        process("user1", NOW);
+        process("user1", NOW.plusSeconds(3));
+        process("user1", NOW.plusSeconds(3));
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(2, metric(NotificationDebounceProcessor.DEBOUNCED_SENSOR + "-total"));
+        // suppressed notifications do not extend the window
+        assertEquals(NOW.toEpochMilli(), stateStore.get("user1").timestamp());
+    }
+
+    @Test
+    public void testNotificationOldEnoughForwarded() {
+        process("user1", NOW);
+        process("user1", NOW.plusSeconds(3600));
+        process("user2", NOW.plusSeconds(1));
+
+        assertEquals(3, context.forwarded().size());
+        assertEquals(0, metric(NotificationDebounceProcessor.DEBOUNCED_SENSOR + "-total"));
+    }
+
+    @Test
+    public void testNotificationsCountedAndTimed() {
+        Stage stage = StageMetrics.stage(StageMetrics.NOTIFICATION_DEBOUNCE);
+        long recorded = stage.count();
+        process("user1", NOW);
+        process("user1", NOW.plusSeconds(1));
+
+        assertEquals(1, metric(NotificationDebounceProcessor.NOTIFICATION_SENSOR + "-total"));
+        // debounced records are timed too
+        assertEquals(2, stage.count() - recorded);
+    }
+
+    @Test
+    public void testPunctuatorExpiresOldEntries() {
+        process("user1", NOW);
+        process("user2", NOW.plusSeconds(30));
+
+        assertEquals(1, context.scheduledPunctuators().size());
+        context.scheduledPunctuators().get(0).getPunctuator().punctuate(NOW.plusSeconds(35).toEpochMilli());
+
+        assertNull(stateStore.get("user1"));
+        assertNotNull(stateStore.get("user2"));
+    }
+
+    @Test
+    public void testExpiryScansBoundedSlices() {
+        processor = new NotificationDebounceProcessor(Duration.ofSeconds(10), Duration.ofMinutes(1), UserStateListener.NOOP, 2);
+        processor.init(context);
+        for (int user = 1; user <= 5; user++) {
+            process("user" + user, NOW);
+        }
+
+        processor.expire(NOW.plusSeconds(35).toEpochMilli());
+        assertEquals(3, stateStore.approximateNumEntries());
+        processor.expire(NOW.plusSeconds(35).toEpochMilli());
+        processor.expire(NOW.plusSeconds(35).toEpochMilli());
+        assertEquals(0, stateStore.approximateNumEntries());
+        assertEquals(5, metric(NotificationDebounceProcessor.EXPIRY_SENSOR + "-evicted-total"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.ronaldsuwandi.processor;
+
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationDedupProcessorTest {
+    private static final Instant NOW = Instant.parse("2024-11-04T10:00:00Z");
+
+    private NotificationDedupProcessor processor;
+    private MockProcessorContext<String, UserNotification> context;
+    private KeyValueStore<String, Long> stateStore;
+
+    @BeforeEach
+    public void setUp() {
+        processor = new NotificationDedupProcessor(1_000, 0.01, Duration.ofDays(2), Duration.ofHours(1), 1_000);
+        context = new MockProcessorContext<>();
+        context.setCurrentSystemTimeMs(NOW.toEpochMilli());
+        stateStore = Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(NotificationDedupProcessor.STORE_NAME),
+                        Serdes.String(),
+                        Serdes.Long())
+                .withLoggingDisabled()
+                .withCachingDisabled()
+                .build();
+
+        stateStore.init(context.getStateStoreContext(), stateStore);
+        context.addStateStore(stateStore);
+    }
+
+    private void process(String userId, String notificationId, Instant notifiedAt) {
+        processor.process(new Record<>(userId,
+                new UserNotification(userId, notificationId, "Time for a juice nearby!", notifiedAt),
+                notifiedAt.toEpochMilli()));
+    }
+
+    private void punctuate(Instant now) {
+        context.setCurrentSystemTimeMs(now.toEpochMilli());
+        context.scheduledPunctuators().get(0).getPunctuator().punctuate(now.toEpochMilli());
+    }
+
+    private double metric(String name) {
+        return context.metrics().metrics().entrySet().stream()
+                .filter(e -> e.getKey().name().equals(name))
+                .mapToDouble(e -> (double) e.getValue().metricValue())
+                .sum();
+    }
+
+    @Test
+    public void testNewIdForwardedWithoutLookup() {
+        processor.init(context);
+        for (int i = 0; i < 100; i++) {
+            process("user" + i, "ID-" + i, NOW);
+        }
+
+        assertEquals(100, context.forwarded().size());
+        assertEquals(NOW.toEpochMilli(), stateStore.get("ID-1"));
+        // at 1% some new ids may need a lookup, but nowhere near all of them
+        assertTrue(metric(NotificationDedupProcessor.LOOKUP_SENSOR + "-total") < 10);
+        assertTrue(metric(NotificationDedupProcessor.FALSE_POSITIVE_RATE) < 0.1);
+        assertTrue(metric(NotificationDedupProcessor.FILTER_BYTES) > 0);
+    }
+
+    @Test
+    public void testDuplicateDropped() {
+        processor.init(context);
+        process("user1", "ID-1", NOW);
+        context.setCurrentSystemTimeMs(NOW.plusSeconds(60).toEpochMilli());
+        process("user1", "ID-1", NOW.plusSeconds(60));
+        process("user1", "ID-2", NOW.plusSeconds(60));
+
+        assertEquals(2, context.forwarded().size());
+        assertEquals(1, metric(NotificationDedupProcessor.DUPLICATE_SENSOR + "-total"));
+        assertTrue(metric(NotificationDedupProcessor.LOOKUP_SENSOR + "-total") >= 1);
+        // the first one sent is kept
+        assertEquals(NOW.toEpochMilli(), stateStore.get("ID-1"));
+    }
+
+    @Test
+    public void testFilterRebuiltFromStore() {
+        // as left behind by a previous task, e.g. restored from the changelog
+        stateStore.put("ID-1", NOW.toEpochMilli());
+        processor.init(context);
+
+        process("user1", "ID-1", NOW.plusSeconds(60));
+
+        assertEquals(0, context.forwarded().size());
+        assertEquals(1, metric(NotificationDedupProcessor.DUPLICATE_SENSOR + "-total"));
+    }
+
+    @Test
+    public void testPunctuatorExpiresOldIds() {
+        processor.init(context);
+        process("user1", "ID-1", NOW);
+        context.setCurrentSystemTimeMs(NOW.plus(Duration.ofDays(1)).toEpochMilli());
+        process("user2", "ID-2", NOW.plus(Duration.ofDays(1)));
+
+        assertEquals(1, context.scheduledPunctuators().size());
+        punctuate(NOW.plus(Duration.ofDays(2)).plusSeconds(1));
+
+        assertNull(stateStore.get("ID-1"));
+        assertNotNull(stateStore.get("ID-2"));
+        assertEquals(1, metric("dedup-store-evicted-total"));
+
+        // expired ids pass the store lookup again, ids still kept are dropped
+        context.resetForwards();
+        context.setCurrentSystemTimeMs(NOW.plus(Duration.ofDays(2)).plusSeconds(2).toEpochMilli());
+        process("user1", "ID-1", NOW.plus(Duration.ofDays(2)));
+        process("user2", "ID-2", NOW.plus(Duration.ofDays(2)));
+        assertEquals(1, context.forwarded().size());
+        assertEquals("ID-1", context.forwarded().get(0).record().value().notificationId());
+    }
+
+    @Test
+    public void testLateNotificationKeptForRetentionFromWhenSent() {
+        processor.init(context);
+        // created from activity replayed ten days late, sent now
+        process("user1", "ID-1", NOW.minus(Duration.ofDays(10)));
+
+        punctuate(NOW.plus(Duration.ofHours(1)));
+
+        assertEquals(NOW.toEpochMilli(), stateStore.get("ID-1"));
+        context.resetForwards();
+        process("user1", "ID-1", NOW.minus(Duration.ofDays(10)));
+        assertEquals(0, context.forwarded().size());
+    }
+
+    @Test
+    public void testExpiryScansOneSlicePerPunctuation() {
+        processor = new NotificationDedupProcessor(1_000, 0.01, Duration.ofDays(2), Duration.ofHours(1), 2);
+        processor.init(context);
+        for (int i = 0; i < 5; i++) {
+            process("user" + i, "ID-" + i, NOW);
+        }
+
+        punctuate(NOW.plus(Duration.ofDays(3)));
+        assertEquals(3, stateStore.approximateNumEntries());
+        punctuate(NOW.plus(Duration.ofDays(3)).plusSeconds(60));
+        assertEquals(1, stateStore.approximateNumEntries());
+        punctuate(NOW.plus(Duration.ofDays(3)).plusSeconds(120));
+        assertEquals(0, stateStore.approximateNumEntries());
+    }
+
+    @Test
+    public void testFilterGenerationsRotate() {
+        processor.init(context);
+        process("user1", "ID-1", NOW);
+
+        // the first generation becomes the previous one, its ids are still filtered
+        punctuate(NOW.plus(Duration.ofDays(2)));
+        context.setCurrentSystemTimeMs(NOW.plus(Duration.ofDays(2)).toEpochMilli());
+        process("user2", "ID-2", NOW.plus(Duration.ofDays(2)));
+        context.resetForwards();
+        process("user1", "ID-1", NOW.plus(Duration.ofDays(2)));
+        assertEquals(0, context.forwarded().size());
+
+        // dropped with the next rotation, ID-2 is in the then previous generation
+        punctuate(NOW.plus(Duration.ofDays(4)));
+        double lookups = metric(NotificationDedupProcessor.LOOKUP_SENSOR + "-total");
+        process("user2", "ID-2", NOW.plus(Duration.ofDays(4)));
+        assertEquals(lookups + 1, metric(NotificationDedupProcessor.LOOKUP_SENSOR + "-total"));
+        assertEquals(0, context.forwarded().size());
+
+        process("user1", "ID-1", NOW.plus(Duration.ofDays(4)));
+        assertEquals(lookups + 1, metric(NotificationDedupProcessor.LOOKUP_SENSOR + "-total"));
+        assertEquals(1, context.forwarded().size());
+    }
+}
@@ -0,0 +1,213 @@
+package com.ronaldsuwandi.query;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.TopologyMode;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserStepsDaily;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.processor.NotificationDebounceProcessor;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import com.ronaldsuwandi.transformer.DailyEmitStrategy;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Queries against the stores of a {@link TopologyTestDriver}, which stands in for the local instance.
+ */
+public class UserStateQueryTest {
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, UserActivityNormalized> inputTopic;
+    private TopologyBuilder topologyBuilder;
+    private UserStateServer server;
+    private final AtomicInteger rollingReads = new AtomicInteger();
+
+    private void setup(TopologyMode mode) {
+        setup(mode, DailyEmitStrategy.PER_UPDATE);
+    }
+
+    private void setup(TopologyMode mode, DailyEmitStrategy dailyEmitStrategy) {
+        Properties config = new Properties();
+        config.put(AppConfig.TOPOLOGY_MODE, mode.name());
+        config.put(AppConfig.DAILY_EMIT_STRATEGY, dailyEmitStrategy.name());
+        config.put(AppConfig.QUERY_SERVER, "localhost:7070");
+        AppConfig appConfig = new AppConfig(config);
+        topologyBuilder = new TopologyBuilder(appConfig);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        // record caching as the strategy sets it up
+        topologyBuilder.configureStreams(props);
+        driver = new TopologyTestDriver(topologyBuilder.build(), props);
+        inputTopic = driver.createInputTopic(
+                TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED,
+                new StringSerializer(),
+                new TopicSerdes(appConfig).serde(TopologyBuilder.TOPIC_USER_ACTIVITY_NORMALIZED, UserActivityNormalized.class).serializer());
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (server != null) {
+            server.close();
+        }
+        driver.close();
+    }
+
+    private UserStateAccess localAccess() {
+        return new UserStateAccess() {
+            @Override
+            public HostInfo owner(UserStatePart part, String userId) {
+                return null;
+            }
+
+            @Override
+            public ReadOnlyWindowStore<String, UserStepsDaily> dailyStore() {
+                return driver.getWindowStore(UserStepsAggregator.STORE_NAME);
+            }
+
+            @Override
+            public ReadOnlyKeyValueStore<String, WeeklyLabelHistory> rollingStore() {
+                rollingReads.incrementAndGet();
+                return driver.getKeyValueStore(ConsecutiveStepsProcessor.STORE_NAME);
+            }
+
+            @Override
+            public ReadOnlyKeyValueStore<String, ValueAndTimestamp<String>> debounceStore() {
+                return driver.getTimestampedKeyValueStore(NotificationDebounceProcessor.STORE_NAME);
+            }
+        };
+    }
+
+    private UserStateQuery localQuery() {
+        return new UserStateQuery(localAccess(), topologyBuilder.userViewCache(), new RemoteUserStateClient(Duration.ofSeconds(2)));
+    }
+
+    private void pipeQualifyingWeek(String userId, Instant start) {
+        for (int day = 0; day <= 7; day++) {
+            inputTopic.pipeInput(userId, new UserActivityNormalized(userId, "first", "last", 6000, null, null, null,
+                    start.plus(day, ChronoUnit.DAYS)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TopologyMode.class)
+    public void testReadsEveryPart(TopologyMode mode) {
+        setup(mode);
+        Instant start = Instant.parse("2024-03-01T10:00:00Z");
+        pipeQualifyingWeek("user1", start);
+
+        UserView view = localQuery().user("user1");
+        assertNotNull(view);
+        assertEquals(6000, view.daily().days().getLast().steps());
+        assertEquals("daily_high_stepper", view.daily().days().getLast().label());
+        assertEquals(start.plus(7, ChronoUnit.DAYS).atZone(ZoneOffset.UTC).toLocalDate(),
+                view.daily().days().getLast().date());
+        assertEquals("medium_or_high", view.weekly().weeklyLabel());
+        assertEquals(WeeklyLabelHistory.CAPACITY, view.weekly().days().size());
+        assertNotNull(view.notification().notificationId());
+
+        assertNull(localQuery().user("nobody"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TopologyMode.class)
+    public void testCachedUntilUserUpdated(TopologyMode mode) {
+        setup(mode);
+        Instant start = Instant.parse("2024-03-01T10:00:00Z");
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, start));
+        UserStateQuery query = localQuery();
+
+        assertEquals(1, query.weekly("user1", false).days().size());
+        assertEquals(1, query.weekly("user1", false).days().size());
+        assertEquals(1, rollingReads.get());
+
+        // another user's update leaves user1 cached
+        inputTopic.pipeInput("user2", new UserActivityNormalized("user2", "first", "last", 2000, null, null, null, start));
+        query.weekly("user1", false);
+        assertEquals(1, rollingReads.get());
+
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null,
+                start.plus(1, ChronoUnit.DAYS)));
+        assertEquals(2, query.weekly("user1", false).days().size());
+        assertEquals(2, rollingReads.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(DailyEmitStrategy.class)
+    public void testDailyViewFollowsEveryWrite(DailyEmitStrategy dailyEmitStrategy) {
+        setup(TopologyMode.SPLIT, dailyEmitStrategy);
+        Instant start = Instant.parse("2024-03-01T10:00:00Z");
+        UserStateQuery query = localQuery();
+
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, start));
+        assertEquals(2000, query.daily("user1", false).days().getLast().steps());
+        // the test driver flushes after every record, which would hide a stale view in cached mode, so check what is kept
+        assertEquals(dailyEmitStrategy == DailyEmitStrategy.PER_UPDATE ? 1 : 0, topologyBuilder.userViewCache().size());
+
+        // the window is updated while the day is still open, whether or not the aggregate is forwarded yet
+        inputTopic.pipeInput("user1", new UserActivityNormalized("user1", "first", "last", 3000, null, null, null,
+                start.plus(1, ChronoUnit.HOURS)));
+        assertEquals(5000, query.daily("user1", false).days().getLast().steps());
+    }
+
+    @ParameterizedTest
+    @EnumSource(TopologyMode.class)
+    public void testForwardsToOwner(TopologyMode mode) throws Exception {
+        setup(mode);
+        pipeQualifyingWeek("user1", Instant.parse("2024-03-01T10:00:00Z"));
+        server = new UserStateServer(localQuery(), new InetSocketAddress("127.0.0.1", 0));
+        HostInfo owner = new HostInfo("127.0.0.1", server.port());
+
+        UserViewCache frontCache = new UserViewCache(10);
+        UserStateQuery front = new UserStateQuery(new UserStateAccess() {
+            @Override
+            public HostInfo owner(UserStatePart part, String userId) {
+                return owner;
+            }
+
+            @Override
+            public ReadOnlyWindowStore<String, UserStepsDaily> dailyStore() {
+                throw new AssertionError("not hosted here");
+            }
+
+            @Override
+            public ReadOnlyKeyValueStore<String, WeeklyLabelHistory> rollingStore() {
+                throw new AssertionError("not hosted here");
+            }
+
+            @Override
+            public ReadOnlyKeyValueStore<String, ValueAndTimestamp<String>> debounceStore() {
+                throw new AssertionError("not hosted here");
+            }
+        }, frontCache, new RemoteUserStateClient(Duration.ofSeconds(2)));
+
+        assertEquals(localQuery().user("user1"), front.user("user1"));
+        assertNull(front.notification("nobody", false));
+        assertEquals(0, frontCache.size());
+        // a forwarded query is never forwarded again
+        assertThrows(QueryUnavailableException.class, () -> front.weekly("user1", true));
+    }
+}
@@ -0,0 +1,55 @@
+package com.ronaldsuwandi.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserViewCacheTest {
+
+    private static NotificationView view(String userId) {
+        return new NotificationView(userId, "ID-" + userId, Instant.EPOCH);
+    }
+
+    @Test
+    public void testUpdateDropsEveryPartOfTheUser() {
+        UserViewCache cache = new UserViewCache(10);
+        cache.put(UserStatePart.NOTIFICATION, "user1", view("user1"), cache.generation("user1"));
+        cache.put(UserStatePart.WEEKLY, "user1", new WeeklyView("user1", "", null, List.of()), cache.generation("user1"));
+        cache.put(UserStatePart.NOTIFICATION, "user2", view("user2"), cache.generation("user2"));
+
+        cache.updated("user1");
+
+        assertNull(cache.get(UserStatePart.NOTIFICATION, "user1", NotificationView.class));
+        assertNull(cache.get(UserStatePart.WEEKLY, "user1", WeeklyView.class));
+        assertEquals(view("user2"), cache.get(UserStatePart.NOTIFICATION, "user2", NotificationView.class));
+    }
+
+    @Test
+    public void testReadRacingAnUpdateIsNotCached() {
+        UserViewCache cache = new UserViewCache(10);
+        long generation = cache.generation("user1");
+        // the store was read, then written and invalidated before the view made it into the cache
+        cache.updated("user1");
+        cache.put(UserStatePart.NOTIFICATION, "user1", view("user1"), generation);
+
+        assertNull(cache.get(UserStatePart.NOTIFICATION, "user1", NotificationView.class));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        UserViewCache cache = new UserViewCache(2);
+        cache.put(UserStatePart.NOTIFICATION, "user1", view("user1"), cache.generation("user1"));
+        cache.put(UserStatePart.NOTIFICATION, "user2", view("user2"), cache.generation("user2"));
+        cache.get(UserStatePart.NOTIFICATION, "user1", NotificationView.class);
+        cache.put(UserStatePart.NOTIFICATION, "user3", view("user3"), cache.generation("user3"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(UserStatePart.NOTIFICATION, "user1", NotificationView.class));
+        assertNull(cache.get(UserStatePart.NOTIFICATION, "user2", NotificationView.class));
+        assertNotNull(cache.get(UserStatePart.NOTIFICATION, "user3", NotificationView.class));
+    }
+}
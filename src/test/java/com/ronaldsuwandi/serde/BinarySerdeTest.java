@@ -0,0 +1,78 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import com.ronaldsuwandi.model.UserNotification;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySerdeTest {
+    private final UserActivityNormalizedBinarySerde activitySerde = new UserActivityNormalizedBinarySerde();
+    private final UserNotificationBinarySerde notificationSerde = new UserNotificationBinarySerde();
+
+    @Test
+    public void testActivityRoundTrip() {
+        UserActivityNormalized activity = new UserActivityNormalized("user1", "first", "last", 2500,
+                1.3521, 103.8198, "333001", Instant.parse("2024-11-04T10:15:30.123456789Z"));
+
+        byte[] bytes = activitySerde.serialize("topic", activity);
+
+        assertEquals(UserActivityNormalizedBinarySerde.VERSION_1, bytes[0]);
+        assertEquals(activity, activitySerde.deserialize("topic", bytes));
+        byte[] json = JSONSerdeUtil.getSerde(UserActivityNormalized.class).serializer().serialize("topic", activity);
+        assertTrue(bytes.length * 2 < json.length, "binary " + bytes.length + " bytes vs json " + json.length);
+    }
+
+    @Test
+    public void testActivityRoundTripNullableFields() {
+        UserActivityNormalized activity = new UserActivityNormalized("user1", null, "last", -1,
+                null, 103.8198, null, Instant.parse("2024-11-04T10:15:30Z"));
+
+        assertEquals(activity, activitySerde.deserialize("topic", activitySerde.serialize("topic", activity)));
+    }
+
+    @Test
+    public void testActivityRoundTripZone() {
+        UserActivityNormalized activity = new UserActivityNormalized("user1", "first", "last", 2500,
+                1.3521, 103.8198, "333001", Instant.parse("2024-11-04T10:15:30Z"), "Asia/Singapore");
+        UserActivityNormalized withoutZone = new UserActivityNormalized("user1", "first", "last", 2500,
+                1.3521, 103.8198, "333001", Instant.parse("2024-11-04T10:15:30Z"));
+
+        byte[] bytes = activitySerde.serialize("topic", activity);
+        assertEquals(activity, activitySerde.deserialize("topic", bytes));
+        // the zone is appended, values without one keep the same bytes
+        byte[] withoutZoneBytes = activitySerde.serialize("topic", withoutZone);
+        assertEquals(withoutZoneBytes.length + 1 + "Asia/Singapore".length(), bytes.length);
+    }
+
+    @Test
+    public void testNotificationRoundTrip() {
+        UserNotification notification = new UserNotification("user1", "NOTIF-ID", "Time for a juice nearby!", Instant.now());
+
+        assertEquals(notification, notificationSerde.deserialize("topic", notificationSerde.serialize("topic", notification)));
+    }
+
+    @Test
+    public void testNotificationRoundTripNullableFields() {
+        UserNotification notification = new UserNotification("user1", null, null, null);
+
+        assertEquals(notification, notificationSerde.deserialize("topic", notificationSerde.serialize("topic", notification)));
+    }
+
+    @Test
+    public void testUnknownVersionRejected() {
+        byte[] bytes = notificationSerde.serialize("topic", new UserNotification("user1", "id", "payload", Instant.now()));
+        bytes[0] = 42;
+
+        assertThrows(SerializationException.class, () -> notificationSerde.deserialize("topic", bytes));
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(activitySerde.serialize("topic", null));
+        assertNull(activitySerde.deserialize("topic", null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventTimeScannerTest {
+    private static final Instant EVENT_TIME = Instant.parse("2024-11-04T10:00:00.123Z");
+
+    private static long scanJson(String json) {
+        return EventTimeScanner.scan(json.getBytes(StandardCharsets.UTF_8), WireFormat.JSON);
+    }
+
+    @Test
+    public void testScansSerializedValues() {
+        UserActivityNormalized full = new UserActivityNormalized("user1", "first", "last", 2000, 1.3521, 103.8198, "333001", EVENT_TIME);
+        UserActivityNormalized sparse = new UserActivityNormalized("user1", null, null, 2000, null, null, null, EVENT_TIME);
+
+        for (UserActivityNormalized value : new UserActivityNormalized[]{full, sparse}) {
+            assertEquals(EVENT_TIME.toEpochMilli(), EventTimeScanner.scan(
+                    JSONSerdeUtil.getSerde(UserActivityNormalized.class).serializer().serialize("topic", value), WireFormat.JSON));
+            assertEquals(EVENT_TIME.toEpochMilli(), EventTimeScanner.scan(
+                    new UserActivityNormalizedBinarySerde().serialize("topic", value), WireFormat.BINARY));
+        }
+    }
+
+    @Test
+    public void testJsonOnlyMatchesTopLevelField() {
+        assertEquals(EVENT_TIME.toEpochMilli(), scanJson("""
+                {"firstName": "\\"timestamp\\"", "nested": {"timestamp": "2000-01-01T00:00:00Z", "list": [1, "]"]},
+                 "steps": 2000, "flag": true, "timestamp" : "2024-11-04T10:00:00.123Z"}"""));
+    }
+
+    @Test
+    public void testJsonNumericTimestamp() {
+        assertEquals(EVENT_TIME.toEpochMilli(), scanJson("{\"timestamp\":1730714400.123000000}"));
+        assertEquals(1730714400000L, scanJson("{\"timestamp\":1730714400}"));
+    }
+
+    @Test
+    public void testMissingOrMalformed() {
+        assertEquals(-1, scanJson("{\"userId\":\"user1\"}"));
+        assertEquals(-1, scanJson("{\"timestamp\":null}"));
+        assertEquals(-1, scanJson("{\"userId\":\"us"));
+        assertEquals(-1, scanJson("not json"));
+        assertEquals(-1, EventTimeScanner.scan(new UserActivityNormalizedBinarySerde().serialize("topic",
+                new UserActivityNormalized("user1", null, null, 2000, null, null, null, null)), WireFormat.BINARY));
+        assertEquals(-1, EventTimeScanner.scan(new byte[]{1}, WireFormat.BINARY));
+    }
+}
@@ -0,0 +1,102 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.UserActivityNormalizer;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngressProjectionTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-11-04T10:15:30.123Z");
+
+    private static UserActivityNormalized ios(String json) {
+        return IngressProjection.iosDeserializer().deserialize("topic", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserActivityNormalized android(String json) {
+        return IngressProjection.androidDeserializer().deserialize("topic", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testIosMatchesBinding() {
+        UserActivityIos full = new UserActivityIos("first", "last", "1 Main Street", "user1", "male", 175, 70,
+                new UserActivityIos.PhysicalActivity(100, 100, 8, 250), 1.3521, 103.8198, "333001", TIMESTAMP,
+                "Asia/Singapore");
+        UserActivityIos sparse = new UserActivityIos("first", null, null, "user1", null, 0, 0,
+                new UserActivityIos.PhysicalActivity(0, 0, 0, 250), null, null, null, TIMESTAMP);
+
+        for (UserActivityIos activity : new UserActivityIos[]{full, sparse}) {
+            byte[] json = JSONSerdeUtil.getSerde(UserActivityIos.class).serializer().serialize("topic", activity);
+            assertEquals(UserActivityNormalizer.normalize(activity),
+                    IngressProjection.iosDeserializer().deserialize("topic", json));
+        }
+    }
+
+    @Test
+    public void testAndroidMatchesBinding() {
+        UserActivityAndroid full = new UserActivityAndroid(
+                new UserActivityAndroid.Person("first", "last", "1 Main Street", "user1", "female", 160, 55),
+                new UserActivityAndroid.Activity(100, 100, 8, 250),
+                new UserActivityAndroid.Location(1.3521, 103.8198, "333001"),
+                TIMESTAMP,
+                "America/New_York");
+        UserActivityAndroid noLocation = new UserActivityAndroid(
+                new UserActivityAndroid.Person("first", "last", null, "user1", null, 0, 0),
+                new UserActivityAndroid.Activity(0, 0, 0, 250),
+                null,
+                TIMESTAMP);
+
+        for (UserActivityAndroid activity : new UserActivityAndroid[]{full, noLocation}) {
+            byte[] json = JSONSerdeUtil.getSerde(UserActivityAndroid.class).serializer().serialize("topic", activity);
+            assertEquals(UserActivityNormalizer.normalize(activity),
+                    IngressProjection.androidDeserializer().deserialize("topic", json));
+        }
+    }
+
+    @Test
+    public void testSkipsUnknownSubtreesAndCoercesLikeBinding() {
+        // as sent by producers/producer.js: numeric pincode, plus fields nobody binds
+        UserActivityNormalized ios = ios("""
+                {"Extra": {"Nested": [{"UserId": "wrong"}, [1, 2]], "walking_steps": 1},
+                 "UserId": "user1", "UserFirstName": "first", "UserLastName": "last",
+                 "PhysicalActivity": {"Yoga_minutes": 100, "Extra": {"walking_steps": 1}, "walking_steps": "250"},
+                 "Geo_lat": 1.3521, "Geo_lon": null, "pincode": 333001, "event_timestamp": "2024-11-04T10:15:30.123Z"}""");
+
+        assertEquals(new UserActivityNormalized("user1", "first", "last", 250, 1.3521, null, "333001", TIMESTAMP), ios);
+    }
+
+    @Test
+    public void testTimestampFormats() {
+        assertEquals(TIMESTAMP, android("{\"ts\": \"2024-11-04T18:15:30.123+08:00\"}").timestamp());
+        assertEquals(TIMESTAMP, android("{\"ts\": 1730715330.123}").timestamp());
+        assertEquals(Instant.ofEpochSecond(1730715330), android("{\"ts\": 1730715330}").timestamp());
+        assertNull(android("{\"ts\": null, \"Person\": null, \"Location\": null}").timestamp());
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(RuntimeException.class, () -> ios("[1]"));
+        assertThrows(RuntimeException.class, () -> ios("{\"UserId\": \"us"));
+        assertThrows(RuntimeException.class, () -> android("{\"ts\": true}"));
+        assertNull(IngressProjection.iosDeserializer().deserialize("topic", null));
+    }
+
+    @Test
+    public void testUtcInstantFastPath() {
+        for (String text : new String[]{"2024-11-04T10:15:30Z", "2024-11-04T10:15:30.1Z", "2024-11-04T10:15:30.123Z",
+                "2024-11-04T10:15:30.123456789Z", "1969-12-31T23:59:59.999Z", "2024-02-29T00:00:00Z"}) {
+            assertEquals(Instant.parse(text), IngressProjection.utcInstant(text.toCharArray(), 0, text.length()), text);
+        }
+        for (String text : new String[]{"2024-11-04T10:15:30+08:00", "2024-11-04T10:15:30.Z", "2024-11-04T24:00:00Z",
+                "2023-02-29T00:00:00Z", "2024-11-04 10:15:30Z", "2024-11-04T10:15:30.1234567890Z"}) {
+            assertNull(IngressProjection.utcInstant(text.toCharArray(), 0, text.length()), text);
+        }
+        // offsets still go through the full parser
+        assertEquals(TIMESTAMP, android("{\"ts\": \"2024-11-04T18:15:30.123+08:00\"}").timestamp());
+    }
+}
@@ -0,0 +1,65 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopicSerdesTest {
+
+    @Test
+    public void testDefaultsToJson() {
+        TopicSerdes topicSerdes = new TopicSerdes(new AppConfig());
+
+        assertSame(JSONSerdeUtil.getSerde(UserActivityNormalized.class), topicSerdes.serde("topic", UserActivityNormalized.class));
+    }
+
+    @Test
+    public void testJsonLeavesOutMissingZone() {
+        Serde<UserActivityNormalized> serde = JSONSerdeUtil.getSerde(UserActivityNormalized.class);
+        Instant timestamp = Instant.parse("2024-11-04T10:00:00Z");
+        UserActivityNormalized withoutZone = new UserActivityNormalized("user1", "John", "Doe", 100, null, null, null, timestamp);
+        UserActivityNormalized withZone = new UserActivityNormalized("user1", "John", "Doe", 100, null, null, null, timestamp,
+                "Asia/Singapore");
+
+        // readers from before the zone was added fail on unknown properties
+        byte[] json = serde.serializer().serialize("topic", withoutZone);
+        assertFalse(new String(json, StandardCharsets.UTF_8).contains("zone"));
+        assertEquals(withoutZone, serde.deserializer().deserialize("topic", json));
+
+        json = serde.serializer().serialize("topic", withZone);
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"zone\":\"Asia/Singapore\""));
+        assertEquals(withZone, serde.deserializer().deserialize("topic", json));
+    }
+
+    @Test
+    public void testBinaryPerTopic() {
+        Properties props = new Properties();
+        props.put(AppConfig.WIRE_FORMAT_PREFIX + "binary-topic", "binary");
+        TopicSerdes topicSerdes = new TopicSerdes(new AppConfig(props));
+
+        assertInstanceOf(UserActivityNormalizedBinarySerde.class, topicSerdes.serde("binary-topic", UserActivityNormalized.class));
+        assertSame(JSONSerdeUtil.getSerde(UserActivityNormalized.class), topicSerdes.serde("json-topic", UserActivityNormalized.class));
+    }
+
+    @Test
+    public void testBinaryUnsupportedForIngress() {
+        Properties props = new Properties();
+        props.put(AppConfig.WIRE_FORMAT_PREFIX + "ingress", "binary");
+        TopicSerdes topicSerdes = new TopicSerdes(new AppConfig(props));
+
+        assertThrows(IllegalArgumentException.class, () -> topicSerdes.serde("ingress", UserActivityIos.class));
+    }
+
+    @Test
+    public void testEnvironmentName() {
+        assertEquals("STEPS_WIRE_FORMAT_USER_ACTIVITY_NORMALIZED", AppConfig.envName("wire.format.user-activity-normalized"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ronaldsuwandi.serde;
+
+import com.ronaldsuwandi.model.UserStepsDaily;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserStepsDailySerdeTest {
+    private final UserStepsDailySerde serde = new UserStepsDailySerde();
+
+    @Test
+    public void testRoundTrip() {
+        for (int steps : new int[]{0, 1, 127, 128, 2500, 16383, 16384, 1_000_000, Integer.MAX_VALUE, -1}) {
+            UserStepsDaily daily = new UserStepsDaily(steps);
+            assertEquals(daily, serde.deserialize("store", serde.serialize("store", daily)));
+        }
+    }
+
+    @Test
+    public void testSize() {
+        byte[] bytes = serde.serialize("store", new UserStepsDaily(2500));
+
+        assertEquals(UserStepsDailySerde.VERSION_1, bytes[0]);
+        assertEquals(3, bytes.length);
+        assertEquals(2, serde.serialize("store", new UserStepsDaily(100)).length);
+    }
+
+    @Test
+    public void testReadsLegacyJson() {
+        byte[] json = """
+                {"userId":"user1","steps":2500,"timestamp":"2024-11-04T00:00:00Z","label":"daily_medium_stepper"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        UserStepsDaily daily = serde.deserialize("store", json);
+
+        assertEquals(2500, daily.steps());
+        assertEquals("daily_medium_stepper", daily.label());
+        // rewritten in the lean layout
+        assertEquals(3, serde.serialize("store", daily).length);
+    }
+
+    @Test
+    public void testRejectsMalformedValues() {
+        assertThrows(SerializationException.class,
+                () -> serde.deserialize("store", "{\"userId\":\"user1\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SerializationException.class, () -> serde.deserialize("store", new byte[]{42, 1}));
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(serde.serialize("store", null));
+        assertNull(serde.deserialize("store", null));
+    }
+}
@@ -0,0 +1,129 @@
+package com.ronaldsuwandi.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronaldsuwandi.model.WeeklyLabelHistory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeeklyLabelHistorySerdeTest {
+    private final WeeklyLabelHistorySerde serde = new WeeklyLabelHistorySerde();
+
+    private static NavigableMap<Long, String> sevenDays() {
+        long day = Instant.parse("2024-11-04T10:00:00Z").truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        NavigableMap<Long, String> history = new TreeMap<>();
+        for (int i = 0; i < 7; i++) {
+            history.put(day + Duration.ofDays(i).toMillis(), i % 2 == 0 ? "daily_high_stepper" : "daily_medium_stepper");
+        }
+        history.put(day + Duration.ofDays(3).toMillis(), "daily_low_stepper");
+        return history;
+    }
+
+    private static WeeklyLabelHistory toHistory(NavigableMap<Long, String> entries) {
+        WeeklyLabelHistory history = new WeeklyLabelHistory();
+        entries.forEach(history::put);
+        return history;
+    }
+
+    private static void assertSameHistory(WeeklyLabelHistory expected, WeeklyLabelHistory actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.mediumOrHighDays(), actual.mediumOrHighDays());
+        assertEquals(expected.isContinuous(), actual.isContinuous());
+        assertEquals(expected.lastEmittedLabel(), actual.lastEmittedLabel());
+    }
+
+    @Test
+    public void testRoundTripDayAligned() {
+        WeeklyLabelHistory history = toHistory(sevenDays());
+
+        byte[] bytes = serde.serializer().serialize("topic", history);
+
+        assertEquals(WeeklyLabelHistorySerde.VERSION_2, bytes[0]);
+        assertEquals(WeeklyLabelHistorySerde.FLAG_DAY_ALIGNED, bytes[1]);
+        assertTrue(bytes.length < 20, "binary layout should be a handful of bytes but was " + bytes.length);
+        WeeklyLabelHistory decoded = serde.deserializer().deserialize("topic", bytes);
+        assertSameHistory(history, decoded);
+        assertEquals(6, decoded.mediumOrHighDays());
+        assertTrue(decoded.isContinuous());
+    }
+
+    @Test
+    public void testRoundTripUnalignedWithGap() {
+        NavigableMap<Long, String> entries = new TreeMap<>();
+        entries.put(1L, "daily_medium_stepper");
+        entries.put(2L, "");
+        entries.put(Duration.ofDays(4).toMillis(), "daily_low_stepper");
+        WeeklyLabelHistory history = toHistory(entries);
+
+        byte[] bytes = serde.serializer().serialize("topic", history);
+
+        assertEquals(0, bytes[1]);
+        WeeklyLabelHistory decoded = serde.deserializer().deserialize("topic", bytes);
+        assertSameHistory(history, decoded);
+        assertFalse(decoded.isContinuous());
+    }
+
+    @Test
+    public void testRoundTripEmpty() {
+        WeeklyLabelHistory history = new WeeklyLabelHistory();
+
+        byte[] bytes = serde.serializer().serialize("topic", history);
+
+        assertSameHistory(history, serde.deserializer().deserialize("topic", bytes));
+    }
+
+    @Test
+    public void testReadsLegacyJson() throws Exception {
+        NavigableMap<Long, String> entries = sevenDays();
+        byte[] legacy = new ObjectMapper().writeValueAsBytes(entries);
+
+        assertSameHistory(toHistory(entries), serde.deserializer().deserialize("topic", legacy));
+        assertTrue(serde.serializer().serialize("topic", toHistory(entries)).length * 10 < legacy.length);
+    }
+
+    @Test
+    public void testUnknownLabelStoredAsNone() {
+        NavigableMap<Long, String> entries = sevenDays();
+        entries.put(entries.lastKey(), "some_new_label");
+
+        WeeklyLabelHistory decoded = serde.deserializer().deserialize("topic", serde.serializer().serialize("topic", toHistory(entries)));
+
+        assertEquals("", decoded.label(decoded.size() - 1));
+        assertEquals(5, decoded.mediumOrHighDays());
+    }
+
+    @Test
+    public void testRoundTripLastEmitted() {
+        WeeklyLabelHistory history = toHistory(sevenDays());
+        history.setLastEmittedLabel("low");
+
+        WeeklyLabelHistory decoded = serde.deserializer().deserialize("topic", serde.serializer().serialize("topic", history));
+
+        assertEquals("low", decoded.lastEmittedLabel());
+    }
+
+    @Test
+    public void testReadsVersion1() {
+        // [version 1][day aligned][1 entry][epoch day 10 as zigzag varlong][medium]
+        byte[] version1 = {WeeklyLabelHistorySerde.VERSION_1, WeeklyLabelHistorySerde.FLAG_DAY_ALIGNED, 1, 20, WeeklyLabelHistory.LABEL_MEDIUM};
+
+        WeeklyLabelHistory decoded = serde.deserializer().deserialize("topic", version1);
+
+        assertEquals(1, decoded.size());
+        assertEquals(Duration.ofDays(10).toMillis(), decoded.windowStart(0));
+        assertEquals("daily_medium_stepper", decoded.label(0));
+        assertNull(decoded.lastEmittedLabel());
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(serde.serializer().serialize("topic", null));
+        assertNull(serde.deserializer().deserialize("topic", null));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ronaldsuwandi.store;
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.query.RangeQuery;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapKeyValueStoreTest {
+    private OffHeapKeyValueStore store;
+
+    private static Bytes key(String key) {
+        return Bytes.wrap(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @BeforeEach
+    public void setup() {
+        store = new OffHeapKeyValueStore("test-store", 16, 16, 8);
+    }
+
+    @Test
+    public void testPutGetDelete() {
+        assertNull(store.get(key("user1")));
+
+        store.put(key("user1"), new byte[]{1, 2, 3});
+        assertArrayEquals(new byte[]{1, 2, 3}, store.get(key("user1")));
+
+        store.put(key("user1"), new byte[]{4});
+        assertArrayEquals(new byte[]{4}, store.get(key("user1")));
+        assertEquals(1, store.approximateNumEntries());
+
+        assertArrayEquals(new byte[]{4}, store.delete(key("user1")));
+        assertNull(store.get(key("user1")));
+        assertNull(store.delete(key("user1")));
+        assertEquals(0, store.approximateNumEntries());
+    }
+
+    @Test
+    public void testCloseReleasesTable() {
+        store.put(key("user1"), new byte[]{1});
+        assertTrue(store.offHeapBytes() > 0);
+
+        store.close();
+        assertEquals(0, store.offHeapBytes());
+        assertEquals(0, store.approximateNumEntries());
+    }
+
+    @Test
+    public void testPutNullDeletes() {
+        store.put(key("user1"), new byte[]{1});
+        store.put(key("user1"), null);
+        assertNull(store.get(key("user1")));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertNull(store.putIfAbsent(key("user1"), new byte[]{1}));
+        assertArrayEquals(new byte[]{1}, store.putIfAbsent(key("user1"), new byte[]{2}));
+        assertArrayEquals(new byte[]{1}, store.get(key("user1")));
+    }
+
+    @Test
+    public void testOversizedEntriesOverflowToHeap() {
+        Bytes longKey = key("a-user-id-longer-than-sixteen-bytes");
+        store.put(longKey, new byte[]{1});
+        assertArrayEquals(new byte[]{1}, store.get(longKey));
+
+        // value grows past the slot and then shrinks back
+        store.put(key("user1"), new byte[]{1});
+        store.put(key("user1"), new byte[20]);
+        assertArrayEquals(new byte[20], store.get(key("user1")));
+        assertEquals(2, store.approximateNumEntries());
+        store.put(key("user1"), new byte[]{2});
+        assertArrayEquals(new byte[]{2}, store.get(key("user1")));
+        assertEquals(2, store.approximateNumEntries());
+
+        assertArrayEquals(new byte[]{1}, store.delete(longKey));
+        assertNull(store.get(longKey));
+    }
+
+    @Test
+    public void testRangeIsOrdered() {
+        store.put(key("c"), new byte[]{3});
+        store.put(key("a"), new byte[]{1});
+        store.put(key("b"), new byte[]{2});
+        store.put(key("d"), new byte[]{4});
+
+        List<String> keys = new ArrayList<>();
+        try (KeyValueIterator<Bytes, byte[]> iterator = store.range(key("b"), key("d"))) {
+            assertEquals(key("b"), iterator.peekNextKey());
+            iterator.forEachRemaining(entry -> keys.add(new String(entry.key.get(), StandardCharsets.UTF_8)));
+        }
+        assertEquals(List.of("b", "c", "d"), keys);
+
+        keys.clear();
+        try (KeyValueIterator<Bytes, byte[]> iterator = store.reverseAll()) {
+            iterator.forEachRemaining(entry -> keys.add(new String(entry.key.get(), StandardCharsets.UTF_8)));
+        }
+        assertEquals(List.of("d", "c", "b", "a"), keys);
+    }
+
+    @Test
+    public void testSlotScanVisitsEveryKeyOnce() {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            store.put(key("user-" + i), new byte[]{1});
+            expected.add("user-" + i);
+        }
+        // kept in the overflow, handed out with the last slice
+        store.put(key("a-user-id-longer-than-sixteen-bytes"), new byte[]{1});
+        expected.add("a-user-id-longer-than-sixteen-bytes");
+
+        List<String> keys = new ArrayList<>();
+        int slot = 0;
+        int slices = 0;
+        do {
+            SlotScanQuery.Result slice = store.query(new SlotScanQuery(slot, 7), PositionBound.unbounded(),
+                    new QueryConfig(false)).getResult();
+            slice.keys().forEach(key -> keys.add(new String(key.get(), StandardCharsets.UTF_8)));
+            assertTrue(slice.keys().size() <= (slice.nextSlot() < 0 ? 8 : 7), "slice of " + slice.keys().size());
+            slot = slice.nextSlot();
+            slices++;
+        } while (slot >= 0);
+
+        assertEquals(expected.size(), keys.size());
+        assertEquals(expected, new HashSet<>(keys));
+        assertTrue(slices >= 8, slices + " slices");
+        assertFalse(store.query(RangeQuery.<Bytes, byte[]>withNoBounds(), PositionBound.unbounded(), new QueryConfig(false)).isSuccess());
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomUpdates() {
+        // grows from 16 slots and churns deletes so both resize and deleted slot reuse are exercised
+        Random random = new Random(42);
+        Map<Bytes, byte[]> reference = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            Bytes key = key("user-" + random.nextInt(2_000));
+            if (random.nextInt(4) == 0) {
+                assertArrayEquals(reference.remove(key), store.delete(key));
+            } else {
+                byte[] value = new byte[random.nextInt(10)];
+                random.nextBytes(value);
+                reference.put(key, value);
+                store.put(key, value);
+            }
+        }
+
+        assertEquals(reference.size(), store.approximateNumEntries());
+        for (Map.Entry<Bytes, byte[]> entry : reference.entrySet()) {
+            assertArrayEquals(entry.getValue(), store.get(entry.getKey()));
+        }
+        int count = 0;
+        try (KeyValueIterator<Bytes, byte[]> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<Bytes, byte[]> entry = iterator.next();
+                assertArrayEquals(reference.get(entry.key), entry.value);
+                count++;
+            }
+        }
+        assertEquals(reference.size(), count);
+    }
+}
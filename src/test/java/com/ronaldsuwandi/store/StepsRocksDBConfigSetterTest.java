@@ -0,0 +1,64 @@
+package com.ronaldsuwandi.store;
+
+import com.ronaldsuwandi.processor.ConsecutiveStepsProcessor;
+import com.ronaldsuwandi.transformer.UserStepsAggregator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepsRocksDBConfigSetterTest {
+
+    @BeforeAll
+    public static void loadLibrary() {
+        RocksDB.loadLibrary();
+    }
+
+    private static BlockBasedTableConfig configure(String storeName, Options options) {
+        options.setTableFormatConfig(new BlockBasedTableConfig());
+        StepsRocksDBConfigSetter setter = new StepsRocksDBConfigSetter();
+        setter.setConfig(storeName, options, Map.of());
+        return (BlockBasedTableConfig) options.tableFormatConfig();
+    }
+
+    @Test
+    public void testPointLookupProfile() {
+        try (Options options = new Options()) {
+            BlockBasedTableConfig tableConfig = configure(ConsecutiveStepsProcessor.STORE_NAME, options);
+
+            assertEquals(StepsRocksDBConfigSetter.POINT_LOOKUP_BLOCK_SIZE, tableConfig.blockSize());
+            assertEquals(DataBlockIndexType.kDataBlockBinaryAndHash, tableConfig.dataBlockIndexType());
+            assertNotNull(tableConfig.filterPolicy());
+            assertTrue(tableConfig.cacheIndexAndFilterBlocks());
+        }
+    }
+
+    @Test
+    public void testWindowSegmentProfile() {
+        try (Options options = new Options()) {
+            BlockBasedTableConfig tableConfig = configure(UserStepsAggregator.STORE_NAME + ".1730678400000", options);
+
+            assertEquals(StepsRocksDBConfigSetter.SCAN_BLOCK_SIZE, tableConfig.blockSize());
+            assertEquals(2, options.maxWriteBufferNumber());
+            assertNotNull(tableConfig.filterPolicy());
+        }
+    }
+
+    @Test
+    public void testMemoryUsageReported() {
+        try (Options options = new Options()) {
+            configure("some-other-store", options);
+
+            StepsRocksDBConfigSetter.MemoryUsage usage = StepsRocksDBConfigSetter.memoryUsage();
+            assertNotNull(usage);
+            assertTrue(usage.blockCacheCapacity() > 0);
+            assertTrue(usage.blockCacheUsage() <= usage.blockCacheCapacity());
+        }
+    }
+}
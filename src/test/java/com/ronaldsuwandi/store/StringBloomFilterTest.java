@@ -0,0 +1,48 @@
+package com.ronaldsuwandi.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        StringBloomFilter filter = new StringBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("id-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("id-" + i), "missing id-" + i);
+        }
+        assertEquals(10_000, filter.entries());
+    }
+
+    @Test
+    public void testFalsePositiveRateNearTarget() {
+        StringBloomFilter filter = new StringBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("id-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positive rate too high: " + falsePositives / 100_000.0);
+        // ~9.6 bits per entry and 7 hashes for 1%
+        assertEquals(7, filter.hashCount());
+        assertTrue(filter.sizeInBytes() < 13_000);
+    }
+
+    @Test
+    public void testClear() {
+        StringBloomFilter filter = new StringBloomFilter(100, 0.01);
+        filter.put("id-1");
+        filter.clear();
+
+        assertFalse(filter.mightContain("id-1"));
+        assertEquals(0, filter.entries());
+    }
+}
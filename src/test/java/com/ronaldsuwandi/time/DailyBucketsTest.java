@@ -0,0 +1,55 @@
+package com.ronaldsuwandi.time;
+
+import com.ronaldsuwandi.model.UserActivityNormalized;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DailyBucketsTest {
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static UserActivityNormalized activity(LocalDateTime localTime, String zone) {
+        Instant timestamp = localTime.atZone(zone != null ? ZoneId.of(zone) : NEW_YORK).toInstant();
+        return new UserActivityNormalized("user1", "first", "last", 2000, null, null, null, timestamp, zone);
+    }
+
+    @Test
+    public void testUtcIgnoresZone() {
+        UserActivityNormalized lateEvening = activity(LocalDateTime.parse("2024-11-04T23:30:00"), "America/New_York");
+
+        assertEquals(Instant.parse("2024-11-05T00:00:00Z"), DailyBuckets.UTC.day(lateEvening));
+        assertEquals(LocalDate.parse("2024-11-05"), DailyBuckets.UTC.localDate(lateEvening));
+    }
+
+    @Test
+    public void testLocalDaysAcrossDst() {
+        DailyBuckets buckets = DailyBuckets.local("UTC");
+        // 2024-03-10 has 23 hours and 2024-11-03 has 25 hours in New York
+        for (String date : new String[]{"2024-03-10", "2024-11-03"}) {
+            LocalDate day = LocalDate.parse(date);
+            long expected = day.toEpochDay() * ZoneOffsetTable.DAY_MS;
+
+            assertEquals(expected, buckets.dayStart(activity(day.atTime(0, 30), "America/New_York")), date);
+            assertEquals(expected, buckets.dayStart(activity(day.atTime(23, 30), "America/New_York")), date);
+            // neighbouring days are exactly a day apart on the local timeline
+            assertEquals(expected - ZoneOffsetTable.DAY_MS,
+                    buckets.dayStart(activity(day.minusDays(1).atTime(23, 30), "America/New_York")), date);
+            assertEquals(expected + ZoneOffsetTable.DAY_MS,
+                    buckets.dayStart(activity(day.plusDays(1).atTime(0, 30), "America/New_York")), date);
+            assertEquals(day, buckets.localDate(activity(day.atTime(23, 30), "America/New_York")));
+        }
+    }
+
+    @Test
+    public void testDefaultZone() {
+        DailyBuckets buckets = DailyBuckets.local("America/New_York");
+
+        assertEquals(LocalDate.parse("2024-11-04"), buckets.localDate(activity(LocalDateTime.parse("2024-11-04T23:30:00"), null)));
+        assertEquals(NEW_YORK, buckets.zone(activity(LocalDateTime.parse("2024-11-04T23:30:00"), null)).zone());
+    }
+}
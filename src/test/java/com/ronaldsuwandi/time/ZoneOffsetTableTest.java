@@ -0,0 +1,60 @@
+package com.ronaldsuwandi.time;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZoneOffsetTableTest {
+    private static final String[] ZONES = {"UTC", "America/New_York", "Europe/London", "Australia/Sydney",
+            "Australia/Lord_Howe", "Asia/Kolkata", "Asia/Kathmandu", "Pacific/Kiritimati", "Pacific/Apia", "+05:30"};
+
+    private static int expectedOffsetMs(String zone, long epochMs) {
+        return ZoneId.of(zone).getRules().getOffset(Instant.ofEpochMilli(epochMs)).getTotalSeconds() * 1000;
+    }
+
+    @Test
+    public void testMatchesZoneRules() {
+        Random random = new Random(42);
+        for (String zone : ZONES) {
+            ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+            for (int i = 0; i < 10_000; i++) {
+                // 1960 to 2110, so both sides of the table are covered too
+                long epochMs = -315_619_200_000L + (long) (random.nextDouble() * 4_733_510_400_000L);
+                assertEquals(expectedOffsetMs(zone, epochMs), table.offsetMs(epochMs), zone + " at " + Instant.ofEpochMilli(epochMs));
+            }
+        }
+    }
+
+    @Test
+    public void testAroundTransitions() {
+        for (String zone : ZONES) {
+            ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+            ZoneOffsetTransition transition = ZoneId.of(zone).getRules().nextTransition(Instant.parse("2024-01-01T00:00:00Z"));
+            if (transition == null) {
+                continue;
+            }
+            long at = transition.toEpochSecond() * 1000;
+            assertEquals(transition.getOffsetBefore().getTotalSeconds() * 1000, table.offsetMs(at - 1), zone);
+            assertEquals(transition.getOffsetAfter().getTotalSeconds() * 1000, table.offsetMs(at), zone);
+        }
+    }
+
+    @Test
+    public void testLocalDayStart() {
+        ZoneOffsetTable newYork = ZoneOffsetTable.of("America/New_York");
+        // 2024-11-03 23:30 EST is 2024-11-04 04:30 UTC
+        long day = newYork.localDayStart(Instant.parse("2024-11-04T04:30:00Z").toEpochMilli());
+        assertEquals(Instant.parse("2024-11-03T00:00:00Z").toEpochMilli(), day);
+    }
+
+    @Test
+    public void testSharedAndUnknownZones() {
+        assertSame(ZoneOffsetTable.of("Asia/Singapore"), ZoneOffsetTable.of("Asia/Singapore"));
+        assertSame(ZoneOffsetTable.UTC, ZoneOffsetTable.of("Not/AZone"));
+    }
+}
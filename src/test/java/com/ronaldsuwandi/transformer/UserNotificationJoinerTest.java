@@ -5,6 +5,7 @@ import com.ronaldsuwandi.model.UserNotification;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,36 +33,20 @@ public class UserNotificationJoinerTest {
     }
 
     @Test
-    public void testDebounceNotification_NoExistingNotification() {
-        UserNotification newNotification = new UserNotification(
-                "user1", "NOTIF-ID", "Time for a juice nearby!", Instant.now());
-
-        UserNotification result = UserNotificationJoiner.debounceNotification(newNotification, null);
-
-        assertNotNull(result);
-        assertEquals(newNotification, result);
-    }
-
-    @Test
-    public void testDebounceNotification_ExistingNotificationTooRecent() {
-        Instant now = Instant.now();
-        UserNotification newNotification = new UserNotification("user1", "NOTIF-ID", "Time for a juice nearby!", now);
-        UserNotification existingNotification = new UserNotification("user1", "NOTIF-ID", "Recent juice offer", now.minusSeconds(3));
-
-        UserNotification result = UserNotificationJoiner.debounceNotification(newNotification, existingNotification);
-
-        assertNull(result, "Notification should be debounced if existing notification is too recent");
-    }
-
-    @Test
-    public void testDebounceNotification_ExistingNotificationOldEnough() {
-        Instant now = Instant.now();
-        UserNotification newNotification = new UserNotification("user1", "NOTIF-ID", "Time for a juice nearby!", now);
-        UserNotification existingNotification = new UserNotification("user1", "NOTIF-ID", "Older juice offer", now.minusSeconds(3600)); // 1 hour ago
-
-        UserNotification result = UserNotificationJoiner.debounceNotification(newNotification, existingNotification);
-
-        assertNotNull(result, "Notification should not be debounced if existing notification is old enough");
-        assertEquals(newNotification, result);
+    public void testNotificationIdDeterministicPerDay() {
+        Instant morning = Instant.parse("2024-11-04T08:00:00Z");
+        UserNotification first = UserNotificationJoiner.joinWithWeeklyAggregatedLabel(
+                new UserActivityNormalized("user1", "first", "last", 3000, null, null, null, morning), "medium_or_high");
+        UserNotification sameDay = UserNotificationJoiner.joinWithWeeklyAggregatedLabel(
+                new UserActivityNormalized("user1", "first", "last", 5000, null, null, null, morning.plusSeconds(3600)), "medium_or_high");
+        UserNotification nextDay = UserNotificationJoiner.joinWithWeeklyAggregatedLabel(
+                new UserActivityNormalized("user1", "first", "last", 3000, null, null, null, morning.plusSeconds(86400)), "medium_or_high");
+
+        assertEquals(first.notificationId(), sameDay.notificationId());
+        assertNotEquals(first.notificationId(), nextDay.notificationId());
+        assertEquals(UserNotificationJoiner.notificationId("user1", UserNotificationJoiner.CAMPAIGN, LocalDate.of(2024, 11, 4)),
+                first.notificationId());
+        assertNotEquals(first.notificationId(),
+                UserNotificationJoiner.notificationId("user2", UserNotificationJoiner.CAMPAIGN, LocalDate.of(2024, 11, 4)));
     }
 }
@@ -9,7 +9,6 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -25,7 +24,7 @@ public class UserStepsAggregatorTest {
     @ParameterizedTest
     @MethodSource("provideAggregations")
     public void testAggregation(int initialSteps, int additionalSteps, int expectedSteps, String expectedLabel) {
-        UserStepsDaily initialAggregate = new UserStepsDaily("user1", initialSteps, Instant.now(), "");
+        UserStepsDaily initialAggregate = new UserStepsDaily(initialSteps);
         UserActivityNormalized activity = new UserActivityNormalized("user1", "firstname", "lastname", additionalSteps, null, null, null, Instant.now());
 
         UserStepsDaily result = aggregator.apply("user1", activity, initialAggregate);
@@ -46,13 +45,10 @@ public class UserStepsAggregatorTest {
     }
 
     @Test
-    public void testAggregationResetsDay() {
-        Instant timestamp = Instant.now();
-        UserStepsDaily initialAggregate = new UserStepsDaily("user1", 1500, timestamp, "daily_medium_stepper");
-        UserActivityNormalized activity = new UserActivityNormalized("user1", "firstname", "lastname", 400, null, null, null, timestamp.plus(1, ChronoUnit.SECONDS));
-
-        UserStepsDaily result = aggregator.apply("user1", activity, initialAggregate);
-
-        assertEquals(timestamp.truncatedTo(ChronoUnit.DAYS), result.timestamp()); // Ensure day is truncated correctly
+    public void testLabelFollowsThresholds() {
+        assertEquals("daily_low_stepper", new UserStepsDaily(999).label());
+        assertEquals("daily_medium_stepper", new UserStepsDaily(1000).label());
+        assertEquals("daily_medium_stepper", new UserStepsDaily(4999).label());
+        assertEquals("daily_high_stepper", new UserStepsDaily(5000).label());
     }
 }
@@ -0,0 +1,94 @@
+package com.ronaldsuwandi.workload;
+
+import com.ronaldsuwandi.config.AppConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MacroBenchmarkTest {
+
+    private static MacroBenchmarkReport report(Map<String, String> settings, double... recordsPerSecond) {
+        List<MacroBenchmarkReport.Run> runs = new ArrayList<>();
+        String[] modes = {"SPLIT", "FUSED"};
+        for (int i = 0; i < recordsPerSecond.length; i++) {
+            runs.add(new MacroBenchmarkReport.Run(modes[i], 1000, 1000, recordsPerSecond[i], 500, 1024, 10, 2, 3));
+        }
+        return new MacroBenchmarkReport(settings, "21", 1, runs);
+    }
+
+    @Test
+    public void testGate() {
+        Map<String, String> settings = Map.of("users", "10");
+        MacroBenchmarkReport baseline = report(settings, 10_000, 20_000);
+
+        assertTrue(MacroBenchmarkGate.check(baseline, report(settings, 9_000, 25_000), 0.15).isEmpty());
+        List<String> failures = MacroBenchmarkGate.check(baseline, report(settings, 10_000, 16_000), 0.15);
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).startsWith("FUSED"));
+        assertEquals(1, MacroBenchmarkGate.check(baseline, report(settings, 10_000), 0.15).size(),
+                "a mode in the baseline must be in the result");
+        assertEquals(1, MacroBenchmarkGate.check(baseline, report(Map.of("users", "20"), 10_000, 20_000), 0.15).size(),
+                "results of another workload are not comparable");
+    }
+
+    @Test
+    public void testReportRoundTrip(@TempDir Path directory) throws Exception {
+        MacroBenchmarkReport report = report(Map.of("users", "10", "hours", "24"), 1234.5, 678.9);
+        Path path = directory.resolve("nested/result.json");
+        report.write(path);
+        assertEquals(report, MacroBenchmarkReport.read(path));
+    }
+
+    @Test
+    public void testRunsOnEmbeddedBroker() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(WorkloadSpec.USERS, "8");
+        props.setProperty(WorkloadSpec.HOURS, String.valueOf(8 * 24));
+        props.setProperty(WorkloadSpec.MIX, "HIGH:1");
+        props.setProperty(MacroBenchmark.MODES, "FUSED");
+        props.setProperty(MacroBenchmark.PARTITIONS, "2");
+        props.setProperty(MacroBenchmark.REPEATS, "1");
+
+        MacroBenchmarkReport report = MacroBenchmark.run(props);
+
+        assertEquals("8", report.settings().get(WorkloadSpec.USERS));
+        MacroBenchmarkReport.Run run = report.run("FUSED");
+        assertEquals(8 * 8 * 24, run.records());
+        assertTrue(run.recordsPerSecond() > 0);
+        assertTrue(run.allocatedBytesPerRecord() > 0);
+        assertTrue(run.stateDirBytes() > 0);
+        // every user is a high stepper for eight days
+        assertEquals(8, run.notifications());
+    }
+
+    @Test
+    public void testThroughputScalesWithInstancesAndThreads() throws Exception {
+        int workers = 4;
+        // the broker shares the machine with the stream threads, scaling only shows with a core to spare per thread
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2 * workers, "needs " + 2 * workers + " cores");
+        Properties props = new Properties();
+        props.setProperty(WorkloadSpec.USERS, "1000");
+        props.setProperty(MacroBenchmark.MODES, "FUSED");
+        props.setProperty(MacroBenchmark.PARTITIONS, String.valueOf(workers));
+        props.setProperty(MacroBenchmark.REPEATS, "1");
+
+        MacroBenchmarkReport.Run single = MacroBenchmark.run(props).run("FUSED");
+        props.setProperty(MacroBenchmark.INSTANCES, "2");
+        props.setProperty(AppConfig.STREAMS_NUM_THREADS, String.valueOf(workers / 2));
+        MacroBenchmarkReport.Run scaled = MacroBenchmark.run(props).run("FUSED");
+
+        // users stay on their partition whoever processes it
+        assertEquals(single.notifications(), scaled.notifications());
+        assertTrue(scaled.recordsPerSecond() >= 0.6 * workers * single.recordsPerSecond(),
+                String.format("%.0f records/s on %d threads, %.0f on one", scaled.recordsPerSecond(), workers,
+                        single.recordsPerSecond()));
+    }
+}
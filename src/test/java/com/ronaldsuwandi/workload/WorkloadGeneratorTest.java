@@ -0,0 +1,157 @@
+package com.ronaldsuwandi.workload;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.TopologyMode;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.model.UserNotification;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import com.ronaldsuwandi.serde.TopicSerdes;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadGeneratorTest {
+
+    private static WorkloadSpec spec(String... settings) {
+        Properties props = new Properties();
+        for (String setting : settings) {
+            String[] parts = setting.split("=", 2);
+            props.setProperty(parts[0], parts[1]);
+        }
+        return WorkloadSpec.from(props);
+    }
+
+    private static byte[] digest(WorkloadSpec spec) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        new WorkloadGenerator(spec).generate((topic, key, value, timestamp) -> {
+            digest.update(topic.getBytes());
+            digest.update(key.getBytes());
+            digest.update(value);
+            digest.update(Long.toString(timestamp).getBytes());
+        });
+        return digest.digest();
+    }
+
+    @Test
+    public void testReproducible() throws Exception {
+        WorkloadSpec spec = spec("users=200", "hours=48");
+        assertArrayEquals(digest(spec), digest(spec));
+        assertFalse(Arrays.equals(digest(spec), digest(spec("users=200", "hours=48", "seed=7"))));
+    }
+
+    @Test
+    public void testUserTraitsStableAcrossPopulationSizes() {
+        WorkloadPopulation small = new WorkloadPopulation(spec("users=100"));
+        WorkloadPopulation large = new WorkloadPopulation(spec("users=100000"));
+        for (int user = 0; user < small.size(); user++) {
+            assertEquals(small.userId(user), large.userId(user));
+            assertEquals(small.ios(user), large.ios(user));
+        }
+    }
+
+    @Test
+    public void testMixAndRates() {
+        WorkloadSpec spec = spec("users=20000", "hours=5", "mix=HIGH:1,MEDIUM:3", "ios.share=0.8",
+                "location.rate=0.3", "out.of.order.rate=0.1", "late.rate=0.05");
+        WorkloadGenerator generator = new WorkloadGenerator(spec);
+        Map<UserProfile, Integer> profiles = new EnumMap<>(UserProfile.class);
+        for (int user = 0; user < spec.users(); user++) {
+            profiles.merge(generator.population().profile(user), 1, Integer::sum);
+        }
+        assertEquals(Set.of(UserProfile.HIGH, UserProfile.MEDIUM), profiles.keySet());
+        assertEquals(0.25, profiles.get(UserProfile.HIGH) / (double) spec.users(), 0.02);
+
+        long[] arrivals = {Long.MIN_VALUE};
+        WorkloadSummary summary = generator.generate((topic, key, value, timestamp) -> {
+            // arrival order is what the producers would send in, it never goes back
+            assertTrue(timestamp >= arrivals[0]);
+            arrivals[0] = timestamp;
+        });
+        double events = summary.events();
+        assertEquals(spec.events(), summary.events());
+        assertEquals(0.8, summary.ios() / events, 0.02);
+        assertEquals(0.3, summary.withLocation() / events, 0.02);
+        assertEquals(0.1, summary.outOfOrder() / events, 0.01);
+        assertEquals(0.05, summary.late() / events, 0.01);
+    }
+
+    @Test
+    public void testFileSinkWritesPlatformPayloads(@TempDir Path directory) throws IOException {
+        WorkloadSpec spec = spec("users=50", "hours=24", "late.rate=0.1", "late.by.ms=" + Duration.ofDays(2).toMillis());
+        WorkloadSummary summary;
+        try (FileWorkloadSink sink = new FileWorkloadSink(directory)) {
+            summary = new WorkloadGenerator(spec).generate(sink);
+        }
+
+        List<String> iosLines = Files.readAllLines(FileWorkloadSink.file(directory, TopologyBuilder.TOPIC_USER_ACTIVITY_IOS));
+        List<String> androidLines = Files.readAllLines(FileWorkloadSink.file(directory, TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID));
+        assertEquals(summary.ios(), iosLines.size());
+        assertEquals(summary.android(), androidLines.size());
+
+        long steps = 0;
+        Instant earliest = Instant.MAX;
+        for (String line : iosLines) {
+            UserActivityIos activity = JSONSerdeUtil.getSerde(UserActivityIos.class).deserializer().deserialize("", line.getBytes());
+            steps += activity.activity().walkingSteps();
+            earliest = activity.timestamp().isBefore(earliest) ? activity.timestamp() : earliest;
+        }
+        for (String line : androidLines) {
+            UserActivityAndroid activity = JSONSerdeUtil.getSerde(UserActivityAndroid.class).deserializer().deserialize("", line.getBytes());
+            steps += activity.activity().walkingSteps();
+            earliest = activity.timestamp().isBefore(earliest) ? activity.timestamp() : earliest;
+        }
+        assertEquals(summary.steps(), steps);
+        assertTrue(earliest.isBefore(spec.start().minus(Duration.ofDays(1))), "late events carry an event time before the run");
+    }
+
+    @ParameterizedTest
+    @EnumSource(TopologyMode.class)
+    public void testDrivesTopology(TopologyMode mode) {
+        Properties config = new Properties();
+        config.put(AppConfig.TOPOLOGY_MODE, mode.name());
+        AppConfig appConfig = new AppConfig(config);
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+
+        // eight days of high steppers earn a notification, low steppers never do. The driver flushes its stores after
+        // every record, so this stays small
+        WorkloadSpec spec = spec("users=4", "hours=" + 8 * 24, "mix=HIGH:1,LOW:1", "out.of.order.rate=0", "late.rate=0");
+        WorkloadGenerator generator = new WorkloadGenerator(spec);
+        try (TopologyTestDriver driver = new TopologyTestDriver(new TopologyBuilder(appConfig).build(), props)) {
+            TestOutputTopic<String, UserNotification> notifications = driver.createOutputTopic(
+                    TopologyBuilder.TOPIC_USER_NOTIFICATIONS, new StringDeserializer(),
+                    new TopicSerdes(appConfig).serde(TopologyBuilder.TOPIC_USER_NOTIFICATIONS, UserNotification.class).deserializer());
+
+            generator.generate(new TestDriverWorkloadSink(driver));
+
+            Set<String> expected = new HashSet<>();
+            for (int user = 0; user < spec.users(); user++) {
+                if (generator.population().profile(user) == UserProfile.HIGH) {
+                    expected.add(generator.population().userId(user));
+                }
+            }
+            assertFalse(expected.isEmpty());
+            assertTrue(expected.size() < spec.users());
+            assertEquals(expected, new HashSet<>(notifications.readKeyValuesToMap().keySet()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ronaldsuwandi.query;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Load-test client for {@link UserStateServer}: issues {@code requests} queries for random users from
+ * {@code concurrency} virtual threads and reports throughput and latency percentiles per status.
+ * <pre>
+ * gradle queryLoadTest -PqueryLoadTestArgs="http://localhost:7070 MEDIUM-user- 100 20000 32 daily"
+ * </pre>
+ * Arguments: base url, user id prefix, number of users (ids are prefix + 1..users), requests, concurrency and
+ * optionally a part to query instead of the whole user.
+ */
+public class QueryLoadTest {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage: QueryLoadTest <baseUrl> <userPrefix> <users> <requests> <concurrency> [daily|weekly|notification]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        String userPrefix = args[1];
+        int users = Integer.parseInt(args[2]);
+        int requests = Integer.parseInt(args[3]);
+        int concurrency = Integer.parseInt(args[4]);
+        UserStatePart part = args.length > 5 ? UserStatePart.parse(args[5]) : null;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[] latencies = new long[requests];
+        AtomicLongArray statuses = new AtomicLongArray(600);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        String userId = userPrefix + (ThreadLocalRandom.current().nextInt(users) + 1);
+                        String path = part == null
+                                ? UserStateServer.CONTEXT + URLEncoder.encode(userId, StandardCharsets.UTF_8)
+                                : UserStateServer.path(userId, part);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(10))
+                                .GET()
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            statuses.incrementAndGet(response.statusCode());
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.1f s, %.0f req/s, %d failed%n", requests, elapsed / 1e9,
+                requests / (elapsed / 1e9), failures.get());
+        for (int status = 0; status < statuses.length(); status++) {
+            if (statuses.get(status) > 0) {
+                System.out.printf("  HTTP %d: %d%n", status, statuses.get(status));
+            }
+        }
+        System.out.printf("latency p50=%.2f ms p90=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ronaldsuwandi.workload;
+
+import kafka.server.KafkaConfig;
+import kafka.server.KafkaRaftServer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.common.utils.Time;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Single-node KRaft broker running in this JVM on free local ports, with its log in a temporary directory that is
+ * removed on {@link #close()}. Meant for benchmarks and tests that need the real consumer/producer path rather than
+ * {@code TopologyTestDriver}.
+ */
+public class EmbeddedKafka implements AutoCloseable {
+    private final Path logDir;
+    private final KafkaRaftServer server;
+    private final String bootstrapServers;
+
+    public EmbeddedKafka() {
+        try {
+            this.logDir = Files.createTempDirectory("embedded-kafka");
+            int port = freePort();
+            int controllerPort = freePort();
+            this.bootstrapServers = "localhost:" + port;
+
+            // what kafka-storage.sh format would write, the bootstrap metadata falls back to the broker's version
+            Properties meta = new Properties();
+            meta.put("version", "1");
+            meta.put("cluster.id", Uuid.randomUuid().toString());
+            meta.put("node.id", "1");
+            try (Writer writer = Files.newBufferedWriter(logDir.resolve("meta.properties"))) {
+                meta.store(writer, null);
+            }
+
+            Properties props = new Properties();
+            props.put("process.roles", "broker,controller");
+            props.put("node.id", "1");
+            props.put("controller.quorum.voters", "1@localhost:" + controllerPort);
+            props.put("listeners", "PLAINTEXT://localhost:" + port + ",CONTROLLER://localhost:" + controllerPort);
+            props.put("controller.listener.names", "CONTROLLER");
+            props.put("listener.security.protocol.map", "PLAINTEXT:PLAINTEXT,CONTROLLER:PLAINTEXT");
+            props.put("log.dirs", logDir.toString());
+            props.put("offsets.topic.replication.factor", "1");
+            props.put("offsets.topic.num.partitions", "1");
+            props.put("transaction.state.log.replication.factor", "1");
+            props.put("transaction.state.log.min.isr", "1");
+            props.put("group.initial.rebalance.delay.ms", "0");
+            // workloads are stamped with past event times, time retention would delete them a few minutes in
+            props.put("log.retention.ms", "-1");
+            this.server = new KafkaRaftServer(new KafkaConfig(props), Time.SYSTEM);
+            server.startup();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String bootstrapServers() {
+        return bootstrapServers;
+    }
+
+    public Admin admin() {
+        return Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+    }
+
+    public void createTopics(Collection<NewTopic> topics) {
+        try (Admin admin = admin()) {
+            admin.createTopics(topics).all().get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.shutdown();
+        server.awaitShutdown();
+        try (Stream<Path> files = Files.walk(logDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
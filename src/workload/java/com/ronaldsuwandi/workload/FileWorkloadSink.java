@@ -0,0 +1,56 @@
+package com.ronaldsuwandi.workload;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes events as newline-delimited JSON, one {@code <topic>.ndjson} file per topic in {@code directory}, one
+ * payload per line. Keys and arrival times are not kept: the user id and event time are in the payload.
+ */
+public class FileWorkloadSink implements WorkloadSink {
+    public static final String EXTENSION = ".ndjson";
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final Map<String, OutputStream> outputs = new HashMap<>();
+
+    public FileWorkloadSink(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public static Path file(Path directory, String topic) {
+        return directory.resolve(topic + EXTENSION);
+    }
+
+    @Override
+    public void send(String topic, String key, byte[] value, long timestamp) {
+        try {
+            OutputStream output = outputs.get(topic);
+            if (output == null) {
+                output = new BufferedOutputStream(Files.newOutputStream(file(directory, topic)), BUFFER_SIZE);
+                outputs.put(topic, output);
+            }
+            output.write(value);
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (OutputStream output : outputs.values()) {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ronaldsuwandi.workload;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.Map;
+
+/**
+ * Produces events to a Kafka cluster, keyed by user id and timestamped with their arrival time. Sends are
+ * asynchronous and batched, {@link #close()} waits until everything is acknowledged. A failed send fails the next
+ * call.
+ */
+public class KafkaWorkloadSink implements WorkloadSink {
+    private final KafkaProducer<String, byte[]> producer;
+    private volatile Exception failure;
+
+    public KafkaWorkloadSink(String bootstrapServers) {
+        this.producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+                // a starved single node broker rejected idempotent retries as out of sequence until the batches
+                // expired, one request in flight keeps the partition order on retries without it
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false,
+                ProducerConfig.ACKS_CONFIG, "1",
+                ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1),
+                new StringSerializer(), new ByteArraySerializer());
+    }
+
+    @Override
+    public void send(String topic, String key, byte[] value, long timestamp) {
+        checkFailure();
+        producer.send(new ProducerRecord<>(topic, null, timestamp, key, value), (metadata, e) -> {
+            if (e != null && failure == null) {
+                failure = e;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Failed to produce workload events", failure);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.ronaldsuwandi.workload;
+
+import ch.qos.logback.classic.Level;
+import com.ronaldsuwandi.TopicPlan;
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.TopologyMode;
+import com.ronaldsuwandi.config.AppConfig;
+import com.ronaldsuwandi.metrics.Stage;
+import com.ronaldsuwandi.metrics.StageMetrics;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Whole-pipeline throughput: a fixed synthetic population is produced to a fresh {@link EmbeddedKafka} broker, then
+ * the topology built by {@link TopologyBuilder} runs on {@link KafkaStreams} until every event has gone all the way
+ * through. Each topology mode gets its own broker and state directory.
+ * <pre>
+ * gradle macroBenchmark -PmacroBenchmarkArgs="users=5000 hours=168 modes=SPLIT,FUSED"
+ * </pre>
+ * Arguments are {@code key=value} pairs: the {@link WorkloadSpec} keys (2000 users by default), {@code modes},
+ * {@code partitions} of every topic, {@code instances} of the application sharing the work (each with the
+ * {@code streams.num.threads} setting, 1 by default), {@code repeats} of each mode of which the median run is reported,
+ * {@code out} for the report, and any application setting (e.g. {@code rolling.store.type=IN_MEMORY}).
+ * <p>
+ * {@code TopologyTestDriver} is not used here: it commits, and so flushes every store, after each record, which
+ * would be most of what gets measured.
+ */
+public class MacroBenchmark {
+    public static final String MODES = "modes";
+    public static final String PARTITIONS = "partitions";
+    public static final String INSTANCES = "instances";
+    public static final String REPEATS = "repeats";
+    public static final String OUT = "out";
+
+    private static final long POLL_MS = 100;
+    // processing is done once nothing is left to fetch and no record was processed for this long
+    private static final long QUIET_NANOS = Duration.ofSeconds(2).toNanos();
+    // progress while a run is going
+    private static final long REPORT_NANOS = Duration.ofSeconds(10).toNanos();
+    private static final long TIMEOUT_NANOS = Duration.ofMinutes(30).toNanos();
+
+    public static void main(String[] args) throws Exception {
+        Properties props = new Properties();
+        props.load(new StringReader(String.join("\n", args)));
+        quietLogging();
+
+        MacroBenchmarkReport report = run(props);
+        Path out = Path.of(props.getProperty(OUT, "build/macro-benchmark/result.json"));
+        report.write(out);
+        for (MacroBenchmarkReport.Run run : report.runs()) {
+            System.out.println("Median " + describe(run));
+        }
+        System.out.println("Report written to " + out);
+    }
+
+    public static MacroBenchmarkReport run(Properties args) throws Exception {
+        Properties props = new Properties();
+        props.putAll(args);
+        // large enough that startup and JIT warmup are a small share of the run
+        props.putIfAbsent(WorkloadSpec.USERS, "2000");
+        WorkloadSpec spec = WorkloadSpec.from(props);
+        int partitions = Integer.parseInt(props.getProperty(PARTITIONS, "4"));
+        int repeats = Integer.parseInt(props.getProperty(REPEATS, "3"));
+        int instances = Integer.parseInt(props.getProperty(INSTANCES, "1"));
+        List<TopologyMode> modes = Arrays.stream(props.getProperty(MODES, "SPLIT,FUSED").split(","))
+                .map(TopologyMode::parse)
+                .toList();
+
+        Map<String, String> settings = new TreeMap<>();
+        props.stringPropertyNames().forEach(key -> settings.put(key, props.getProperty(key)));
+        settings.remove(OUT);
+        settings.put(WorkloadSpec.SEED, String.valueOf(spec.seed()));
+        settings.put(WorkloadSpec.USERS, String.valueOf(spec.users()));
+        settings.put(WorkloadSpec.HOURS, String.valueOf(spec.hours()));
+        settings.put(WorkloadSpec.MIX, spec.mix().entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(",")));
+        settings.put(PARTITIONS, String.valueOf(partitions));
+        settings.put(REPEATS, String.valueOf(repeats));
+        settings.put(MODES, modes.stream().map(Enum::name).collect(Collectors.joining(",")));
+
+        List<MacroBenchmarkReport.Run> runs = new ArrayList<>();
+        for (TopologyMode mode : modes) {
+            List<MacroBenchmarkReport.Run> repeated = new ArrayList<>();
+            for (int i = 0; i < repeats; i++) {
+                repeated.add(run(spec, mode, props, partitions, instances));
+                System.out.println(describe(repeated.getLast()));
+            }
+            // the median run, a single run on a busy machine is too noisy to gate on
+            repeated.sort(Comparator.comparingDouble(MacroBenchmarkReport.Run::recordsPerSecond));
+            runs.add(repeated.get(repeated.size() / 2));
+        }
+        return new MacroBenchmarkReport(settings, Runtime.version().toString(),
+                Runtime.getRuntime().availableProcessors(), runs);
+    }
+
+    static MacroBenchmarkReport.Run run(WorkloadSpec spec, TopologyMode mode, Properties settings, int partitions,
+                                        int instances) throws Exception {
+        try (EmbeddedKafka kafka = new EmbeddedKafka()) {
+            kafka.createTopics(new TopicPlan(partitions, (short) 1).newTopics());
+            WorkloadSummary workload;
+            try (KafkaWorkloadSink sink = new KafkaWorkloadSink(kafka.bootstrapServers())) {
+                workload = new WorkloadGenerator(spec).generate(sink);
+            }
+
+            Properties appProps = new Properties();
+            appProps.putAll(settings);
+            appProps.put(AppConfig.TOPOLOGY_MODE, mode.name());
+
+            Stage normalize = StageMetrics.stage(StageMetrics.NORMALIZE);
+            long normalizedBefore = normalize.count();
+            List<Path> stateDirs = new ArrayList<>();
+            List<KafkaStreams> streams = new ArrayList<>();
+            try {
+                // every instance in this JVM, each with its own state directory as separate processes would have
+                for (int i = 0; i < instances; i++) {
+                    TopologyBuilder topologyBuilder = new TopologyBuilder(new AppConfig(appProps));
+                    Path stateDir = Files.createTempDirectory("macro-benchmark-state");
+                    stateDirs.add(stateDir);
+                    Properties props = new Properties();
+                    props.put(StreamsConfig.APPLICATION_ID_CONFIG, "steps-processor-macro-benchmark");
+                    props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.bootstrapServers());
+                    props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+                    props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+                    props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+                    topologyBuilder.configureStreams(props);
+                    streams.add(new KafkaStreams(topologyBuilder.build(), props));
+                }
+
+                long started = System.nanoTime();
+                streams.forEach(KafkaStreams::start);
+
+                long firstProgress = 0;
+                long lastProgress = 0;
+                long processed = 0;
+                Map<Long, Long> allocatedAtStart = Map.of();
+                long gcTimeAtStart = 0;
+                long gcCountAtStart = 0;
+                long lastReport = started;
+                while (true) {
+                    Thread.sleep(POLL_MS);
+                    long now = System.nanoTime();
+                    for (KafkaStreams instance : streams) {
+                        if (instance.state() == KafkaStreams.State.ERROR || instance.state() == KafkaStreams.State.NOT_RUNNING) {
+                            throw new IllegalStateException("Streams stopped while processing the workload: " + instance.state());
+                        }
+                    }
+                    if (now - started > TIMEOUT_NANOS) {
+                        throw new IllegalStateException("Workload not processed within " + Duration.ofNanos(TIMEOUT_NANOS));
+                    }
+
+                    long total = 0;
+                    boolean drained = true;
+                    for (KafkaStreams instance : streams) {
+                        total += sum(instance.metrics(), "stream-thread-metrics", "process-total");
+                        drained &= drained(instance.metrics());
+                    }
+                    if (total != processed) {
+                        if (firstProgress == 0) {
+                            firstProgress = now;
+                            allocatedAtStart = streamThreadAllocations();
+                            gcTimeAtStart = gcPauseMs();
+                            gcCountAtStart = gcCount();
+                        }
+                        processed = total;
+                        lastProgress = now;
+                    }
+                    long normalized = normalize.count() - normalizedBefore;
+                    if (normalized >= workload.events() && drained && now - lastProgress > QUIET_NANOS) {
+                        break;
+                    }
+                    if (now - lastReport > REPORT_NANOS) {
+                        System.out.printf("%s: %d of %d events normalized, %d records processed%s%n", mode, normalized,
+                                workload.events(), processed, drained ? ", input drained" : "");
+                        lastReport = now;
+                    }
+                }
+
+                long allocated = 0;
+                for (Map.Entry<Long, Long> entry : streamThreadAllocations().entrySet()) {
+                    allocated += entry.getValue() - allocatedAtStart.getOrDefault(entry.getKey(), 0L);
+                }
+                long elapsedNanos = Math.max(1, lastProgress - firstProgress);
+                return new MacroBenchmarkReport.Run(
+                        mode.name(),
+                        workload.events(),
+                        elapsedNanos / 1_000_000,
+                        workload.events() / (elapsedNanos / 1e9),
+                        (double) allocated / workload.events(),
+                        stateDirs.stream().mapToLong(MacroBenchmark::size).sum(),
+                        gcPauseMs() - gcTimeAtStart,
+                        gcCount() - gcCountAtStart,
+                        endOffsets(kafka, TopologyBuilder.TOPIC_USER_NOTIFICATIONS, partitions));
+            } finally {
+                streams.forEach(KafkaStreams::close);
+                for (Path stateDir : stateDirs) {
+                    delete(stateDir);
+                }
+            }
+        }
+    }
+
+    static String describe(MacroBenchmarkReport.Run run) {
+        return String.format("%s %d records in %.1f s, %.0f records/s, %.0f B/record allocated, state %.1f MB, "
+                        + "GC %d ms in %d pauses, %d notifications",
+                run.mode(), run.records(), run.elapsedMs() / 1e3, run.recordsPerSecond(), run.allocatedBytesPerRecord(),
+                run.stateDirBytes() / 1e6, run.gcPauseMs(), run.gcCount(), run.notifications());
+    }
+
+    private static long sum(Map<MetricName, ? extends Metric> metrics, String group, String name) {
+        double total = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            if (entry.getKey().group().equals(group) && entry.getKey().name().equals(name)
+                    && entry.getValue().metricValue() instanceof Double value) {
+                total += value;
+            }
+        }
+        return (long) total;
+    }
+
+    /**
+     * @return true once the main consumer has fetched everything up to the end of each partition it is assigned
+     */
+    private static boolean drained(Map<MetricName, ? extends Metric> metrics) {
+        boolean any = false;
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName name = entry.getKey();
+            if (!name.group().equals("consumer-fetch-manager-metrics") || !name.name().equals("records-lag")
+                    || !name.tags().containsKey("partition") || name.tags().getOrDefault("client-id", "").endsWith("restore-consumer")) {
+                continue;
+            }
+            if (!(entry.getValue().metricValue() instanceof Double lag) || lag.isNaN() || lag > 0) {
+                return false;
+            }
+            any = true;
+        }
+        return any;
+    }
+
+    private static Map<Long, Long> streamThreadAllocations() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocations = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().contains("-StreamThread-")) {
+                allocations.put(thread.threadId(), threads.getThreadAllocatedBytes(thread.threadId()));
+            }
+        }
+        return allocations;
+    }
+
+    private static long gcPauseMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // concurrent cycles run alongside the application, only pauses stop it
+            if (!collector.getName().contains("Concurrent")) {
+                total += Math.max(0, collector.getCollectionTime());
+            }
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!collector.getName().contains("Concurrent")) {
+                total += Math.max(0, collector.getCollectionCount());
+            }
+        }
+        return total;
+    }
+
+    private static long endOffsets(EmbeddedKafka kafka, String topic, int partitions) throws Exception {
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            request.put(new TopicPartition(topic, partition), OffsetSpec.latest());
+        }
+        try (Admin admin = kafka.admin()) {
+            return admin.listOffsets(request).all().get().values().stream()
+                    .mapToLong(offset -> offset.offset())
+                    .sum();
+        }
+    }
+
+    private static long size(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void quietLogging() {
+        // per-record debug logs and the broker's own logging would be measured along with the topology
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.ronaldsuwandi")).setLevel(Level.INFO);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("kafka")).setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("state.change.logger")).setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.apache.zookeeper")).setLevel(Level.WARN);
+    }
+}
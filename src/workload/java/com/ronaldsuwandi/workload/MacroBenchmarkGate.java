@@ -0,0 +1,71 @@
+package com.ronaldsuwandi.workload;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails the build when a {@link MacroBenchmark} result is slower than the stored baseline by more than a threshold.
+ * <pre>
+ * MacroBenchmarkGate &lt;result&gt; &lt;baseline&gt; &lt;threshold, e.g. 0.15 for 15%&gt;
+ * </pre>
+ * Only throughput gates, allocation, state size and GC are printed next to the baseline for reference.
+ */
+public class MacroBenchmarkGate {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3) {
+            System.err.println("Usage: MacroBenchmarkGate <result> <baseline> <threshold>");
+            System.exit(2);
+        }
+        Path resultPath = Path.of(args[0]);
+        Path baselinePath = Path.of(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        if (!Files.exists(baselinePath)) {
+            System.err.println("No baseline at " + baselinePath + ", record one with the macroBenchmarkBaseline task");
+            System.exit(1);
+        }
+
+        MacroBenchmarkReport baseline = MacroBenchmarkReport.read(baselinePath);
+        MacroBenchmarkReport result = MacroBenchmarkReport.read(resultPath);
+        for (MacroBenchmarkReport.Run run : baseline.runs()) {
+            MacroBenchmarkReport.Run current = result.run(run.mode());
+            if (current != null) {
+                System.out.printf("%-6s %.0f -> %.0f records/s (%+.1f%%), %.0f -> %.0f B/record, state %.1f -> %.1f MB, GC %d -> %d ms%n",
+                        run.mode(), run.recordsPerSecond(), current.recordsPerSecond(),
+                        (current.recordsPerSecond() / run.recordsPerSecond() - 1) * 100,
+                        run.allocatedBytesPerRecord(), current.allocatedBytesPerRecord(),
+                        run.stateDirBytes() / 1e6, current.stateDirBytes() / 1e6, run.gcPauseMs(), current.gcPauseMs());
+            }
+        }
+
+        List<String> failures = check(baseline, result, threshold);
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.printf("Throughput within %.0f%% of the baseline%n", threshold * 100);
+    }
+
+    /**
+     * @return why {@code result} does not pass against {@code baseline}, empty when it does
+     */
+    public static List<String> check(MacroBenchmarkReport baseline, MacroBenchmarkReport result, double threshold) {
+        List<String> failures = new ArrayList<>();
+        if (!baseline.settings().equals(result.settings())) {
+            failures.add("Settings differ from the baseline, results are not comparable: baseline " + baseline.settings()
+                    + ", result " + result.settings());
+            return failures;
+        }
+        for (MacroBenchmarkReport.Run run : baseline.runs()) {
+            MacroBenchmarkReport.Run current = result.run(run.mode());
+            if (current == null) {
+                failures.add("No " + run.mode() + " run in the result");
+            } else if (current.recordsPerSecond() < run.recordsPerSecond() * (1 - threshold)) {
+                failures.add(String.format("%s throughput regressed: %.0f records/s against a baseline of %.0f, more than %.0f%% slower",
+                        run.mode(), current.recordsPerSecond(), run.recordsPerSecond(), threshold * 100));
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ronaldsuwandi.workload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable outcome of a {@link MacroBenchmark} run, the format of both the result and the stored baseline.
+ *
+ * @param settings   workload and application settings the runs used, results are only comparable when these match
+ * @param processors CPUs available to the JVM
+ */
+public record MacroBenchmarkReport(
+        Map<String, String> settings,
+        String javaVersion,
+        int processors,
+        List<Run> runs
+) {
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+    /**
+     * One topology mode over the whole workload.
+     *
+     * @param records                 ingress events
+     * @param elapsedMs               from the first processed record until the last one, startup excluded
+     * @param allocatedBytesPerRecord bytes allocated by the stream threads per ingress event
+     * @param stateDirBytes           size of the state directory once everything is processed
+     * @param gcPauseMs               collector pause time while processing, for the whole JVM including the broker
+     * @param notifications           records on the notifications topic at the end
+     */
+    public record Run(
+            String mode,
+            long records,
+            long elapsedMs,
+            double recordsPerSecond,
+            double allocatedBytesPerRecord,
+            long stateDirBytes,
+            long gcPauseMs,
+            long gcCount,
+            long notifications
+    ) {
+    }
+
+    public Run run(String mode) {
+        return runs.stream().filter(run -> run.mode().equals(mode)).findFirst().orElse(null);
+    }
+
+    public static MacroBenchmarkReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), MacroBenchmarkReport.class);
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), this);
+    }
+}
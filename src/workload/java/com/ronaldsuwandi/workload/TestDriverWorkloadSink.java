@@ -0,0 +1,28 @@
+package com.ronaldsuwandi.workload;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pipes events into the input topics of a {@link TopologyTestDriver}, stamped with their arrival time, so the
+ * topology sees them the way it would from the producers. The driver stays owned by the caller.
+ */
+public class TestDriverWorkloadSink implements WorkloadSink {
+    private final TopologyTestDriver driver;
+    private final Map<String, TestInputTopic<String, byte[]>> topics = new HashMap<>();
+
+    public TestDriverWorkloadSink(TopologyTestDriver driver) {
+        this.driver = driver;
+    }
+
+    @Override
+    public void send(String topic, String key, byte[] value, long timestamp) {
+        topics.computeIfAbsent(topic, name -> driver.createInputTopic(name, new StringSerializer(), new ByteArraySerializer()))
+                .pipeInput(key, value, timestamp);
+    }
+}
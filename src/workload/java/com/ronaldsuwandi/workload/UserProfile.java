@@ -0,0 +1,26 @@
+package com.ronaldsuwandi.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * How many steps a synthetic user walks per hour, the same ranges producers/producer.js uses.
+ */
+public enum UserProfile {
+    /** over 5000 steps a day */
+    HIGH,
+    /** 1000 to 5000 steps a day */
+    MEDIUM,
+    /** under 1000 steps a day */
+    LOW,
+    /** starts low and climbs 50 steps per hour up to 500 */
+    LOW_TO_HIGH;
+
+    public int hourlySteps(SplittableRandom random, int hour) {
+        return switch (this) {
+            case HIGH -> 210 + random.nextInt(50);
+            case MEDIUM -> 50 + random.nextInt(50);
+            case LOW -> random.nextInt(30);
+            case LOW_TO_HIGH -> Math.min(50 * (hour + 1), 500);
+        };
+    }
+}
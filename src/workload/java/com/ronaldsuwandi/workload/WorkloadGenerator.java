@@ -0,0 +1,132 @@
+package com.ronaldsuwandi.workload;
+
+import com.ronaldsuwandi.TopologyBuilder;
+import com.ronaldsuwandi.model.UserActivityAndroid;
+import com.ronaldsuwandi.model.UserActivityIos;
+import com.ronaldsuwandi.serde.JSONSerdeUtil;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Produces the iOS and Android ingress events of a {@link WorkloadSpec}. Events are generated hour by hour, every user
+ * once per hour, and handed to a {@link WorkloadSink} as they are made, so tens of millions of events never sit in
+ * memory. Per-event draws come from a single generator seeded with the spec seed, the same spec gives byte-identical
+ * output.
+ * <pre>
+ * gradle workload -PworkloadArgs="out=build/workload users=1000000 hours=168 mix=HIGH:1,MEDIUM:3,LOW:3,LOW_TO_HIGH:1"
+ * </pre>
+ * Arguments are {@code key=value} pairs, see {@link WorkloadSpec} for the keys, plus {@code out} for the directory
+ * the {@link FileWorkloadSink} writes to.
+ */
+public class WorkloadGenerator {
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+    private static final double LATITUDE = 1.3521;
+    private static final double LONGITUDE = 103.8198;
+    private static final String PINCODE = "333001";
+
+    private final WorkloadSpec spec;
+    private final WorkloadPopulation population;
+    private final Serializer<UserActivityIos> iosSerializer = JSONSerdeUtil.getSerde(UserActivityIos.class).serializer();
+    private final Serializer<UserActivityAndroid> androidSerializer = JSONSerdeUtil.getSerde(UserActivityAndroid.class).serializer();
+
+    public WorkloadGenerator(WorkloadSpec spec) {
+        this.spec = spec;
+        this.population = new WorkloadPopulation(spec);
+    }
+
+    public WorkloadPopulation population() {
+        return population;
+    }
+
+    public WorkloadSummary generate(WorkloadSink sink) {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        long start = spec.start().toEpochMilli();
+        long maxDisorderMs = spec.maxDisorder().toMillis();
+        long lateByMs = spec.lateBy().toMillis();
+        double lateRate = spec.lateRate();
+        double disorderedRate = lateRate + spec.outOfOrderRate();
+
+        long events = 0, ios = 0, withLocation = 0, outOfOrder = 0, late = 0, steps = 0;
+        for (int hour = 0; hour < spec.hours(); hour++) {
+            long hourStart = start + hour * HOUR_MS;
+            for (int user = 0; user < population.size(); user++) {
+                long arrival = hourStart + population.offsetMs(user);
+                int walked = population.profile(user).hourlySteps(random, hour);
+                boolean location = random.nextDouble() < spec.locationRate();
+
+                long eventTime = arrival;
+                double disorder = random.nextDouble();
+                if (disorder < lateRate) {
+                    eventTime -= lateByMs;
+                    late++;
+                } else if (disorder < disorderedRate) {
+                    eventTime -= 1 + random.nextLong(maxDisorderMs);
+                    outOfOrder++;
+                }
+
+                String userId = population.userId(user);
+                Instant timestamp = Instant.ofEpochMilli(eventTime);
+                if (population.ios(user)) {
+                    sink.send(TopologyBuilder.TOPIC_USER_ACTIVITY_IOS, userId,
+                            iosSerializer.serialize(TopologyBuilder.TOPIC_USER_ACTIVITY_IOS, ios(userId, walked, location, timestamp)),
+                            arrival);
+                    ios++;
+                } else {
+                    sink.send(TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID, userId,
+                            androidSerializer.serialize(TopologyBuilder.TOPIC_USER_ACTIVITY_ANDROID, android(userId, walked, location, timestamp)),
+                            arrival);
+                }
+                events++;
+                steps += walked;
+                if (location) {
+                    withLocation++;
+                }
+            }
+        }
+        return new WorkloadSummary(events, ios, events - ios, withLocation, outOfOrder, late, steps);
+    }
+
+    private static UserActivityIos ios(String userId, int steps, boolean location, Instant timestamp) {
+        return new UserActivityIos(userId, "Doe", null, userId, "male", 175, 70,
+                new UserActivityIos.PhysicalActivity(100, 100, 3, steps),
+                location ? LATITUDE : null, location ? LONGITUDE : null, location ? PINCODE : null, timestamp);
+    }
+
+    private static UserActivityAndroid android(String userId, int steps, boolean location, Instant timestamp) {
+        return new UserActivityAndroid(
+                new UserActivityAndroid.Person(userId, "Doe", null, userId, "male", 175, 70),
+                new UserActivityAndroid.Activity(100, 100, 3, steps),
+                location ? new UserActivityAndroid.Location(LATITUDE, LONGITUDE, PINCODE) : null,
+                timestamp);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Properties props = new Properties();
+        props.load(new StringReader(String.join("\n", args)));
+        String out = props.getProperty("out");
+        if (out == null) {
+            System.err.println("Usage: WorkloadGenerator out=<dir> [seed=42] [users=1000] [hours=168] [mix=HIGH:1,...] "
+                    + "[ios.share=0.5] [location.rate=0.5] [out.of.order.rate=0.01] [late.rate=0.001] ...");
+            System.exit(1);
+        }
+        WorkloadSpec spec = WorkloadSpec.from(props);
+
+        long begin = System.nanoTime();
+        WorkloadSummary summary;
+        try (FileWorkloadSink sink = new FileWorkloadSink(Path.of(out))) {
+            summary = new WorkloadGenerator(spec).generate(sink);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d events (%d iOS, %d Android) for %d users in %.1f s, %.0f events/s, written to %s%n",
+                summary.events(), summary.ios(), summary.android(), spec.users(), seconds, summary.events() / seconds, out);
+        System.out.printf("%d with location, %d out of order, %d late%n",
+                summary.withLocation(), summary.outOfOrder(), summary.late());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ronaldsuwandi.workload;
+
+import java.time.Duration;
+
+/**
+ * The users of a {@link WorkloadSpec}. Nothing is stored per user: profile and device are derived from a hash of the
+ * seed and the user index, so a user keeps the same traits however many users or hours are generated, and a population
+ * of millions costs no memory.
+ */
+public class WorkloadPopulation {
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+
+    private final long seed;
+    private final int users;
+    private final UserProfile[] profiles;
+    private final double[] cumulativeWeights;
+    private final double iosShare;
+
+    public WorkloadPopulation(WorkloadSpec spec) {
+        this.seed = spec.seed();
+        this.users = spec.users();
+        this.iosShare = spec.iosShare();
+        this.profiles = spec.mix().keySet().toArray(new UserProfile[0]);
+        this.cumulativeWeights = new double[profiles.length];
+        double total = spec.mix().values().stream().mapToDouble(Double::doubleValue).sum();
+        double cumulative = 0;
+        for (int i = 0; i < profiles.length; i++) {
+            cumulative += spec.mix().get(profiles[i]) / total;
+            cumulativeWeights[i] = cumulative;
+        }
+    }
+
+    public int size() {
+        return users;
+    }
+
+    /**
+     * @return id in the producers/producer.js form {@code <PROFILE>-user-<n>}, with n counted from 1 across the
+     * whole population
+     */
+    public String userId(int user) {
+        return profile(user).name() + "-user-" + (user + 1);
+    }
+
+    public UserProfile profile(int user) {
+        double draw = unit(user, 1);
+        for (int i = 0; i < profiles.length - 1; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return profiles[i];
+            }
+        }
+        return profiles[profiles.length - 1];
+    }
+
+    public boolean ios(int user) {
+        return unit(user, 2) < iosShare;
+    }
+
+    /**
+     * @return how far into each hour the user reports. Users are spread evenly over the hour in index order, so
+     * walking the users of an hour in order gives arrival times that never go back
+     */
+    public long offsetMs(int user) {
+        return user * HOUR_MS / users;
+    }
+
+    private double unit(int user, int trait) {
+        return (mix(seed ^ mix(((long) user << 8) | trait)) >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        // splitmix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
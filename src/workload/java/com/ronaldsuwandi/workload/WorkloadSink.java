@@ -0,0 +1,18 @@
+package com.ronaldsuwandi.workload;
+
+/**
+ * Where a {@link WorkloadGenerator} writes its events, one at a time in arrival order.
+ */
+public interface WorkloadSink extends AutoCloseable {
+    /**
+     * @param topic     {@code user-activity-ios} or {@code user-activity-android}
+     * @param key       user id
+     * @param value     JSON payload in the platform format
+     * @param timestamp arrival time, which is behind the event time in the payload for out-of-order and late events
+     */
+    void send(String topic, String key, byte[] value, long timestamp);
+
+    @Override
+    default void close() {
+    }
+}
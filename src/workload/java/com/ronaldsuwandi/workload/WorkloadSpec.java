@@ -0,0 +1,105 @@
+package com.ronaldsuwandi.workload;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * What a {@link WorkloadGenerator} produces: {@code users} users each sending one event per hour for {@code hours}
+ * hours from {@code start}. The same spec always produces the same events.
+ *
+ * @param mix             relative weight of each profile in the population, profiles left out are not used
+ * @param iosShare        share of users on iOS, the rest are on Android
+ * @param locationRate    share of events carrying a location
+ * @param outOfOrderRate  share of events whose event time is up to {@code maxDisorder} earlier than their arrival,
+ *                        still within the daily window grace
+ * @param lateRate        share of events arriving {@code lateBy} after their event time, past the daily window grace
+ */
+public record WorkloadSpec(
+        long seed,
+        int users,
+        int hours,
+        Instant start,
+        Map<UserProfile, Double> mix,
+        double iosShare,
+        double locationRate,
+        double outOfOrderRate,
+        Duration maxDisorder,
+        double lateRate,
+        Duration lateBy
+) {
+    public static final String SEED = "seed";
+    public static final String USERS = "users";
+    public static final String HOURS = "hours";
+    public static final String START = "start";
+    public static final String MIX = "mix";
+    public static final String IOS_SHARE = "ios.share";
+    public static final String LOCATION_RATE = "location.rate";
+    public static final String OUT_OF_ORDER_RATE = "out.of.order.rate";
+    public static final String OUT_OF_ORDER_MAX_MS = "out.of.order.max.ms";
+    public static final String LATE_RATE = "late.rate";
+    public static final String LATE_BY_MS = "late.by.ms";
+
+    public WorkloadSpec {
+        if (users <= 0 || hours <= 0) {
+            throw new IllegalArgumentException("users and hours must be positive");
+        }
+        if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)
+                || mix.values().stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs at least one profile with a positive weight: " + mix);
+        }
+        if (maxDisorder.isNegative() || maxDisorder.isZero() || lateBy.isNegative()) {
+            throw new IllegalArgumentException("out.of.order.max.ms must be positive and late.by.ms not negative");
+        }
+        if (outOfOrderRate + lateRate > 1) {
+            throw new IllegalArgumentException("out.of.order.rate and late.rate add up to more than 1");
+        }
+        mix = new EnumMap<>(mix);
+    }
+
+    /**
+     * Reads a spec from {@code key=value} settings, see the constants for the keys. Anything not given keeps the
+     * defaults: 1000 users of all four profiles over a week, half on iOS, half the events with a location, 1% out of
+     * order and 0.1% late.
+     */
+    public static WorkloadSpec from(Properties props) {
+        return new WorkloadSpec(
+                Long.parseLong(props.getProperty(SEED, "42")),
+                Integer.parseInt(props.getProperty(USERS, "1000")),
+                Integer.parseInt(props.getProperty(HOURS, String.valueOf(7 * 24))),
+                Instant.parse(props.getProperty(START, "2024-11-04T00:00:00Z")),
+                parseMix(props.getProperty(MIX, "HIGH:1,MEDIUM:1,LOW:1,LOW_TO_HIGH:1")),
+                Double.parseDouble(props.getProperty(IOS_SHARE, "0.5")),
+                Double.parseDouble(props.getProperty(LOCATION_RATE, "0.5")),
+                Double.parseDouble(props.getProperty(OUT_OF_ORDER_RATE, "0.01")),
+                Duration.ofMillis(Long.parseLong(props.getProperty(OUT_OF_ORDER_MAX_MS, String.valueOf(Duration.ofMinutes(30).toMillis())))),
+                Double.parseDouble(props.getProperty(LATE_RATE, "0.001")),
+                Duration.ofMillis(Long.parseLong(props.getProperty(LATE_BY_MS, String.valueOf(Duration.ofDays(2).toMillis()))))
+        );
+    }
+
+    public static WorkloadSpec defaults() {
+        return from(new Properties());
+    }
+
+    /**
+     * @param mix comma separated {@code PROFILE:weight} pairs, e.g. {@code HIGH:1,MEDIUM:3}
+     */
+    public static Map<UserProfile, Double> parseMix(String mix) {
+        Map<UserProfile, Double> weights = new EnumMap<>(UserProfile.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry " + entry + ", expected PROFILE:weight");
+            }
+            weights.put(UserProfile.valueOf(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    public long events() {
+        return (long) users * hours;
+    }
+}
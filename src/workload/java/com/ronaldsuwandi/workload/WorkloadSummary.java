@@ -0,0 +1,15 @@
+package com.ronaldsuwandi.workload;
+
+/**
+ * Counts of what a {@link WorkloadGenerator} run produced.
+ */
+public record WorkloadSummary(
+        long events,
+        long ios,
+        long android,
+        long withLocation,
+        long outOfOrder,
+        long late,
+        long steps
+) {
+}